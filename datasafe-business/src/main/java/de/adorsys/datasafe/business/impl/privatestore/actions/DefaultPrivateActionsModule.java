@@ -44,6 +44,12 @@ public abstract class DefaultPrivateActionsModule {
     @Binds
     abstract RemoveFromPrivate removeFromPrivate(RemoveFromPrivateImplRuntimeDelegatable impl);
 
+    /**
+     * Moves file within user private storage, only its encrypted path is changed.
+     */
+    @Binds
+    abstract MoveInPrivate moveInPrivate(MoveInPrivateImplRuntimeDelegatable impl);
+
     /**
      * Aggregate view of operations that can be done on privatespace.
      */
@@ -4,6 +4,7 @@ import dagger.Binds;
 import dagger.Module;
 import dagger.Provides;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedList;
+import de.adorsys.datasafe.metainfo.version.api.actions.VersionedMove;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedRead;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedRemove;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedWrite;
@@ -16,6 +17,7 @@ import de.adorsys.datasafe.metainfo.version.impl.version.latest.DefaultVersionIn
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.EncryptedLatestLinkServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.LatestPrivateSpaceImplRuntimeDelegatable;
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.actions.LatestListImplRuntimeDelegatable;
+import de.adorsys.datasafe.metainfo.version.impl.version.latest.actions.LatestMoveImplRuntimeDelegatable;
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.actions.LatestReadImplRuntimeDelegatable;
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.actions.LatestRemoveImplRuntimeDelegatable;
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.actions.LatestWriteImplRuntimeDelegatable;
@@ -80,6 +82,12 @@ public abstract class DefaultVersionedPrivateActionsModule {
     @Binds
     abstract VersionedWrite<LatestDFSVersion> latestWrite(LatestWriteImplRuntimeDelegatable<LatestDFSVersion> impl);
 
+    /**
+     * Moves latest version of the file to another path, version blobs stay where they are.
+     */
+    @Binds
+    abstract VersionedMove<LatestDFSVersion> latestMove(LatestMoveImplRuntimeDelegatable<LatestDFSVersion> impl);
+
     /**
      * Aggregate view of operations on latest files in privatespace.
      */
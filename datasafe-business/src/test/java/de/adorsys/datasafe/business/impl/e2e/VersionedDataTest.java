@@ -6,6 +6,7 @@ import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.metainfo.version.impl.version.types.DFSVersion;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.MoveRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
@@ -38,6 +39,7 @@ public class VersionedDataTest extends BaseE2ETest {
     private static final String FOLDER = "folder1";
     private static final String PRIVATE_FILE = "secret.txt";
     private static final String PRIVATE_FILE_PATH = FOLDER + "/" + PRIVATE_FILE;
+    private static final String MOVED_FILE_PATH = "folder2/moved.txt";
 
     private VersionedDatasafeServices versionedDocusafeServices;
 
@@ -143,6 +145,33 @@ public class VersionedDataTest extends BaseE2ETest {
                 .containsExactly(PRIVATE_FILE_PATH, PRIVATE_FILE_PATH, PRIVATE_FILE_PATH);
     }
 
+    @ParameterizedTest
+    @MethodSource("allStorages")
+    void testVersionedMove(WithStorageProvider.StorageDescriptor descriptor) {
+        init(descriptor);
+
+        registerAndDoWritesWithDiffMessageInSameLocation();
+
+        versionedDocusafeServices.latestPrivate().move(
+                MoveRequest.forDefaultPrivate(jane, PRIVATE_FILE_PATH, MOVED_FILE_PATH)
+        );
+
+        String readingResult = readPrivateUsingPrivateKey(jane, BasePrivateResource.forPrivate(MOVED_FILE_PATH));
+        assertThat(readingResult).isEqualTo(MESSAGE_THREE);
+        assertThat(listPrivate.list(ListRequest.forDefaultPrivate(jane, "./")))
+                .extracting(it -> it.getResource().asPrivate().decryptedPath().toASCIIString())
+                .containsExactly(MOVED_FILE_PATH);
+        assertThat(versionedDocusafeServices.versionInfo()
+                .versionsOf(ListRequest.forDefaultPrivate(jane, PRIVATE_FILE_PATH))
+        ).isEmpty();
+        assertThat(versionedDocusafeServices.versionInfo()
+                .versionsOf(ListRequest.forDefaultPrivate(jane, MOVED_FILE_PATH))
+                .map(Versioned::stripVersion)
+                .map(ResourceLocation::location)
+                .map(Uri::toASCIIString)
+        ).containsExactly(MOVED_FILE_PATH, MOVED_FILE_PATH, MOVED_FILE_PATH);
+    }
+
     // this test imitates removal of old file versions
     @ParameterizedTest
     @MethodSource("allStorages")
@@ -0,0 +1,74 @@
+package de.adorsys.datasafe.business.impl.e2e.performance;
+
+import de.adorsys.datasafe.business.impl.e2e.DatasafeServicesProvider;
+import de.adorsys.datasafe.business.impl.e2e.performance.services.OperationExecutor;
+import de.adorsys.datasafe.business.impl.e2e.performance.services.StatisticService;
+import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
+import de.adorsys.datasafe.business.impl.service.VersionedDatasafeServices;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageConfig;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageService;
+import de.adorsys.datasafe.storage.api.inmemory.LatencyDistribution;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+
+/**
+ * Performance test of services on top of simulated in-memory S3 storage (both for versioned and non-versioned),
+ * needs no real storage, so results are repeatable.
+ */
+class InMemoryPerformance extends WithRandomActionPerformance {
+
+    private static final Uri ROOT = new Uri("s3://bucket/performance/");
+
+    @ParameterizedTest
+    @MethodSource("sizesAndLatency")
+    @EnabledIfEnvironmentVariable(named = "INMEMORY_PERFORMANCE_TEST", matches = "true")
+    void testInMemoryVersionedPerformance(int size, int latency) {
+        VersionedDatasafeServices services = DatasafeServicesProvider.versionedDatasafeServices(
+                storageService(latency), ROOT);
+        initialize(DatasafeServicesProvider.dfsConfig(ROOT), services);
+        initUsers(size);
+
+        OperationExecutor executor = new OperationExecutor(
+                services.latestPrivate(),
+                services.inboxService(),
+                users,
+                STATS.computeIfAbsent(named("INMEMORY VERSIONED ", size, latency), id -> new StatisticService())
+        );
+
+        executeOperations(executor);
+    }
+
+    @ParameterizedTest
+    @MethodSource("sizesAndLatency")
+    @EnabledIfEnvironmentVariable(named = "INMEMORY_PERFORMANCE_TEST", matches = "true")
+    void testInMemoryNonVersionedPerformance(int size, int latency) {
+        DefaultDatasafeServices services = DatasafeServicesProvider.defaultDatasafeServices(
+                storageService(latency), ROOT);
+        initialize(DatasafeServicesProvider.dfsConfig(ROOT), services);
+        initUsers(size);
+
+        OperationExecutor executor = new OperationExecutor(
+                services.privateService(),
+                services.inboxService(),
+                users,
+                STATS.computeIfAbsent(named("INMEMORY ", size, latency), id -> new StatisticService())
+        );
+
+        executeOperations(executor);
+    }
+
+    private static InMemoryStorageService storageService(int latency) {
+        return new InMemoryStorageService(InMemoryStorageConfig.builder()
+                .defaultLatency(0 == latency
+                        ? LatencyDistribution.none()
+                        : LatencyDistribution.uniform(
+                                Duration.ofMillis((long) (latency * 0.8)),
+                                Duration.ofMillis((long) (latency * 1.2))))
+                .build()
+        );
+    }
+}
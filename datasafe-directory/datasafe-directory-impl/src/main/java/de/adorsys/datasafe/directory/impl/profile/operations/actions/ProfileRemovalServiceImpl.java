@@ -56,12 +56,12 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
         removeAllIn(userID, privateProfile.getInboxWithFullAccess());
         removeAllIn(userID, privateProfile.getDocumentVersionStorage());
 
-        Stream.of(
+        removeService.removeAll(Stream.of(
                 privateProfile.getKeystore().getResource(),
                 privateProfile.getPrivateStorage().getResource(),
                 privateProfile.getInboxWithFullAccess().getResource(),
                 privateProfile.getDocumentVersionStorage().getResource()
-        ).map(it -> access.privateAccessFor(userID, it)).forEach(removeService::remove);
+        ).map(it -> access.privateAccessFor(userID, it)));
 
         removeService.remove(access.withSystemAccess(publicProfile.getPublicKeys()));
 
@@ -70,15 +70,14 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
         removeService.remove(access.withSystemAccess(dfsConfig.publicProfile(userID.getUserID())));
 
         // remove everything else associated with user
-        privateProfile.getAssociatedResources().stream()
-                .map(it -> access.privateAccessFor(userID, it.getResource()))
-                .forEach(removeService::remove);
+        removeService.removeAll(privateProfile.getAssociatedResources().stream()
+                .map(it -> access.privateAccessFor(userID, it.getResource())));
         log.debug("Deregistered user {}", userID);
     }
 
     private void removeAllIn(UserIDAuth userID, AbsoluteLocation<PrivateResource> location) {
-        listService.list(
+        removeService.removeAll(listService.list(
                 new ListRequest<>(userID, access.privateAccessFor(userID, location.getResource())).getLocation()
-        ).forEach(removeService::remove);
+        ));
     }
 }
@@ -1,7 +1,9 @@
 package de.adorsys.datasafe.inbox.api.actions;
 
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.PageSelection;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
@@ -19,4 +21,19 @@ public interface ListInbox {
      * @return Stream of absolute resource locations, by default location is not encrypted
      */
     Stream<AbsoluteLocation<ResolvedResource>> list(ListRequest<UserIDAuth, PrivateResource> request);
+
+    /**
+     * List single page of files/entries at the location within INBOX, entries are ordered by their path
+     * Default implementation scans whole listing for each page keeping only {@code pageSize} entries in memory.
+     * @param request Where to list entries
+     * @param continuationToken {@link ListPage#getNextToken()} of previous page, {@code null} for the first page
+     * @param pageSize Maximum amount of entries in page
+     * @return Page of absolute resource locations, by default location is not encrypted
+     */
+    default ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = list(request)) {
+            return PageSelection.select(listing, it -> it.location().toASCIIString(), continuationToken, pageSize);
+        }
+    }
 }
@@ -6,6 +6,7 @@ import de.adorsys.datasafe.directory.api.resource.ResourceResolver;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.inbox.api.actions.ListInbox;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.*;
@@ -34,8 +35,23 @@ public class ListInboxImpl implements ListInbox {
 
     @Override
     public Stream<AbsoluteLocation<ResolvedResource>> list(ListRequest<UserIDAuth, PrivateResource> request) {
-        return listService.list(resolveRelative(request))
-                .map(it -> fillEncryptedDecryptedSegments(request, it));
+        AbsoluteLocation<PrivateResource> listDir = resolveRelative(request);
+        Stream<AbsoluteLocation<ResolvedResource>> listing = request.isRecursive()
+                ? listService.list(listDir)
+                : listService.listShallow(listDir);
+
+        return listing.map(it -> fillEncryptedDecryptedSegments(request, it));
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        AbsoluteLocation<PrivateResource> listDir = resolveRelative(request);
+        ListPage<AbsoluteLocation<ResolvedResource>> page = request.isRecursive()
+                ? listService.listPage(listDir, continuationToken, pageSize)
+                : listService.listShallowPage(listDir, continuationToken, pageSize);
+
+        return page.map(it -> fillEncryptedDecryptedSegments(request, it));
     }
 
     private AbsoluteLocation<PrivateResource> resolveRelative(
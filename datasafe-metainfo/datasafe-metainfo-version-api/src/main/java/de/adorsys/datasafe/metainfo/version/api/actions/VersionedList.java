@@ -3,7 +3,9 @@ package de.adorsys.datasafe.metainfo.version.api.actions;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.metainfo.version.api.version.WithVersionStrategy;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.PageSelection;
 import de.adorsys.datasafe.types.api.actions.VersionStrategy;
 import de.adorsys.datasafe.types.api.resource.*;
 
@@ -27,4 +29,18 @@ public interface VersionedList<V extends VersionStrategy> extends ListPrivate, W
     Stream<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listVersioned(
             ListRequest<UserIDAuth, PrivateResource> request
     );
+
+    /**
+     * Lists single page of resource versions with latest resource link location.
+     * Default implementation scans whole listing for each page keeping only {@code pageSize} entries in memory.
+     */
+    default ListPage<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listVersionedPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        try (Stream<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listing =
+                     listVersioned(request)) {
+            return PageSelection.select(
+                    listing, it -> it.absolute().location().toASCIIString(), continuationToken, pageSize
+            );
+        }
+    }
 }
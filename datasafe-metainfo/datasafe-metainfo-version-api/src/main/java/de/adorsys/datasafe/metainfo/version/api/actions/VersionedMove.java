@@ -0,0 +1,13 @@
+package de.adorsys.datasafe.metainfo.version.api.actions;
+
+import de.adorsys.datasafe.metainfo.version.api.version.WithVersionStrategy;
+import de.adorsys.datasafe.privatestore.api.actions.MoveInPrivate;
+import de.adorsys.datasafe.types.api.actions.VersionStrategy;
+
+/**
+ * Moves latest resource version (so resource will be visible at new location in latest view, but its versions
+ * are kept where they are)
+ * @param <V> Versioning class.
+ */
+public interface VersionedMove<V extends VersionStrategy> extends MoveInPrivate, WithVersionStrategy<V> {
+}
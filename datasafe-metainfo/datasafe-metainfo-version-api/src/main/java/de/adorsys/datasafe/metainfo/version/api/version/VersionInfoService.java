@@ -1,7 +1,9 @@
 package de.adorsys.datasafe.metainfo.version.api.version;
 
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.PageSelection;
 import de.adorsys.datasafe.types.api.resource.*;
 
 import java.util.stream.Stream;
@@ -22,6 +24,23 @@ public interface VersionInfoService<V extends Version> {
             ListRequest<UserIDAuth, PrivateResource> request
     );
 
+    /**
+     * Provides single page of resource versions with its timestamp, default implementation scans whole listing
+     * for each page
+     * @param request where to list data
+     * @param continuationToken {@link ListPage#getNextToken()} of previous page, {@code null} for the first page
+     * @param pageSize maximum amount of listed blobs in page, blobs that are not versions are skipped
+     * @return resource with timestamp, with its latest snapshot location and version
+     */
+    default ListPage<Versioned<AbsoluteLocation<ResolvedResource>, PrivateResource, V>> versionsOfPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        try (Stream<Versioned<AbsoluteLocation<ResolvedResource>, PrivateResource, V>> listing = versionsOf(request)) {
+            return PageSelection.select(
+                    listing, it -> it.absolute().location().toASCIIString(), continuationToken, pageSize
+            );
+        }
+    }
+
     /**
      * Provides all available versions of resource with its timestamp joined with latest version (to compare time)
      * @param request where to list data
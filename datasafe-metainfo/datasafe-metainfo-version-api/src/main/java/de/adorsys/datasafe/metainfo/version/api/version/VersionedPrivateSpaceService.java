@@ -2,7 +2,9 @@ package de.adorsys.datasafe.metainfo.version.api.version;
 
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.privatestore.api.PrivateSpaceService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.PageSelection;
 import de.adorsys.datasafe.types.api.actions.VersionStrategy;
 import de.adorsys.datasafe.types.api.resource.*;
 
@@ -23,4 +25,21 @@ public interface VersionedPrivateSpaceService<V extends VersionStrategy> extends
      */
     Stream<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listWithDetails(
             ListRequest<UserIDAuth, PrivateResource> request);
+
+    /**
+     * Provides single page of resource versions with latest one
+     * @param request Where to list data
+     * @param continuationToken {@link ListPage#getNextToken()} of previous page, {@code null} for the first page
+     * @param pageSize Maximum amount of entries in page
+     * @return resource version location, latest resource link, version
+     */
+    default ListPage<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listWithDetailsPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        try (Stream<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listing =
+                     listWithDetails(request)) {
+            return PageSelection.select(
+                    listing, it -> it.absolute().location().toASCIIString(), continuationToken, pageSize
+            );
+        }
+    }
 }
@@ -6,6 +6,7 @@ import de.adorsys.datasafe.metainfo.version.api.version.VersionEncoderDecoder;
 import de.adorsys.datasafe.metainfo.version.api.version.VersionInfoService;
 import de.adorsys.datasafe.metainfo.version.impl.version.types.DFSVersion;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.*;
@@ -41,6 +42,13 @@ public class DefaultVersionInfoServiceImpl implements VersionInfoService<DFSVers
         return listPrivate.list(request).map(this::parseVersion).filter(Objects::nonNull);
     }
 
+    @Override
+    public ListPage<Versioned<AbsoluteLocation<ResolvedResource>, PrivateResource, DFSVersion>> versionsOfPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+
+        return listPrivate.listPage(request, continuationToken, pageSize).map(this::parseVersion);
+    }
+
     @Override
     public Stream<Versioned<AbsoluteLocation<ResolvedResource>, ResolvedResource, DFSVersion>> listJoinedWithLatest(
             ListRequest<UserIDAuth, PrivateResource> request) {
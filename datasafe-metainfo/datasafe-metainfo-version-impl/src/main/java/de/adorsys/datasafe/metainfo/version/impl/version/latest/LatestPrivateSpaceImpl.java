@@ -2,12 +2,15 @@ package de.adorsys.datasafe.metainfo.version.impl.version.latest;
 
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedList;
+import de.adorsys.datasafe.metainfo.version.api.actions.VersionedMove;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedRead;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedRemove;
 import de.adorsys.datasafe.metainfo.version.api.actions.VersionedWrite;
 import de.adorsys.datasafe.metainfo.version.api.version.VersionedPrivateSpaceService;
 import de.adorsys.datasafe.metainfo.version.impl.version.types.LatestDFSVersion;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.MoveRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
@@ -36,15 +39,18 @@ public class LatestPrivateSpaceImpl<V extends LatestDFSVersion> implements Versi
     private final VersionedRead<V> readService;
     private final VersionedRemove<V> removeService;
     private final VersionedWrite<V> writeService;
+    private final VersionedMove<V> moveService;
 
     @Inject
     public LatestPrivateSpaceImpl(V strategy, VersionedList<V> listService, VersionedRead<V> readService,
-                                  VersionedRemove<V> removeService, VersionedWrite<V> writeService) {
+                                  VersionedRemove<V> removeService, VersionedWrite<V> writeService,
+                                  VersionedMove<V> moveService) {
         this.strategy = strategy;
         this.listService = listService;
         this.readService = readService;
         this.removeService = removeService;
         this.writeService = writeService;
+        this.moveService = moveService;
     }
 
     // Delegate didn't work
@@ -60,6 +66,20 @@ public class LatestPrivateSpaceImpl<V extends LatestDFSVersion> implements Versi
         return listService.listVersioned(request);
     }
 
+    // Delegate didn't work
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        return listService.listPage(request, continuationToken, pageSize);
+    }
+
+    // Delegate didn't work
+    @Override
+    public ListPage<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listWithDetailsPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        return listService.listVersionedPage(request, continuationToken, pageSize);
+    }
+
     // Delegate didn't work
     @Override
     public InputStream read(ReadRequest<UserIDAuth, PrivateResource> request) {
@@ -77,4 +97,10 @@ public class LatestPrivateSpaceImpl<V extends LatestDFSVersion> implements Versi
     public OutputStream write(WriteRequest<UserIDAuth, PrivateResource> request) {
         return writeService.write(request);
     }
+
+    // Delegate didn't work
+    @Override
+    public void move(MoveRequest<UserIDAuth, PrivateResource> request) {
+        moveService.move(request);
+    }
 }
@@ -7,6 +7,7 @@ import de.adorsys.datasafe.metainfo.version.api.version.VersionEncoderDecoder;
 import de.adorsys.datasafe.metainfo.version.impl.version.types.DFSVersion;
 import de.adorsys.datasafe.metainfo.version.impl.version.types.LatestDFSVersion;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.*;
@@ -51,21 +52,40 @@ public class LatestListImpl<V extends LatestDFSVersion> implements VersionedList
                 .map(AbsoluteLocation::new);
     }
 
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        return listVersionedPage(request, continuationToken, pageSize)
+                .map(it -> new AbsoluteLocation<>(it.stripVersion()));
+    }
+
     @Override
     public Stream<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listVersioned(
             ListRequest<UserIDAuth, PrivateResource> request) {
 
-        ListRequest<UserIDAuth, PrivateResource> forLatestSnapshotDir = request.toBuilder().location(
-                latestVersionLinkLocator.resolveLatestLinkLocation(
-                        request.getOwner(), request.getLocation()).getResource()
-        ).build();
-
         return listPrivate
-                .list(forLatestSnapshotDir)
+                .list(forLatestSnapshotDir(request))
                 .map(it -> parseVersion(request, it))
                 .filter(Objects::nonNull);
     }
 
+    @Override
+    public ListPage<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listVersionedPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+
+        return listPrivate
+                .listPage(forLatestSnapshotDir(request), continuationToken, pageSize)
+                .map(it -> parseVersion(request, it));
+    }
+
+    private ListRequest<UserIDAuth, PrivateResource> forLatestSnapshotDir(
+            ListRequest<UserIDAuth, PrivateResource> request) {
+        return request.toBuilder().location(
+                latestVersionLinkLocator.resolveLatestLinkLocation(
+                        request.getOwner(), request.getLocation()).getResource()
+        ).build();
+    }
+
     private Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version> parseVersion(
             ListRequest<UserIDAuth, PrivateResource> request, AbsoluteLocation<ResolvedResource> resource) {
         AbsoluteLocation<PrivateResource> privateBlob =
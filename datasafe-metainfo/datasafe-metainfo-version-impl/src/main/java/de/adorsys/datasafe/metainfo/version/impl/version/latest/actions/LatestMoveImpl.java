@@ -0,0 +1,124 @@
+package de.adorsys.datasafe.metainfo.version.impl.version.latest.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.metainfo.version.api.actions.VersionedMove;
+import de.adorsys.datasafe.metainfo.version.api.version.EncryptedLatestLinkService;
+import de.adorsys.datasafe.metainfo.version.api.version.VersionEncoderDecoder;
+import de.adorsys.datasafe.metainfo.version.impl.version.types.LatestDFSVersion;
+import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
+import de.adorsys.datasafe.privatestore.api.actions.MoveInPrivate;
+import de.adorsys.datasafe.privatestore.api.actions.RemoveFromPrivate;
+import de.adorsys.datasafe.privatestore.api.actions.WriteToPrivate;
+import de.adorsys.datasafe.types.api.actions.ListRequest;
+import de.adorsys.datasafe.types.api.actions.MoveRequest;
+import de.adorsys.datasafe.types.api.actions.RemoveRequest;
+import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.resource.VersionedUri;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import javax.inject.Inject;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Default versioned resource move action that moves all version blobs of the resource using {@link MoveInPrivate},
+ * then writes link pointing to moved latest blob at new location and removes old link
+ * using {@link EncryptedLatestLinkService}, so that both reading and version listing follow the document.
+ * @implNote Moves only versioned resource - can't be used with ordinary one
+ * @param <V> version tag
+ */
+@RuntimeDelegate
+public class LatestMoveImpl<V extends LatestDFSVersion> implements VersionedMove<V> {
+
+    @Getter
+    private final V strategy;
+
+    private final VersionEncoderDecoder encoder;
+    private final EncryptedResourceResolver encryptedResourceResolver;
+    private final ListPrivate listPrivate;
+    private final MoveInPrivate moveInPrivate;
+    private final WriteToPrivate writeToPrivate;
+    private final RemoveFromPrivate removeFromPrivate;
+    private final EncryptedLatestLinkService latestVersionLinkLocator;
+
+    @Inject
+    public LatestMoveImpl(V versionStrategy, VersionEncoderDecoder encoder,
+                          EncryptedResourceResolver encryptedResourceResolver, ListPrivate listPrivate,
+                          MoveInPrivate moveInPrivate, WriteToPrivate writeToPrivate,
+                          RemoveFromPrivate removeFromPrivate, EncryptedLatestLinkService latestVersionLinkLocator) {
+        this.strategy = versionStrategy;
+        this.encoder = encoder;
+        this.encryptedResourceResolver = encryptedResourceResolver;
+        this.listPrivate = listPrivate;
+        this.moveInPrivate = moveInPrivate;
+        this.writeToPrivate = writeToPrivate;
+        this.removeFromPrivate = removeFromPrivate;
+        this.latestVersionLinkLocator = latestVersionLinkLocator;
+    }
+
+    @Override
+    public void move(MoveRequest<UserIDAuth, PrivateResource> request) {
+        AbsoluteLocation<PrivateResource> sourceLink =
+                latestVersionLinkLocator.resolveLatestLinkLocation(request.getOwner(), request.getLocation());
+        AbsoluteLocation<PrivateResource> targetLink =
+                latestVersionLinkLocator.resolveLatestLinkLocation(request.getOwner(), request.getTarget());
+
+        Uri latestBlob = latestVersionLinkLocator
+                .readLinkAndDecrypt(request.getOwner(), sourceLink)
+                .getResource()
+                .decryptedPath();
+
+        // collected before moving, so that listing does not see moved blobs if target is within source
+        List<VersionedUri> versions = listPrivate.list(new ListRequest<>(request.getOwner(), request.getLocation()))
+                .map(it -> encoder.decodeVersion(it.getResource().asPrivate().decryptedPath()).orElse(null))
+                .filter(Objects::nonNull)
+                .filter(it -> it.getPathWithoutVersion().equals(request.getLocation().location().asFile()))
+                .collect(Collectors.toList());
+
+        for (VersionedUri version : versions) {
+            moveInPrivate.move(request.toBuilder()
+                    .location(BasePrivateResource.forPrivate(version.getPathWithVersion()))
+                    .target(BasePrivateResource.forPrivate(relocate(version.getPathWithVersion(), request)))
+                    .build()
+            );
+        }
+
+        writeLink(
+                request.getOwner(),
+                targetLink.getResource(),
+                encryptPath(request.getOwner(), relocate(latestBlob, request))
+        );
+        removeFromPrivate.remove(RemoveRequest.forPrivate(request.getOwner(), sourceLink.getResource()));
+    }
+
+    private Uri relocate(Uri versionedPath, MoveRequest<UserIDAuth, PrivateResource> request) {
+        Uri version = request.getLocation().location().asDir().relativize(versionedPath);
+        return request.getTarget().location().asDir().resolve(version);
+    }
+
+    private PrivateResource encryptPath(UserIDAuth auth, Uri uri) {
+        AbsoluteLocation<PrivateResource> resource = encryptedResourceResolver.encryptAndResolvePath(
+                auth,
+                BasePrivateResource.forPrivate(uri)
+        );
+
+        return BasePrivateResource.forPrivate(resource.getResource().encryptedPath());
+    }
+
+    @SneakyThrows
+    private void writeLink(UserIDAuth owner, PrivateResource link, PrivateResource blob) {
+        try (OutputStream os = writeToPrivate.write(
+                WriteRequest.<UserIDAuth, PrivateResource>builder().owner(owner).location(link).build())) {
+            os.write(blob.location().toASCIIString().getBytes());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package de.adorsys.datasafe.privatestore.api;
 
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
+import de.adorsys.datasafe.privatestore.api.actions.MoveInPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ReadFromPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.RemoveFromPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.WriteToPrivate;
@@ -9,5 +10,10 @@ import de.adorsys.datasafe.privatestore.api.actions.WriteToPrivate;
  * Aggregate view of operations possible with users' privatespace. Users' privatespace - encrypted storage
  * of users' private files.
  */
-public interface PrivateSpaceService extends ListPrivate, ReadFromPrivate, WriteToPrivate, RemoveFromPrivate {
+public interface PrivateSpaceService extends
+        ListPrivate,
+        ReadFromPrivate,
+        WriteToPrivate,
+        RemoveFromPrivate,
+        MoveInPrivate {
 }
@@ -0,0 +1,19 @@
+package de.adorsys.datasafe.privatestore.api.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.types.api.actions.MoveRequest;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+
+/**
+ * Moves (renames) users' file within privatespace.
+ */
+public interface MoveInPrivate {
+
+    /**
+     * Moves users' file inside users' privatespace, file at target location is overwritten. Document is encrypted
+     * with the same key regardless of its path, so only the path is encrypted again and storage moves the
+     * document without its content being re-encrypted.
+     * @param request Current and new resource location (relative or absolute)
+     */
+    void move(MoveRequest<UserIDAuth, PrivateResource> request);
+}
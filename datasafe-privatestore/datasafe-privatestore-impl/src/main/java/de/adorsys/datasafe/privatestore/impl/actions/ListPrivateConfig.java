@@ -0,0 +1,41 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tuning options of {@link ListPrivateImpl} path decryption.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ListPrivateConfig {
+
+    public static final ListPrivateConfig DEFAULT = ListPrivateConfig.builder().build();
+
+    /**
+     * Pool where paths of listed resources are decrypted, {@code null} decrypts them in thread that consumes
+     * listing. Each path segment is decrypted separately, so listing large folder is CPU-bound.
+     */
+    private final ForkJoinPool decryptionPool;
+
+    /**
+     * How many listed resources are decrypted as single task, next batch is decrypted while current one
+     * is consumed.
+     */
+    @Builder.Default
+    private final int batchSize = 256;
+
+    /**
+     * How many batches are decrypted at once, limits amount of listed resources held in memory.
+     */
+    @Builder.Default
+    private final int batchesInFlight = 4;
+
+    /**
+     * Provide decrypted resources in listing order, otherwise batch that is decrypted first is provided first.
+     */
+    @Builder.Default
+    private final boolean ordered = true;
+}
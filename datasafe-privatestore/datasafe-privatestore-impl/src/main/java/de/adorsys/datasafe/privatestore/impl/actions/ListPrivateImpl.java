@@ -4,6 +4,7 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
@@ -11,23 +12,38 @@ import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 
 import javax.inject.Inject;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Default listing service that encrypts the location of where to list files using {@link EncryptedResourceResolver}
  * and delegates request to {@link StorageListService} after that it decrypts obtained resources to retrieve
- * logical resource path (decrypted path) within users' privatespace.
+ * logical resource path (decrypted path) within users' privatespace. Paths can be decrypted using fork/join pool,
+ * see {@link ListPrivateConfig}.
  */
 @RuntimeDelegate
 public class ListPrivateImpl implements ListPrivate {
 
     private final EncryptedResourceResolver resolver;
     private final StorageListService listService;
+    private final ListPrivateConfig config;
 
     @Inject
     public ListPrivateImpl(EncryptedResourceResolver resolver, StorageListService listService) {
+        this(resolver, listService, ListPrivateConfig.DEFAULT);
+    }
+
+    public ListPrivateImpl(EncryptedResourceResolver resolver, StorageListService listService,
+                           ListPrivateConfig config) {
         this.resolver = resolver;
         this.listService = listService;
+        this.config = config;
     }
 
     @Override
@@ -35,9 +51,43 @@ public class ListPrivateImpl implements ListPrivate {
         AbsoluteLocation<PrivateResource> listDir =
                 resolver.encryptAndResolvePath(request.getOwner(), request.getLocation());
 
-        return listService
-                .list(listDir)
-                .map(it -> decryptPath(request.getOwner(), it, listDir.getResource()));
+        Stream<AbsoluteLocation<ResolvedResource>> listing = request.isRecursive()
+                ? listService.list(listDir)
+                : listService.listShallow(listDir);
+
+        Function<AbsoluteLocation<ResolvedResource>, AbsoluteLocation<ResolvedResource>> decrypt =
+                it -> decryptPath(request.getOwner(), it, listDir.getResource());
+        if (null == config.getDecryptionPool()) {
+            return listing.map(decrypt);
+        }
+
+        Iterator<AbsoluteLocation<ResolvedResource>> decrypted =
+                new ParallelBatchMapper<>(listing.iterator(), decrypt, config);
+        int characteristics = config.isOrdered() ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(decrypted, characteristics), false)
+                .onClose(listing::close);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            ListRequest<UserIDAuth, PrivateResource> request, String continuationToken, int pageSize) {
+        AbsoluteLocation<PrivateResource> listDir =
+                resolver.encryptAndResolvePath(request.getOwner(), request.getLocation());
+
+        ListPage<AbsoluteLocation<ResolvedResource>> page = request.isRecursive()
+                ? listService.listPage(listDir, continuationToken, pageSize)
+                : listService.listShallowPage(listDir, continuationToken, pageSize);
+
+        Function<AbsoluteLocation<ResolvedResource>, AbsoluteLocation<ResolvedResource>> decrypt =
+                it -> decryptPath(request.getOwner(), it, listDir.getResource());
+        if (null == config.getDecryptionPool()) {
+            return page.map(decrypt);
+        }
+
+        List<AbsoluteLocation<ResolvedResource>> decrypted = config.getDecryptionPool()
+                .submit(() -> page.getItems().parallelStream().map(decrypt).collect(Collectors.toList()))
+                .join();
+        return new ListPage<>(decrypted, page.getNextToken());
     }
 
     private AbsoluteLocation<ResolvedResource> decryptPath(
@@ -49,6 +99,15 @@ public class ListPrivateImpl implements ListPrivate {
                 root
         );
 
-        return new AbsoluteLocation<>(resource.getResource().withResource(decrypted.getResource()));
+        PrivateResource decryptedResource = decrypted.getResource();
+        // path decryption drops trailing '/' that marks directory in shallow listing
+        if (resource.getResource().location().isDir() && !decryptedResource.decryptedPath().isDir()) {
+            decryptedResource = decryptedResource.resolve(
+                    decryptedResource.encryptedPath(),
+                    decryptedResource.decryptedPath().asDir()
+            );
+        }
+
+        return new AbsoluteLocation<>(resource.getResource().withResource(decryptedResource));
     }
 }
@@ -0,0 +1,40 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.privatestore.api.actions.MoveInPrivate;
+import de.adorsys.datasafe.storage.api.actions.StorageCopyService;
+import de.adorsys.datasafe.types.api.actions.MoveRequest;
+import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+
+import javax.inject.Inject;
+
+/**
+ * Default move service that encrypts both current and new resource path using {@link EncryptedResourceResolver}
+ * and moves encrypted document using {@link StorageCopyService}, so that document content is neither
+ * transferred nor re-encrypted.
+ */
+@RuntimeDelegate
+public class MoveInPrivateImpl implements MoveInPrivate {
+
+    private final EncryptedResourceResolver resolver;
+    private final StorageCopyService copyService;
+
+    @Inject
+    public MoveInPrivateImpl(EncryptedResourceResolver resolver, StorageCopyService copyService) {
+        this.resolver = resolver;
+        this.copyService = copyService;
+    }
+
+    @Override
+    public void move(MoveRequest<UserIDAuth, PrivateResource> request) {
+        AbsoluteLocation<PrivateResource> source =
+                resolver.encryptAndResolvePath(request.getOwner(), request.getLocation());
+        AbsoluteLocation<PrivateResource> target =
+                resolver.encryptAndResolvePath(request.getOwner(), request.getTarget());
+
+        copyService.move(source, target);
+    }
+}
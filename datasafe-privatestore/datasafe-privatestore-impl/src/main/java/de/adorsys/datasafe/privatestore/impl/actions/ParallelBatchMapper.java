@@ -0,0 +1,84 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maps entries of source lazily in batches that are processed by fork/join pool, limited amount of batches
+ * is mapped ahead of consumer.
+ */
+class ParallelBatchMapper<T, R> implements Iterator<R> {
+
+    private final Iterator<T> source;
+    private final Function<T, R> mapper;
+    private final ForkJoinPool pool;
+    private final ListPrivateConfig config;
+    private final Deque<ForkJoinTask<List<R>>> inFlight = new ArrayDeque<>();
+
+    private Iterator<R> current = Collections.emptyIterator();
+
+    ParallelBatchMapper(Iterator<T> source, Function<T, R> mapper, ListPrivateConfig config) {
+        this.source = source;
+        this.mapper = mapper;
+        this.pool = config.getDecryptionPool();
+        this.config = config;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            submitBatches();
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+
+            current = nextBatch().join().iterator();
+        }
+
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return current.next();
+    }
+
+    private void submitBatches() {
+        while (inFlight.size() < config.getBatchesInFlight() && source.hasNext()) {
+            List<T> batch = new ArrayList<>(config.getBatchSize());
+            while (batch.size() < config.getBatchSize() && source.hasNext()) {
+                batch.add(source.next());
+            }
+
+            // parallel stream started inside pool task uses that pool
+            inFlight.addLast(pool.submit(() -> batch.parallelStream().map(mapper).collect(Collectors.toList())));
+        }
+    }
+
+    private ForkJoinTask<List<R>> nextBatch() {
+        if (!config.isOrdered()) {
+            for (Iterator<ForkJoinTask<List<R>>> it = inFlight.iterator(); it.hasNext(); ) {
+                ForkJoinTask<List<R>> batch = it.next();
+                if (batch.isDone()) {
+                    it.remove();
+                    return batch;
+                }
+            }
+        }
+
+        return inFlight.pollFirst();
+    }
+}
@@ -5,18 +5,27 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
 import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 class ListPrivateImplTest extends BaseMockitoTest {
@@ -38,11 +47,11 @@ class ListPrivateImplTest extends BaseMockitoTest {
     @Mock
     private StorageListService listService;
 
-    @InjectMocks
     private ListPrivateImpl privateService;
 
     @BeforeEach
     void init() {
+        privateService = new ListPrivateImpl(resolver, listService);
         when(absoluteResolvedResource.getResource()).thenReturn(resolvedResource);
         when(resolvedResource.location()).thenReturn(new Uri(ABSOLUTE_PATH));
     }
@@ -60,4 +69,97 @@ class ListPrivateImplTest extends BaseMockitoTest {
 
         assertThat(privateService.list(request)).hasSize(1);
     }
+
+    @Test
+    void listShallowKeepsDirectoryMarker() {
+        AbsoluteLocation<PrivateResource> root = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH).shallow();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(root);
+        PrivateResource encryptedDir = BasePrivateResource.forPrivate("encrypted/").resolveFrom(root);
+        AbsoluteLocation<ResolvedResource> dir = new AbsoluteLocation<>(new BaseResolvedResource(encryptedDir, null));
+        when(listService.listShallow(root)).thenReturn(Stream.of(dir));
+        when(resolver.decryptAndResolvePath(request.getOwner(), encryptedDir, root.getResource())).thenReturn(
+                new AbsoluteLocation<>(root.getResource().resolve(new Uri("encrypted/"), new Uri("decrypted")))
+        );
+
+        assertThat(privateService.list(request))
+                .extracting(it -> it.getResource().asPrivate().decryptedPath().toASCIIString())
+                .containsExactly("decrypted/");
+    }
+
+    @Test
+    void listKeepsStorageMetadata() {
+        AbsoluteLocation<PrivateResource> root = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH);
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(root);
+        PrivateResource encryptedFile = BasePrivateResource.forPrivate("encrypted").resolveFrom(root);
+        AbsoluteLocation<ResolvedResource> file = new AbsoluteLocation<>(
+                new BaseResolvedResource(encryptedFile, Instant.EPOCH, 10L, "etag", null)
+        );
+        when(listService.list(root)).thenReturn(Stream.of(file));
+        when(resolver.decryptAndResolvePath(request.getOwner(), encryptedFile, root.getResource())).thenReturn(
+                new AbsoluteLocation<>(root.getResource().resolve(new Uri("encrypted"), new Uri("decrypted")))
+        );
+
+        assertThat(privateService.list(request))
+                .extracting(it -> it.getResource().getSize(), it -> it.getResource().getETag())
+                .containsExactly(tuple(10L, "etag"));
+    }
+
+    @Test
+    void listPageDecryptsPathsAndKeepsToken() {
+        AbsoluteLocation<PrivateResource> root = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH);
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(root);
+        PrivateResource encryptedFile = BasePrivateResource.forPrivate("encrypted").resolveFrom(root);
+        AbsoluteLocation<ResolvedResource> file = new AbsoluteLocation<>(
+                new BaseResolvedResource(encryptedFile, Instant.EPOCH)
+        );
+        when(listService.listPage(root, "previous", 1))
+                .thenReturn(new ListPage<>(Collections.singletonList(file), "next"));
+        when(resolver.decryptAndResolvePath(request.getOwner(), encryptedFile, root.getResource())).thenReturn(
+                new AbsoluteLocation<>(root.getResource().resolve(new Uri("encrypted"), new Uri("decrypted")))
+        );
+
+        ListPage<AbsoluteLocation<ResolvedResource>> page = privateService.listPage(request, "previous", 1);
+
+        assertThat(page.getItems())
+                .extracting(it -> it.getResource().asPrivate().decryptedPath().getPath())
+                .containsExactly("decrypted");
+        assertThat(page.getNextToken()).isEqualTo("next");
+    }
+
+    @Test
+    void listDecryptsPathsUsingPoolInListingOrder() {
+        AbsoluteLocation<PrivateResource> root = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH);
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(root);
+        List<AbsoluteLocation<ResolvedResource>> files = IntStream.range(0, 1000)
+                .mapToObj(it -> new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                        BasePrivateResource.forPrivate("encrypted" + it).resolveFrom(root), Instant.EPOCH
+                )))
+                .collect(Collectors.toList());
+        when(listService.list(root)).thenReturn(files.stream());
+        when(resolver.decryptAndResolvePath(eq(request.getOwner()), any(), eq(root.getResource())))
+                .thenAnswer(inv -> {
+                    PrivateResource encrypted = inv.getArgument(1);
+                    String decrypted = encrypted.encryptedPath().getPath().replace("encrypted", "decrypted");
+                    return new AbsoluteLocation<>(
+                            root.getResource().resolve(encrypted.encryptedPath(), new Uri(decrypted))
+                    );
+                });
+        ForkJoinPool pool = new ForkJoinPool(4);
+        privateService = new ListPrivateImpl(
+                resolver, listService, ListPrivateConfig.builder().decryptionPool(pool).batchSize(16).build()
+        );
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = privateService.list(request)) {
+            assertThat(listed.map(it -> it.getResource().asPrivate().decryptedPath().getPath()))
+                    .containsExactlyElementsOf(
+                            IntStream.range(0, 1000).mapToObj(it -> "decrypted" + it).collect(Collectors.toList())
+                    );
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.storage.api.actions.StorageCopyService;
+import de.adorsys.datasafe.types.api.actions.MoveRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.net.URI;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoveInPrivateImplTest extends BaseMockitoTest {
+
+    private UserIDAuth auth = new UserIDAuth(new UserID(""), new ReadKeyPassword(""));
+
+    @Mock
+    private EncryptedResourceResolver resolver;
+
+    @Mock
+    private StorageCopyService copyService;
+
+    @InjectMocks
+    private MoveInPrivateImpl privateService;
+
+    @Test
+    void moveEncryptsBothPathsAndMovesStoredDocument() {
+        MoveRequest<UserIDAuth, PrivateResource> request = MoveRequest.forDefaultPrivate(auth, "a/file", "b/file");
+        AbsoluteLocation<PrivateResource> source = BasePrivateResource.forAbsolutePrivate(URI.create("s3://b/enc1"));
+        AbsoluteLocation<PrivateResource> target = BasePrivateResource.forAbsolutePrivate(URI.create("s3://b/enc2"));
+        when(resolver.encryptAndResolvePath(auth, request.getLocation())).thenReturn(source);
+        when(resolver.encryptAndResolvePath(auth, request.getTarget())).thenReturn(target);
+
+        privateService.move(request);
+
+        verify(copyService).move(source, target);
+    }
+}
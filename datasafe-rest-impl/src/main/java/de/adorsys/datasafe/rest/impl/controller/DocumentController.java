@@ -4,6 +4,7 @@ import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.rest.impl.dto.DocumentDTO;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
@@ -75,21 +76,49 @@ public class DocumentController {
     }
 
     /**
-     * lists files in user's private space.
+     * lists files in user's private space, see {@link ListPaging} for listing by pages.
      */
     @GetMapping("/documents/{path:.*}")
     public List<String> listDocuments(@RequestHeader String user,
                                       @RequestHeader String password,
-                                      @PathVariable(required = false) String path) {
+                                      @PathVariable(required = false) String path,
+                                      @RequestParam(required = false) Integer pageSize,
+                                      @RequestParam(required = false) String pageToken,
+                                      HttpServletResponse response) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         path = Optional.ofNullable(path).orElse("./");
-        List<String> documentList = dataSafeService.privateService().list(ListRequest.forDefaultPrivate(userIDAuth, path))
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path);
+        List<String> documentList = ListPaging.listing(pageSize, pageToken, response,
+                () -> dataSafeService.privateService().list(request),
+                (token, size) -> dataSafeService.privateService().listPage(request, token, size))
                 .map(e -> e.getResource().asPrivate().decryptedPath().getPath())
                 .collect(Collectors.toList());
         log.debug("List for path {} returned {} items", path, documentList.size());
         return documentList;
     }
 
+    /**
+     * lists files in user's private space with their size, modification date and ETag.
+     */
+    @GetMapping(value = "/documents/{path:.*}", params = "metadata=true")
+    public List<DocumentDTO> listDocumentsWithMetadata(@RequestHeader String user,
+                                                       @RequestHeader String password,
+                                                       @PathVariable(required = false) String path,
+                                                       @RequestParam(required = false) Integer pageSize,
+                                                       @RequestParam(required = false) String pageToken,
+                                                       HttpServletResponse response) {
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path);
+        List<DocumentDTO> documentList = ListPaging.listing(pageSize, pageToken, response,
+                () -> dataSafeService.privateService().list(request),
+                (token, size) -> dataSafeService.privateService().listPage(request, token, size))
+                .map(DocumentDTO::of)
+                .collect(Collectors.toList());
+        log.debug("List with metadata for path {} returned {} items", path, documentList.size());
+        return documentList;
+    }
+
     /**
      * deletes files from user's private space.
      */
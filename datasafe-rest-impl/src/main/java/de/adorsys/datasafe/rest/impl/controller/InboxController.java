@@ -4,6 +4,7 @@ import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.rest.impl.dto.DocumentDTO;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
@@ -89,18 +90,46 @@ public class InboxController {
     }
 
     /**
-     * list files in users' INBOX.
+     * list files in users' INBOX, see {@link ListPaging} for listing by pages.
      */
     @GetMapping(value = "/{path:.*}", produces = APPLICATION_JSON_VALUE)
     public List<String> listInbox(@RequestHeader String user,
                                   @RequestHeader String password,
-                                  @PathVariable(required = false) String path) {
+                                  @PathVariable(required = false) String path,
+                                  @RequestParam(required = false) Integer pageSize,
+                                  @RequestParam(required = false) String pageToken,
+                                  HttpServletResponse response) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         path = Optional.ofNullable(path).orElse("./");
-        List<String> inboxList = dataSafeService.inboxService().list(ListRequest.forDefaultPrivate(userIDAuth, path))
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path);
+        List<String> inboxList = ListPaging.listing(pageSize, pageToken, response,
+                () -> dataSafeService.inboxService().list(request),
+                (token, size) -> dataSafeService.inboxService().listPage(request, token, size))
                 .map(e -> e.getResource().asPrivate().decryptedPath().getPath())
                 .collect(Collectors.toList());
         log.debug("User's {} inbox contains {} items", user, inboxList.size());
         return inboxList;
     }
+
+    /**
+     * list files in users' INBOX with their size, modification date and ETag.
+     */
+    @GetMapping(value = "/{path:.*}", params = "metadata=true", produces = APPLICATION_JSON_VALUE)
+    public List<DocumentDTO> listInboxWithMetadata(@RequestHeader String user,
+                                                   @RequestHeader String password,
+                                                   @PathVariable(required = false) String path,
+                                                   @RequestParam(required = false) Integer pageSize,
+                                                   @RequestParam(required = false) String pageToken,
+                                                   HttpServletResponse response) {
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path);
+        List<DocumentDTO> inboxList = ListPaging.listing(pageSize, pageToken, response,
+                () -> dataSafeService.inboxService().list(request),
+                (token, size) -> dataSafeService.inboxService().listPage(request, token, size))
+                .map(DocumentDTO::of)
+                .collect(Collectors.toList());
+        log.debug("User's {} inbox contains {} items", user, inboxList.size());
+        return inboxList;
+    }
 }
@@ -0,0 +1,48 @@
+package de.adorsys.datasafe.rest.impl.controller;
+
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.actions.PageSelection;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Paged listing of list endpoints: page is requested using {@code pageSize} and {@code pageToken} query
+ * parameters, token of the next page is returned in {@link ListPaging#NEXT_PAGE_TOKEN_HEADER} header that is
+ * absent on the last page. Without {@code pageSize} whole listing is returned. Malformed token or non-positive
+ * page size results in 400 Bad Request.
+ */
+@UtilityClass
+public class ListPaging {
+
+    public static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
+    static <T> Stream<T> listing(Integer pageSize, String pageToken, HttpServletResponse response,
+                                 Supplier<Stream<T>> all, BiFunction<String, Integer, ListPage<T>> page) {
+        if (null == pageSize) {
+            return all.get();
+        }
+
+        validate(pageSize, pageToken);
+        ListPage<T> result = page.apply(pageToken, pageSize);
+        if (result.hasNext()) {
+            response.setHeader(NEXT_PAGE_TOKEN_HEADER, result.getNextToken());
+        }
+
+        return result.getItems().stream();
+    }
+
+    private static void validate(int pageSize, String pageToken) {
+        try {
+            PageSelection.validatePageSize(pageSize);
+            PageSelection.afterKey(pageToken);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+}
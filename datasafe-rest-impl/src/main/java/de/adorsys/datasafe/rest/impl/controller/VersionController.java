@@ -36,15 +36,21 @@ public class VersionController {
     private final VersionedDatasafeServices versionedDatasafeServices;
 
     /**
-     * lists latest versions of files in user's private space.
+     * lists latest versions of files in user's private space, see {@link ListPaging} for listing by pages.
      */
     @GetMapping(value = "/versioned/{path:.*}", produces = APPLICATION_JSON_VALUE)
     public List<String> listVersionedDocuments(@RequestHeader String user,
                                       @RequestHeader String password,
-                                      @PathVariable(required = false) String path) {
+                                      @PathVariable(required = false) String path,
+                                      @RequestParam(required = false) Integer pageSize,
+                                      @RequestParam(required = false) String pageToken,
+                                      HttpServletResponse response) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         path = Optional.ofNullable(path).orElse("./");
-        List<String> documentList = versionedDatasafeServices.latestPrivate().listWithDetails(ListRequest.forDefaultPrivate(userIDAuth, path))
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path);
+        List<String> documentList = ListPaging.listing(pageSize, pageToken, response,
+                () -> versionedDatasafeServices.latestPrivate().listWithDetails(request),
+                (token, size) -> versionedDatasafeServices.latestPrivate().listWithDetailsPage(request, token, size))
                 .map(e -> e.absolute().getResource().decryptedPath().getPath())
                 .collect(Collectors.toList());
         log.debug("List for path {} returned {} items", path, documentList.size());
@@ -105,12 +111,15 @@ public class VersionController {
     }
 
     /**
-     * list of file versions.
+     * list of file versions, see {@link ListPaging} for listing by pages.
      */
     @GetMapping(value = "/versions/list/{path:.*}", produces = APPLICATION_JSON_VALUE)
     public List<String> versionsOf(@RequestHeader String user,
                                    @RequestHeader String password,
-                                   @PathVariable(required = false) String path) {
+                                   @PathVariable(required = false) String path,
+                                   @RequestParam(required = false) Integer pageSize,
+                                   @RequestParam(required = false) String pageToken,
+                                   HttpServletResponse response) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         path = Optional.ofNullable(path).orElse("./");
         PrivateResource resource = BasePrivateResource.forPrivate(path);
@@ -121,8 +130,9 @@ public class VersionController {
                 .build();
 
         List<Versioned<AbsoluteLocation<ResolvedResource>, PrivateResource, DFSVersion>> versionList =
-                versionedDatasafeServices.versionInfo()
-                        .versionsOf(request)
+                ListPaging.listing(pageSize, pageToken, response,
+                        () -> versionedDatasafeServices.versionInfo().versionsOf(request),
+                        (token, size) -> versionedDatasafeServices.versionInfo().versionsOfPage(request, token, size))
                         .collect(Collectors.toList());
 
         log.debug("Versions for path {} returned {} items", path, versionList.size());
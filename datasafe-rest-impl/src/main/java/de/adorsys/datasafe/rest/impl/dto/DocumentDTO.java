@@ -0,0 +1,36 @@
+package de.adorsys.datasafe.rest.impl.dto;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Listed document with metadata that storage listing provides, fields other than path are {@code null} when
+ * storage does not provide them or document is a directory.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentDTO {
+
+    private String path;
+    private Instant modifiedAt;
+    private Long size;
+    private String eTag;
+    private String storageClass;
+
+    public static DocumentDTO of(AbsoluteLocation<ResolvedResource> listed) {
+        ResolvedResource resource = listed.getResource();
+        return new DocumentDTO(
+                resource.asPrivate().decryptedPath().getPath(),
+                resource.getModifiedAt(),
+                resource.getSize(),
+                resource.getETag(),
+                resource.getStorageClass()
+        );
+    }
+}
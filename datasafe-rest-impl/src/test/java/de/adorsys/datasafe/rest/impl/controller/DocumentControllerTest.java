@@ -2,6 +2,11 @@ package de.adorsys.datasafe.rest.impl.controller;
 
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.privatestore.impl.PrivateSpaceServiceImpl;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +16,20 @@ import org.springframework.http.MediaType;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
@@ -75,6 +89,80 @@ class DocumentControllerTest extends BaseTokenDatasafeEndpointTest {
         verify(privateSpaceService).list(any());
     }
 
+    @SneakyThrows
+    @Test
+    void listDocumentsPageTest() {
+        when(privateSpaceService.listPage(any(), eq("cHJldmlvdXM"), eq(1))).thenReturn(new ListPage<>(
+                Collections.singletonList(new AbsoluteLocation<>(new BaseResolvedResource(
+                        BasePrivateResource.forPrivate(URI.create("s3://bucket/encrypted"))
+                                .resolve(new Uri("encrypted"), new Uri("path/to/file")),
+                        Instant.EPOCH
+                ))),
+                "next"
+        ));
+
+        mvc.perform(get("/documents/{path}", "")
+                .param("pageSize", "1")
+                .param("pageToken", "cHJldmlvdXM")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("path/to/file"))
+                .andExpect(header().string(ListPaging.NEXT_PAGE_TOKEN_HEADER, "next"));
+    }
+
+    @SneakyThrows
+    @Test
+    void listDocumentsPageWithMalformedTokenTest() {
+        mvc.perform(get("/documents/{path}", "")
+                .param("pageSize", "1")
+                .param("pageToken", "%%")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        )
+                .andExpect(status().isBadRequest());
+        verify(privateSpaceService, never()).listPage(any(), any(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void listDocumentsPageWithNonPositiveSizeTest() {
+        mvc.perform(get("/documents/{path}", "")
+                .param("pageSize", "0")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void listDocumentsWithMetadataTest() {
+        when(privateSpaceService.list(any())).thenReturn(Stream.of(new AbsoluteLocation<>(new BaseResolvedResource(
+                BasePrivateResource.forPrivate(URI.create("s3://bucket/encrypted"))
+                        .resolve(new Uri("encrypted"), new Uri("path/to/file")),
+                Instant.EPOCH,
+                10L,
+                "etag",
+                "STANDARD"
+        ))));
+
+        mvc.perform(get("/documents/{path}", "")
+                .param("metadata", "true")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].path").value("path/to/file"))
+                .andExpect(jsonPath("$[0].size").value(10))
+                .andExpect(jsonPath("$[0].etag").value("etag"));
+    }
+
     @SneakyThrows
     @Test
     void removeDocumentTest() {
@@ -29,7 +29,6 @@ import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -168,24 +167,25 @@ public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
 
     @Override
     public void deleteFolder(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN) {
-        list(userIDAuth, documentDirectoryFQN, ListRecursiveFlag.TRUE).stream().forEach(file -> {
-            PrivateResource resource = BasePrivateResource.forPrivate(file.getValue());
-            RemoveRequest<UserIDAuth, PrivateResource> request = RemoveRequest.forPrivate(userIDAuth, resource);
-            customlyBuiltDatasafeServices.privateService().remove(request);
-        });
+        customlyBuiltDatasafeServices.privateService().removeAll(
+                list(userIDAuth, documentDirectoryFQN, ListRecursiveFlag.TRUE).stream()
+                        .map(file -> BasePrivateResource.forPrivate(file.getValue()))
+                        .map(resource -> RemoveRequest.forPrivate(userIDAuth, resource))
+        );
     }
 
     @Override
     public List<DocumentFQN> list(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN, ListRecursiveFlag recursiveFlag) {
-        List<DocumentFQN> l = customlyBuiltDatasafeServices.privateService().list(
-                ListRequest.forDefaultPrivate(userIDAuth, documentDirectoryFQN.getValue()))
+        ListRequest<UserIDAuth, PrivateResource> request =
+                ListRequest.forDefaultPrivate(userIDAuth, documentDirectoryFQN.getValue());
+        if (recursiveFlag.equals(ListRecursiveFlag.FALSE)) {
+            request = request.shallow();
+        }
+
+        return customlyBuiltDatasafeServices.privateService().list(request)
+                .filter(it -> !it.getResource().asPrivate().decryptedPath().isDir())
                 .map(it -> new DocumentFQN(it.getResource().asPrivate().decryptedPath().toASCIIString()))
                 .collect(Collectors.toList());
-        if (recursiveFlag.equals(ListRecursiveFlag.TRUE)) {
-            return l;
-        }
-        int numberOfSlashesExpected = 1 + StringUtils.countMatches(documentDirectoryFQN.getValue(), "/");
-        return l.stream().filter(el -> StringUtils.countMatches(el.getValue(), "/") == numberOfSlashesExpected).collect(Collectors.toList());
     }
 
     @Override
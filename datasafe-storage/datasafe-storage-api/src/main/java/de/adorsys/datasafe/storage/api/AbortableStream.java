@@ -0,0 +1,35 @@
+package de.adorsys.datasafe.storage.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream returned by {@link StorageService#write} that can discard written content instead of committing it
+ * on close.
+ */
+public interface AbortableStream {
+
+    /**
+     * Releases stream resources without committing its content. Location keeps its previous content if storage
+     * writes content to temporary location until stream is closed.
+     */
+    void abort();
+
+    /**
+     * Aborts {@code stream} if it supports it, otherwise closes it, so caller has to remove what was committed.
+     * @return true if content was discarded
+     */
+    static boolean abortOrClose(OutputStream stream) {
+        if (stream instanceof AbortableStream) {
+            ((AbortableStream) stream).abort();
+            return true;
+        }
+
+        try {
+            stream.close();
+        } catch (IOException | RuntimeException ex) {
+            // content is not needed
+        }
+        return false;
+    }
+}
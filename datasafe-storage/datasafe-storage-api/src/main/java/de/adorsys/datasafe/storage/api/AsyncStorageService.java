@@ -0,0 +1,86 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking counterpart of {@link StorageService} - each operation returns immediately and its future is
+ * completed when storage responds, so that caller thread is not held for the whole storage round trip.
+ * Use {@link BlockingStorageService} to expose it as regular {@link StorageService} and
+ * {@link ExecutorAsyncStorageService} to make any {@link StorageService} asynchronous.
+ */
+public interface AsyncStorageService {
+
+    /**
+     * @param location Resource location with credentials (if necessary)
+     * @return Does the resource at {@code location} exists
+     */
+    CompletableFuture<Boolean> objectExists(AbsoluteLocation location);
+
+    /**
+     * Lists bucket contents.
+     * @param location absolute bucket path with credentials (if necessary) where to list data
+     * @return available absolute bucket paths
+     */
+    CompletableFuture<List<AbsoluteLocation<ResolvedResource>>> list(AbsoluteLocation location);
+
+    /**
+     * @param location absolute bucket path with credentials (if necessary)
+     * @return data stream of resource to read from, completed when resource is opened
+     * @apiNote Resulting stream should be closed properly
+     */
+    CompletableFuture<InputStream> read(AbsoluteLocation location);
+
+    /**
+     * Writes (replaces) resource content.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @param content resource content, its remaining bytes are written
+     * @return future completed when content is stored
+     */
+    CompletableFuture<Void> write(AbsoluteLocation location, ByteBuffer content);
+
+    /**
+     * Opens resource for writing content that is not available as a whole, so that it needs not to be collected
+     * in memory. Writes to the stream may block until storage accepts the content.
+     * Default implementation collects content in memory and writes it when stream is closed.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @return stream that stores the content when closed, completed when resource is opened
+     * @apiNote Resulting stream should be closed properly
+     */
+    default CompletableFuture<OutputStream> openWrite(AbsoluteLocation location) {
+        return CompletableFuture.completedFuture(new ByteArrayOutputStream() {
+
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+
+                closed = true;
+                try {
+                    AsyncStorageService.this.write(location, ByteBuffer.wrap(buf, 0, count)).join();
+                } catch (CompletionException ex) {
+                    throw new IOException("Failed to write content", ex.getCause());
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes bucket contents.
+     * @param location absolute bucket path, with credentials (if necessary), which should be removed
+     * @return future completed when content is removed
+     */
+    CompletableFuture<Void> remove(AbsoluteLocation location);
+}
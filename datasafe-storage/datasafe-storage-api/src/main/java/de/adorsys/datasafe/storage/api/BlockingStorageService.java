@@ -0,0 +1,126 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Exposes {@link AsyncStorageService} as regular blocking {@link StorageService}, so that existing synchronous
+ * code can use it. Written content is buffered in memory up to {@code bufferSize} bytes, content that fits in
+ * the buffer is sent to storage using single write when stream is closed, longer content is streamed to
+ * {@link AsyncStorageService#openWrite(AbsoluteLocation)} in chunks.
+ */
+@RequiredArgsConstructor
+public class BlockingStorageService implements StorageService {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final AsyncStorageService storage;
+    private final int bufferSize;
+
+    public BlockingStorageService(AsyncStorageService storage) {
+        this(storage, DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return await(storage.objectExists(location));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return await(storage.list(location)).stream();
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        return await(storage.read(location));
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        await(storage.remove(location));
+    }
+
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        return new ChunkingOutputStream(location);
+    }
+
+    // Rethrows original exception instead of CompletionException wrapper
+    @SneakyThrows
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw null == ex.getCause() ? ex : ex.getCause();
+        }
+    }
+
+    private class ChunkingOutputStream extends OutputStream {
+
+        private final AbsoluteLocation location;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        // Opened once content does not fit into buffer
+        private OutputStream streaming;
+        private boolean closed;
+
+        ChunkingOutputStream(AbsoluteLocation location) {
+            this.location = location;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            ensureOpen();
+            if (null == streaming && buffer.size() + len <= bufferSize) {
+                buffer.write(bytes, off, len);
+                return;
+            }
+
+            if (null == streaming) {
+                streaming = await(storage.openWrite(location));
+                buffer.writeTo(streaming);
+                buffer.reset();
+            }
+
+            streaming.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            if (null != streaming) {
+                streaming.close();
+                return;
+            }
+
+            await(storage.write(location, ByteBuffer.wrap(buffer.toByteArray())));
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+    }
+}
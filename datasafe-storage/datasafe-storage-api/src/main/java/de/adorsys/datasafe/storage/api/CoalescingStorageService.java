@@ -0,0 +1,558 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Coalesces concurrent reads of the same location into single read from {@code delegate}. Content is fetched in
+ * chunks by whichever reader needs the next chunk first and is shared with other readers through buffer of at most
+ * {@code bufferBytes}. Read can join ongoing fetch while its first chunk is still buffered. When buffer is full
+ * the fastest reader waits for the slowest ones, if they do not catch up within {@code lagTimeout} they are
+ * detached and continue using their own read from {@code delegate}, so that slow or abandoned reader can't block
+ * the rest. Detached reader verifies that content it skips in its own read is the same it already got, otherwise
+ * it fails instead of mixing two versions of content. Writes and removals end coalescing for their location,
+ * so that reads started after them do not see previous content.
+ */
+public class CoalescingStorageService implements StorageService {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final long DEFAULT_BUFFER_BYTES = 8L * 1024 * 1024;
+    private static final Duration DEFAULT_LAG_TIMEOUT = Duration.ofMillis(200);
+
+    private final StorageService delegate;
+    private final int chunkSize;
+    private final long bufferBytes;
+    private final long lagTimeoutNanos;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate Storage to read from
+     * @param chunkSize Size of chunk fetched at once
+     * @param bufferBytes Maximal amount of bytes buffered per location, should be several chunks
+     * @param lagTimeout How long readers that need the oldest buffered chunk are waited for when buffer is full
+     */
+    public CoalescingStorageService(StorageService delegate, int chunkSize, long bufferBytes, Duration lagTimeout) {
+        if (chunkSize <= 0 || bufferBytes < chunkSize) {
+            throw new IllegalArgumentException("Buffer must fit at least one chunk");
+        }
+
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        this.bufferBytes = bufferBytes;
+        this.lagTimeoutNanos = lagTimeout.toNanos();
+    }
+
+    public CoalescingStorageService(StorageService delegate) {
+        this(delegate, DEFAULT_CHUNK_SIZE, DEFAULT_BUFFER_BYTES, DEFAULT_LAG_TIMEOUT);
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return delegate.objectExists(location);
+    }
+
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        return delegate.metadata(location);
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return delegate.list(location);
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        return delegate.listShallow(location);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return delegate.listPage(location, continuationToken, pageSize);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return delegate.listShallowPage(location, continuationToken, pageSize);
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        String key = key(location);
+        while (true) {
+            Flight flight = flights.computeIfAbsent(key, id -> new Flight(id, location));
+            InputStream joined = flight.join();
+            if (null != joined) {
+                return joined;
+            }
+
+            flights.remove(key, flight);
+        }
+    }
+
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        String key = key(location);
+        return new FilterOutputStream(delegate.write(location)) {
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    endCoalescing(key);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        try {
+            delegate.remove(location);
+        } finally {
+            endCoalescing(key(location));
+        }
+    }
+
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        List<? extends AbsoluteLocation> toRemove = locations.collect(Collectors.toList());
+        try {
+            delegate.removeAll(toRemove.stream());
+        } finally {
+            toRemove.forEach(it -> endCoalescing(key(it)));
+        }
+    }
+
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        try {
+            delegate.copy(source, target);
+        } finally {
+            endCoalescing(key(target));
+        }
+    }
+
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        try {
+            delegate.move(source, target);
+        } finally {
+            endCoalescing(key(source));
+            endCoalescing(key(target));
+        }
+    }
+
+    private void endCoalescing(String key) {
+        Flight flight = flights.remove(key);
+        if (null != flight) {
+            flight.closeForJoining();
+        }
+    }
+
+    private static String key(AbsoluteLocation location) {
+        return location.location().asURI().toString();
+    }
+
+    /**
+     * Single fetch of location content shared by its readers. All state is guarded by flight monitor.
+     */
+    private class Flight {
+
+        private final String key;
+        private final AbsoluteLocation location;
+
+        private final Deque<byte[]> chunks = new ArrayDeque<>();
+        private final List<Reader> readers = new ArrayList<>();
+        private long firstChunk;
+        private long bufferedBytes;
+
+        // checksum of chunks that were dropped from buffer, detached readers verify their own read against it
+        private final CRC32 trimmedChecksum = new CRC32();
+
+        private InputStream source;
+        private boolean opening;
+        private boolean fetching;
+        private boolean eof;
+        private IOException failure;
+        private boolean joinable = true;
+
+        Flight(String key, AbsoluteLocation location) {
+            this.key = key;
+            this.location = location;
+        }
+
+        /**
+         * First reader opens {@code delegate} stream, so that read failures are reported as without coalescing.
+         * Stream is opened without holding the monitor, readers joining meanwhile wait for it.
+         * @return Reader of this flight or null if flight can't be joined anymore
+         */
+        InputStream join() {
+            synchronized (this) {
+                while (opening) {
+                    try {
+                        await(0);
+                    } catch (InterruptedIOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+
+                if (!joinable || firstChunk > 0) {
+                    return null;
+                }
+
+                if (null != source || eof) {
+                    return addReader();
+                }
+
+                opening = true;
+            }
+
+            InputStream opened;
+            try {
+                opened = delegate.read(location);
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    opening = false;
+                    joinable = false;
+                    notifyAll();
+                }
+                flights.remove(key, this);
+                throw ex;
+            }
+
+            synchronized (this) {
+                opening = false;
+                source = opened;
+                notifyAll();
+                return addReader();
+            }
+        }
+
+        private Reader addReader() {
+            Reader reader = new Reader(this);
+            readers.add(reader);
+            return reader;
+        }
+
+        synchronized void closeForJoining() {
+            joinable = false;
+        }
+
+        /**
+         * Copies buffered content at reader position, fetches next chunk if needed.
+         * @return Amount of copied bytes, -1 on end of stream, 0 if reader was detached
+         */
+        int read(Reader reader, byte[] b, int off, int len) throws IOException {
+            long lagDeadline = 0;
+            while (true) {
+                synchronized (this) {
+                    if (reader.detached) {
+                        return 0;
+                    }
+
+                    if (reader.chunk < firstChunk + chunks.size()) {
+                        return copy(reader, b, off, len);
+                    }
+
+                    if (null != failure) {
+                        throw new IOException("Failed to read " + key, failure);
+                    }
+
+                    if (eof) {
+                        return -1;
+                    }
+
+                    if (fetching) {
+                        await(0);
+                        continue;
+                    }
+
+                    if (bufferedBytes + chunkSize > bufferBytes) {
+                        long now = System.nanoTime();
+                        lagDeadline = 0 == lagDeadline ? now + lagTimeoutNanos : lagDeadline;
+                        if (now < lagDeadline) {
+                            await(lagDeadline - now);
+                            continue;
+                        }
+
+                        detachSlowest();
+                    }
+
+                    fetching = true;
+                }
+
+                fetchChunk();
+            }
+        }
+
+        synchronized void leave(Reader reader) {
+            readers.remove(reader);
+            trim();
+            if (readers.isEmpty()) {
+                joinable = false;
+                flights.remove(key, this);
+                closeSource();
+            }
+
+            notifyAll();
+        }
+
+        // Called without holding the monitor, so that readers can consume buffered chunks meanwhile
+        private void fetchChunk() {
+            byte[] chunk = new byte[chunkSize];
+            int filled = 0;
+            IOException error = null;
+            try {
+                int read = 0;
+                while (filled < chunkSize && -1 != (read = source.read(chunk, filled, chunkSize - filled))) {
+                    filled += read;
+                }
+            } catch (IOException ex) {
+                error = ex;
+            } catch (RuntimeException ex) {
+                error = new IOException(ex);
+            }
+
+            synchronized (this) {
+                fetching = false;
+                if (null != error) {
+                    failure = error;
+                    joinable = false;
+                } else if (filled > 0) {
+                    chunks.addLast(filled == chunkSize ? chunk : Arrays.copyOf(chunk, filled));
+                    bufferedBytes += filled;
+                }
+
+                if (filled < chunkSize && null == error) {
+                    eof = true;
+                    closeSource();
+                }
+
+                notifyAll();
+            }
+        }
+
+        private int copy(Reader reader, byte[] b, int off, int len) {
+            byte[] chunk = chunkAt(reader.chunk);
+            int toCopy = Math.min(len, chunk.length - reader.offset);
+            System.arraycopy(chunk, reader.offset, b, off, toCopy);
+            reader.offset += toCopy;
+            if (reader.offset == chunk.length) {
+                reader.chunk++;
+                reader.offset = 0;
+                trim();
+            }
+
+            return toCopy;
+        }
+
+        private byte[] chunkAt(long index) {
+            long skip = index - firstChunk;
+            for (byte[] chunk : chunks) {
+                if (0 == skip--) {
+                    return chunk;
+                }
+            }
+
+            throw new IllegalStateException("Chunk " + index + " is not buffered");
+        }
+
+        // Readers that still need the oldest buffered chunk continue on their own
+        private void detachSlowest() {
+            readers.removeIf(it -> {
+                if (it.chunk == firstChunk) {
+                    it.detached = true;
+                    it.droppedBytes = firstChunk * chunkSize;
+                    it.droppedChecksum = trimmedChecksum.getValue();
+                    it.consumedOfChunk = Arrays.copyOf(chunks.peekFirst(), it.offset);
+                    return true;
+                }
+                return false;
+            });
+
+            trim();
+            notifyAll();
+        }
+
+        // Drops chunks that were consumed by all readers, wakes up reader waiting for buffer space
+        private void trim() {
+            long slowest = readers.stream().mapToLong(it -> it.chunk).min().orElse(firstChunk + chunks.size());
+            boolean dropped = false;
+            while (firstChunk < slowest && !chunks.isEmpty()) {
+                byte[] chunk = chunks.pollFirst();
+                trimmedChecksum.update(chunk, 0, chunk.length);
+                bufferedBytes -= chunk.length;
+                firstChunk++;
+                dropped = true;
+            }
+
+            if (dropped) {
+                notifyAll();
+            }
+        }
+
+        // 0 waits until notified
+        private void await(long nanos) throws InterruptedIOException {
+            try {
+                if (0 == nanos) {
+                    wait();
+                } else {
+                    TimeUnit.NANOSECONDS.timedWait(this, nanos);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + key);
+            }
+        }
+
+        private void closeSource() {
+            if (null == source) {
+                return;
+            }
+
+            try {
+                source.close();
+            } catch (IOException ex) {
+                // content is already read, nothing to do
+            }
+            source = null;
+        }
+    }
+
+    /**
+     * Reader of shared flight, becomes plain reader of {@code delegate} once detached.
+     */
+    private class Reader extends InputStream {
+
+        private final Flight flight;
+
+        // position, guarded by flight monitor
+        private long chunk;
+        private int offset;
+        private boolean detached;
+
+        // what reader consumed before it was detached, set once detached
+        private long droppedBytes;
+        private long droppedChecksum;
+        private byte[] consumedOfChunk;
+
+        private InputStream own;
+        private boolean closed;
+
+        Reader(Flight flight) {
+            this.flight = flight;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return -1 == read ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            if (0 == len) {
+                return 0;
+            }
+
+            if (null == own) {
+                int read = flight.read(this, b, off, len);
+                if (0 != read) {
+                    return read;
+                }
+
+                own = openOwn();
+            }
+
+            return own.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            flight.leave(this);
+            if (null != own) {
+                own.close();
+            }
+        }
+
+        // Skips content reader already consumed, verifying it is still the same
+        private InputStream openOwn() throws IOException {
+            InputStream stream = delegate.read(flight.location);
+            try {
+                CRC32 checksum = new CRC32();
+                byte[] scratch = new byte[chunkSize];
+                long toSkip = droppedBytes;
+                while (toSkip > 0) {
+                    int read = readAtLeastOne(stream, scratch, 0, (int) Math.min(scratch.length, toSkip));
+                    checksum.update(scratch, 0, read);
+                    toSkip -= read;
+                }
+
+                int filled = 0;
+                while (filled < consumedOfChunk.length) {
+                    filled += readAtLeastOne(stream, scratch, filled, consumedOfChunk.length - filled);
+                }
+
+                if (checksum.getValue() != droppedChecksum
+                        || !Arrays.equals(consumedOfChunk, Arrays.copyOf(scratch, filled))) {
+                    throw new IOException("Content of " + flight.key + " changed while it was read");
+                }
+
+                return stream;
+            } catch (IOException | RuntimeException ex) {
+                stream.close();
+                throw ex;
+            }
+        }
+
+        private int readAtLeastOne(InputStream stream, byte[] scratch, int off, int len) throws IOException {
+            int read = stream.read(scratch, off, len);
+            if (-1 == read) {
+                throw new IOException("Content of " + flight.key + " changed while it was read");
+            }
+
+            return read;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Makes blocking {@link StorageService} asynchronous by running its operations using {@code executor}.
+ * Suitable for storages that have no non-blocking client.
+ */
+@RequiredArgsConstructor
+public class ExecutorAsyncStorageService implements AsyncStorageService {
+
+    private static final int COPY_CHUNK = 8192;
+
+    private final StorageService storage;
+    private final Executor executor;
+
+    @Override
+    public CompletableFuture<Boolean> objectExists(AbsoluteLocation location) {
+        return CompletableFuture.supplyAsync(() -> storage.objectExists(location), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<AbsoluteLocation<ResolvedResource>>> list(AbsoluteLocation location) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Stream<AbsoluteLocation<ResolvedResource>> listing = storage.list(location)) {
+                return listing.collect(Collectors.toList());
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> read(AbsoluteLocation location) {
+        return CompletableFuture.supplyAsync(() -> storage.read(location), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> write(AbsoluteLocation location, ByteBuffer content) {
+        ByteBuffer toWrite = content.slice();
+        return CompletableFuture.runAsync(() -> writeFully(location, toWrite), executor);
+    }
+
+    /**
+     * Stream of underlying storage is returned as is, so that content is sent as it is written.
+     */
+    @Override
+    public CompletableFuture<OutputStream> openWrite(AbsoluteLocation location) {
+        return CompletableFuture.supplyAsync(() -> storage.write(location), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(AbsoluteLocation location) {
+        return CompletableFuture.runAsync(() -> storage.remove(location), executor);
+    }
+
+    @SneakyThrows
+    private void writeFully(AbsoluteLocation location, ByteBuffer content) {
+        try (OutputStream os = storage.write(location)) {
+            if (content.hasArray()) {
+                os.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+                return;
+            }
+
+            byte[] chunk = new byte[Math.min(COPY_CHUNK, content.remaining())];
+            while (content.hasRemaining()) {
+                int size = Math.min(chunk.length, content.remaining());
+                content.get(chunk, 0, size);
+                os.write(chunk, 0, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.storage.api.metrics.StorageMetricsSink;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.RequiredArgsConstructor;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Measures calls to any {@link StorageService} (including {@link SchemeDelegatingStorage}) and reports them to
+ * {@link StorageMetricsSink} per operation and location scheme. Operation latency is the time the call took,
+ * except for write, which is measured from opening the stream till it is closed, because content is committed
+ * on close, and for listing streams, which are measured till they are exhausted or closed, because listing is
+ * requested lazily while it is consumed. Bytes are counted on wrapped streams and are reported when stream is
+ * closed.
+ * When sink is disabled calls and streams are passed through as-is.
+ */
+@RequiredArgsConstructor
+public class InstrumentedStorageService implements StorageService {
+
+    private static final String NO_SCHEME = "none";
+
+    private final StorageService delegate;
+    private final StorageMetricsSink sink;
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return measure(StorageOperation.OBJECT_EXISTS, location, () -> delegate.objectExists(location));
+    }
+
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        return measure(StorageOperation.METADATA, location, () -> delegate.metadata(location));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return measureListing(StorageOperation.LIST, location, () -> delegate.list(location));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        return measureListing(StorageOperation.LIST_SHALLOW, location, () -> delegate.listShallow(location));
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return measure(
+                StorageOperation.LIST_PAGE,
+                location,
+                () -> delegate.listPage(location, continuationToken, pageSize)
+        );
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return measure(
+                StorageOperation.LIST_SHALLOW_PAGE,
+                location,
+                () -> delegate.listShallowPage(location, continuationToken, pageSize)
+        );
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        InputStream stream = measure(StorageOperation.READ, location, () -> delegate.read(location));
+        return sink.isEnabled() ? new CountingInputStream(stream, scheme(location)) : stream;
+    }
+
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        if (!sink.isEnabled()) {
+            return delegate.write(location);
+        }
+
+        String scheme = scheme(location);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            OutputStream stream = delegate.write(location);
+            failed = false;
+            return new CountingOutputStream(stream, scheme, start);
+        } finally {
+            // successful write is recorded when stream is closed
+            if (failed) {
+                sink.recordOperation(StorageOperation.WRITE, scheme, System.nanoTime() - start, true);
+            }
+        }
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        measure(StorageOperation.REMOVE, location, () -> {
+            delegate.remove(location);
+            return null;
+        });
+    }
+
+    /**
+     * Locations are grouped by scheme, so that bulk removal is measured per scheme.
+     */
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        if (!sink.isEnabled()) {
+            delegate.removeAll(locations);
+            return;
+        }
+
+        Map<String, List<AbsoluteLocation>> byScheme = locations.collect(
+                Collectors.groupingBy(InstrumentedStorageService::scheme, LinkedHashMap::new, Collectors.toList())
+        );
+
+        byScheme.forEach((scheme, schemeLocations) -> measure(StorageOperation.REMOVE_ALL, scheme, () -> {
+            delegate.removeAll(schemeLocations.stream());
+            return null;
+        }));
+    }
+
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        measure(StorageOperation.COPY, source, () -> {
+            delegate.copy(source, target);
+            return null;
+        });
+    }
+
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        measure(StorageOperation.MOVE, source, () -> {
+            delegate.move(source, target);
+            return null;
+        });
+    }
+
+    private <T> T measure(StorageOperation operation, AbsoluteLocation location, Supplier<T> call) {
+        if (!sink.isEnabled()) {
+            return call.get();
+        }
+
+        return measure(operation, scheme(location), call);
+    }
+
+    // Storage implementations may throw checked exceptions sneakily, so failure is detected by flag
+    private <T> T measure(StorageOperation operation, String scheme, Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            sink.recordOperation(operation, scheme, System.nanoTime() - start, failed);
+        }
+    }
+
+    private Stream<AbsoluteLocation<ResolvedResource>> measureListing(
+            StorageOperation operation, AbsoluteLocation location,
+            Supplier<Stream<AbsoluteLocation<ResolvedResource>>> call) {
+        if (!sink.isEnabled()) {
+            return call.get();
+        }
+
+        ListingMeasurement measurement = new ListingMeasurement(operation, scheme(location));
+        boolean failed = true;
+        try {
+            Stream<AbsoluteLocation<ResolvedResource>> listed = call.get();
+            failed = false;
+            return StreamSupport.stream(new MeasuredListing(listed.spliterator(), measurement), listed.isParallel())
+                    .onClose(() -> {
+                        try {
+                            listed.close();
+                        } finally {
+                            measurement.finish(false);
+                        }
+                    });
+        } finally {
+            if (failed) {
+                measurement.finish(true);
+            }
+        }
+    }
+
+    private static String scheme(AbsoluteLocation location) {
+        String scheme = location.location().asURI().getScheme();
+        return null == scheme ? NO_SCHEME : scheme;
+    }
+
+    /**
+     * Listing latency that is recorded once, when all splits of listing are exhausted, listing fails or
+     * is closed.
+     */
+    private class ListingMeasurement {
+
+        private final StorageOperation operation;
+        private final String scheme;
+        private final long start = System.nanoTime();
+        private final AtomicInteger unfinishedSplits = new AtomicInteger(1);
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        ListingMeasurement(StorageOperation operation, String scheme) {
+            this.operation = operation;
+            this.scheme = scheme;
+        }
+
+        void split() {
+            unfinishedSplits.incrementAndGet();
+        }
+
+        void splitExhausted() {
+            if (0 == unfinishedSplits.decrementAndGet()) {
+                finish(false);
+            }
+        }
+
+        void finish(boolean failed) {
+            if (recorded.compareAndSet(false, true)) {
+                sink.recordOperation(operation, scheme, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * Listing spliterator that reports its exhaustion, splits are measured too, so that parallel consumption
+     * is supported.
+     */
+    private static class MeasuredListing implements Spliterator<AbsoluteLocation<ResolvedResource>> {
+
+        private final Spliterator<AbsoluteLocation<ResolvedResource>> delegate;
+        private final ListingMeasurement measurement;
+        private boolean exhausted;
+
+        MeasuredListing(Spliterator<AbsoluteLocation<ResolvedResource>> delegate,
+                        ListingMeasurement measurement) {
+            this.delegate = delegate;
+            this.measurement = measurement;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AbsoluteLocation<ResolvedResource>> action) {
+            boolean advanced = measured(() -> delegate.tryAdvance(action));
+            if (!advanced) {
+                exhausted();
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super AbsoluteLocation<ResolvedResource>> action) {
+            measured(() -> {
+                delegate.forEachRemaining(action);
+                return null;
+            });
+            exhausted();
+        }
+
+        @Override
+        public Spliterator<AbsoluteLocation<ResolvedResource>> trySplit() {
+            Spliterator<AbsoluteLocation<ResolvedResource>> split = measured(delegate::trySplit);
+            if (null == split) {
+                return null;
+            }
+
+            measurement.split();
+            return new MeasuredListing(split, measurement);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics();
+        }
+
+        // Storage implementations may throw checked exceptions sneakily, so failure is detected by flag
+        private <T> T measured(Supplier<T> call) {
+            boolean failed = true;
+            try {
+                T result = call.get();
+                failed = false;
+                return result;
+            } finally {
+                if (failed) {
+                    measurement.finish(true);
+                }
+            }
+        }
+
+        private void exhausted() {
+            if (!exhausted) {
+                exhausted = true;
+                measurement.splitExhausted();
+            }
+        }
+    }
+
+    private class CountingInputStream extends FilterInputStream {
+
+        private final String scheme;
+        private long bytes;
+        private boolean closed;
+
+        CountingInputStream(InputStream in, String scheme) {
+            super(in);
+            this.scheme = scheme;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (-1 != result) {
+                bytes++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                sink.recordBytesRead(scheme, bytes);
+            }
+
+            super.close();
+        }
+    }
+
+    private class CountingOutputStream extends FilterOutputStream implements AbortableStream {
+
+        private final String scheme;
+        private final long start;
+        private long bytes;
+        private boolean closed;
+
+        CountingOutputStream(OutputStream out, String scheme, long start) {
+            super(out);
+            this.scheme = scheme;
+            this.start = start;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            boolean failed = true;
+            try {
+                out.close();
+                failed = false;
+            } finally {
+                sink.recordOperation(StorageOperation.WRITE, scheme, System.nanoTime() - start, failed);
+                sink.recordBytesWritten(scheme, bytes);
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                AbortableStream.abortOrClose(out);
+            } finally {
+                sink.recordOperation(StorageOperation.WRITE, scheme, System.nanoTime() - start, true);
+            }
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package de.adorsys.datasafe.storage.api;
 
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -33,11 +38,33 @@ public class SchemeDelegatingStorage implements StorageService {
         return service(location).objectExists(location);
     }
 
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        return service(location).metadata(location);
+    }
+
     @Override
     public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
         return service(location).list(location);
     }
 
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        return service(location).listShallow(location);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return service(location).listPage(location, continuationToken, pageSize);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return service(location).listShallowPage(location, continuationToken, pageSize);
+    }
+
     @Override
     public InputStream read(AbsoluteLocation location) {
         return service(location).read(location);
@@ -48,11 +75,48 @@ public class SchemeDelegatingStorage implements StorageService {
         service(location).remove(location);
     }
 
+    /**
+     * Groups locations by scheme, so that each storage can remove its part of locations in bulk.
+     */
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        Map<StorageService, List<AbsoluteLocation>> byService = locations.collect(
+                Collectors.groupingBy(this::service, LinkedHashMap::new, Collectors.toList())
+        );
+
+        byService.forEach((service, serviceLocations) -> service.removeAll(serviceLocations.stream()));
+    }
+
     @Override
     public OutputStream write(AbsoluteLocation location) {
         return service(location).write(location);
     }
 
+    /**
+     * Resources of the same scheme are copied by their storage, otherwise content is streamed between storages.
+     */
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        StorageService service = service(source);
+        if (service == service(target)) {
+            service.copy(source, target);
+            return;
+        }
+
+        StorageService.super.copy(source, target);
+    }
+
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        StorageService service = service(source);
+        if (service == service(target)) {
+            service.move(source, target);
+            return;
+        }
+
+        StorageService.super.move(source, target);
+    }
+
     private StorageService service(AbsoluteLocation location) {
         String protocol = location.location().asURI().getScheme();
         StorageService service = storageByScheme.get(protocol);
@@ -1,6 +1,15 @@
 package de.adorsys.datasafe.storage.api;
 
 import de.adorsys.datasafe.storage.api.actions.*;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Groups all operations on data storage into a single class.
@@ -10,5 +19,50 @@ public interface StorageService extends
         StorageReadService,
         StorageWriteService,
         StorageRemoveService,
-        StorageCheckService {
+        StorageCheckService,
+        StorageCopyService {
+
+    /**
+     * Reads metadata (modification date, size, ETag) of a single resource without reading its content.
+     * Default implementation finds the resource in listing of its location, storages that can query single
+     * resource (i.e. S3 HEAD request) should override it.
+     * @param location Resource location with credentials (if necessary)
+     * @return Resource with its metadata, empty if there is no such resource
+     */
+    default Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        String path = location.location().asURI().getPath();
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = list(location)) {
+            return listed.filter(it -> path.equals(it.location().asURI().getPath())).findFirst();
+        }
+    }
+
+    /**
+     * Streams content of source to target. Storages that can copy content without transferring it through
+     * the client should override it.
+     */
+    @Override
+    default void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        try (InputStream is = read(source); OutputStream os = write(target)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while (-1 != (read = is.read(buffer))) {
+                os.write(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Copies source to target and removes source. Storages that can rename resource should override it.
+     */
+    @Override
+    default void move(AbsoluteLocation source, AbsoluteLocation target) {
+        if (source.location().asURI().equals(target.location().asURI())) {
+            return;
+        }
+
+        copy(source, target);
+        remove(source);
+    }
 }
@@ -0,0 +1,54 @@
+package de.adorsys.datasafe.storage.api.actions;
+
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.actions.PageSelection;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+
+import java.util.stream.Stream;
+
+/**
+ * Continuation tokens of paged listing. Token wraps key of the last listed entry relative to listing location,
+ * so that next page starts right after it, even if entries were added or removed in between.
+ */
+public final class PagedListing {
+
+    private PagedListing() {
+    }
+
+    /**
+     * @param lastKey Key of the last entry in page, relative to listing location
+     * @return Opaque token that continues listing after {@code lastKey}
+     */
+    public static String token(String lastKey) {
+        return PageSelection.token(lastKey);
+    }
+
+    /**
+     * @param token Token of previous page or {@code null}
+     * @return Key after which listing continues, {@code null} for the first page
+     */
+    public static String afterKey(String token) {
+        return PageSelection.afterKey(token);
+    }
+
+    public static void validatePageSize(int pageSize) {
+        PageSelection.validatePageSize(pageSize);
+    }
+
+    /**
+     * Selects page from unordered listing, keeping at most {@code pageSize + 1} entries in memory.
+     * @param listing Whole listing of {@code location}
+     * @param location Where listing happens, entry keys are relative to it
+     * @param token Token of previous page or {@code null}
+     * @param pageSize Maximum amount of entries in page
+     * @return Entries ordered by their key
+     */
+    public static ListPage<AbsoluteLocation<ResolvedResource>> select(
+            Stream<AbsoluteLocation<ResolvedResource>> listing, AbsoluteLocation location,
+            String token, int pageSize) {
+        Uri root = location.location().asDir();
+        return PageSelection.select(listing, it -> root.relativize(it.location()).toASCIIString(), token, pageSize);
+    }
+}
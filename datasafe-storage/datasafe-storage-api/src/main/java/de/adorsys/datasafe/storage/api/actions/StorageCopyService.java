@@ -0,0 +1,23 @@
+package de.adorsys.datasafe.storage.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+
+/**
+ * Copy and move of single resource within storage.
+ */
+public interface StorageCopyService {
+
+    /**
+     * Copies resource content, target is overwritten if it exists.
+     * @param source absolute bucket path with credentials (if necessary) of resource to copy
+     * @param target absolute bucket path with credentials (if necessary) of the copy
+     */
+    void copy(AbsoluteLocation source, AbsoluteLocation target);
+
+    /**
+     * Moves resource content, target is overwritten if it exists and source is removed.
+     * @param source absolute bucket path with credentials (if necessary) of resource to move
+     * @param target absolute bucket path with credentials (if necessary) where resource is moved
+     */
+    void move(AbsoluteLocation source, AbsoluteLocation target);
+}
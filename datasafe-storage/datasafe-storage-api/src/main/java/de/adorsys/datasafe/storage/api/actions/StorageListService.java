@@ -1,8 +1,15 @@
 package de.adorsys.datasafe.storage.api.actions;
 
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
 
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -17,4 +24,67 @@ public interface StorageListService {
      * @return stream of available absolute bucket paths
      */
     Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location);
+
+    /**
+     * Lists only direct children of the bucket path (like S3 listing with '/' delimiter).
+     * Default implementation derives them from recursive {@link StorageListService#list(AbsoluteLocation)},
+     * storages that can list single level natively should override it.
+     * @param location absolute bucket path with credentials (if necessary) where to list data
+     * @return stream of files and sub-directories, sub-directory location ends with '/' and has no
+     * modification date
+     */
+    default Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        Uri root = location.location().asDir();
+        Set<String> seenDirs = new HashSet<>();
+
+        return list(location)
+                .map(it -> {
+                    Uri relative = root.relativize(it.location());
+                    int separator = relative.isAbsolute() ? -1 : relative.toASCIIString().indexOf('/');
+                    if (separator < 0) {
+                        return it;
+                    }
+
+                    String dir = relative.toASCIIString().substring(0, separator + 1);
+                    if (!seenDirs.add(dir)) {
+                        return null;
+                    }
+
+                    return new AbsoluteLocation<ResolvedResource>(
+                            new BaseResolvedResource(BasePrivateResource.forPrivate(dir).resolveFrom(location), null)
+                    );
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Lists single page of bucket contents, entries are ordered by their path.
+     * Default implementation scans whole {@link StorageListService#list(AbsoluteLocation)} for each page keeping
+     * only {@code pageSize} entries in memory, storages that can resume listing natively should override it.
+     * @param location absolute bucket path with credentials (if necessary) where to list data
+     * @param continuationToken {@link ListPage#getNextToken()} of previous page, {@code null} for the first page
+     * @param pageSize maximum amount of entries in page
+     * @return page of available absolute bucket paths
+     */
+    default ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = list(location)) {
+            return PagedListing.select(listing, location, continuationToken, pageSize);
+        }
+    }
+
+    /**
+     * Lists single page of direct children of the bucket path, like
+     * {@link StorageListService#listPage(AbsoluteLocation, String, int)} does for all contents.
+     * @param location absolute bucket path with credentials (if necessary) where to list data
+     * @param continuationToken {@link ListPage#getNextToken()} of previous page, {@code null} for the first page
+     * @param pageSize maximum amount of entries in page
+     * @return page of files and sub-directories
+     */
+    default ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = listShallow(location)) {
+            return PagedListing.select(listing, location, continuationToken, pageSize);
+        }
+    }
 }
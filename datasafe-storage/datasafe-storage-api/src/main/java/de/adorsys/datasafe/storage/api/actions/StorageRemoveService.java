@@ -2,6 +2,8 @@ package de.adorsys.datasafe.storage.api.actions;
 
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 
+import java.util.stream.Stream;
+
 /**
  * Remove operation at a given location with all subdirs.
  */
@@ -13,4 +15,13 @@ public interface StorageRemoveService {
      * @param location absolute bucket path, with credentials (if necessary), which should be removed
      */
     void remove(AbsoluteLocation location);
+
+    /**
+     * Removes contents of multiple bucket paths. Storages that can remove many objects at once should override it,
+     * default implementation removes them one by one.
+     * @param locations absolute bucket paths, with credentials (if necessary), which should be removed
+     */
+    default void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        locations.forEach(this::remove);
+    }
 }
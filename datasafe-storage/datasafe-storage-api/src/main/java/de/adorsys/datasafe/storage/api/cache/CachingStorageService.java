@@ -0,0 +1,335 @@
+package de.adorsys.datasafe.storage.api.cache;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.SneakyThrows;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of storage objects on local disk, intended for remote storages. Objects are cached as they
+ * are stored (encrypted), so cache never contains plaintext. Cached entry is served only if object version
+ * (ETag and size from {@link StorageService#metadata}, a HEAD request on S3) is still the same, validation
+ * can be skipped for {@code revalidateAfter} after the last one. Failures of the cache itself never fail reads.
+ * Writes and removals done through this storage invalidate cached entries, least recently used entries are evicted
+ * when cache exceeds its size.
+ */
+public class CachingStorageService implements StorageService {
+
+    private final StorageService delegate;
+    private final DiskCache cache;
+    private final long revalidateAfterNanos;
+
+    /**
+     * @param delegate Storage to cache
+     * @param cacheDir Directory exclusively used by this cache
+     * @param maxBytes Maximal size of cached content
+     * @param revalidateAfter How long cached entry can be served without checking its version,
+     *                        {@link Duration#ZERO} validates it on each read
+     */
+    public CachingStorageService(StorageService delegate, Path cacheDir, long maxBytes, Duration revalidateAfter) {
+        this.delegate = delegate;
+        this.cache = new DiskCache(cacheDir, maxBytes);
+        this.revalidateAfterNanos = revalidateAfter.toNanos();
+    }
+
+    public CachingStorageService(StorageService delegate, Path cacheDir, long maxBytes) {
+        this(delegate, cacheDir, maxBytes, Duration.ZERO);
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return delegate.objectExists(location);
+    }
+
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        return delegate.metadata(location);
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return delegate.list(location);
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        return delegate.listShallow(location);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return delegate.listPage(location, continuationToken, pageSize);
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return delegate.listShallowPage(location, continuationToken, pageSize);
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        String key = key(location);
+        Optional<DiskCache.Entry> cached = cache.get(key);
+        if (cached.isPresent() && System.nanoTime() - cached.get().getValidatedAtNanos() < revalidateAfterNanos) {
+            Optional<InputStream> content = cache.open(cached.get());
+            if (content.isPresent()) {
+                return content.get();
+            }
+        }
+
+        long stamp = cache.stamp(key);
+        // version is taken before content, so that content can only be newer than the version it is cached with
+        String version = version(location);
+        if (cached.isPresent() && cached.get().getVersion().equals(version)) {
+            Optional<InputStream> content = cache.open(cached.get());
+            if (content.isPresent()) {
+                cached.get().validated();
+                return content.get();
+            }
+        }
+
+        if (null == version) {
+            cache.invalidate(key);
+            return delegate.read(location);
+        }
+
+        return new CachingInputStream(delegate.read(location), key, version, stamp);
+    }
+
+    /**
+     * Invalidates cached entry both before and after writing, so that readers do not cache the previous content
+     * meanwhile.
+     */
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        String key = key(location);
+        cache.invalidate(key);
+        return new InvalidatingOutputStream(delegate.write(location), key);
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        cache.invalidate(key(location));
+        delegate.remove(location);
+    }
+
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        List<? extends AbsoluteLocation> toRemove = locations.collect(Collectors.toList());
+        toRemove.forEach(it -> cache.invalidate(key(it)));
+        delegate.removeAll(toRemove.stream());
+    }
+
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        String key = key(target);
+        cache.invalidate(key);
+        try {
+            delegate.copy(source, target);
+        } finally {
+            cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        String key = key(target);
+        cache.invalidate(key(source));
+        cache.invalidate(key);
+        try {
+            delegate.move(source, target);
+        } finally {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * @return Size of cached content in bytes
+     */
+    public long cachedBytes() {
+        return cache.totalBytes();
+    }
+
+    private String version(AbsoluteLocation location) {
+        return delegate.metadata(location).map(it -> version(it.getResource())).orElse(null);
+    }
+
+    // Modification date has only second resolution on S3, so it identifies content only if there is no ETag
+    private static String version(ResolvedResource resource) {
+        String tag = null != resource.getETag() ? resource.getETag() : String.valueOf(resource.getModifiedAt());
+        return tag + "/" + resource.getSize();
+    }
+
+    private static String key(AbsoluteLocation location) {
+        return location.location().asURI().toString();
+    }
+
+    /**
+     * Invalidates cached entry once content is committed, abort is forwarded to delegate stream.
+     */
+    private class InvalidatingOutputStream extends FilterOutputStream implements AbortableStream {
+
+        private final String key;
+
+        InvalidatingOutputStream(OutputStream out, String key) {
+            super(out);
+            this.key = key;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                cache.invalidate(key);
+            }
+        }
+
+        @Override
+        public void abort() {
+            try {
+                AbortableStream.abortOrClose(out);
+            } finally {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Copies content to temp file while it is read, it is committed to cache only if whole content was read.
+     */
+    private class CachingInputStream extends FilterInputStream {
+
+        private final String key;
+        private final String version;
+        private final long stamp;
+        private final Path tempFile;
+        private OutputStream copy;
+        private boolean complete;
+
+        @SneakyThrows
+        CachingInputStream(InputStream in, String key, String version, long stamp) {
+            super(in);
+            this.key = key;
+            this.version = version;
+            this.stamp = stamp;
+            this.tempFile = cache.newTempFile(key);
+            this.copy = new BufferedOutputStream(Files.newOutputStream(tempFile));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (-1 == result) {
+                complete = true;
+            } else {
+                copy(new byte[] {(byte) result}, 0, 1);
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (-1 == read) {
+                complete = true;
+            } else {
+                copy(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes are not copied, so content can't be cached
+            abandonCopy();
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                finishCopy();
+            }
+        }
+
+        private void finishCopy() {
+            if (null == copy) {
+                return;
+            }
+
+            try {
+                copy.close();
+                copy = null;
+                if (complete) {
+                    cache.commit(key, version, tempFile, stamp);
+                    return;
+                }
+            } catch (IOException | UncheckedIOException ex) {
+                // content was read successfully, it just won't be cached
+                copy = null;
+            }
+
+            DiskCache.deleteQuietly(tempFile);
+        }
+
+        // Failure to cache content should not fail reading it
+        private void copy(byte[] b, int off, int len) {
+            if (null == copy) {
+                return;
+            }
+
+            try {
+                copy.write(b, off, len);
+            } catch (IOException ex) {
+                abandonCopy();
+            }
+        }
+
+        private void abandonCopy() {
+            if (null == copy) {
+                return;
+            }
+
+            try {
+                copy.close();
+            } catch (IOException ex) {
+                // temp file is removed anyway
+            }
+
+            copy = null;
+            DiskCache.deleteQuietly(tempFile);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package de.adorsys.datasafe.storage.api.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded LRU set of files in single directory, each file holds content of one storage object. Index with
+ * object versions is kept in memory, so directory content left by previous process is dropped on start.
+ */
+class DiskCache {
+
+    private static final String BLOB = ".blob";
+    private static final String TEMP = ".tmp";
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Path dir;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // Incremented on each invalidation of keys in the stripe, so that content read before invalidation
+    // is not committed after it
+    private final long[] invalidationStamps = new long[STAMP_STRIPES];
+
+    @SneakyThrows
+    DiskCache(Path dir, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(dir);
+        try (Stream<Path> leftovers = Files.list(dir)) {
+            leftovers
+                    .filter(it -> it.toString().endsWith(BLOB) || it.toString().endsWith(TEMP))
+                    .forEach(DiskCache::deleteQuietly);
+        }
+    }
+
+    /**
+     * @return Cached entry (marks it as recently used) if any
+     */
+    synchronized Optional<Entry> get(String key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    /**
+     * @return Invalidation stamp of the key, should be taken before reading content that will be committed
+     */
+    synchronized long stamp(String key) {
+        return invalidationStamps[stripe(key)];
+    }
+
+    /**
+     * @return Stream of cached content, or empty if entry was evicted meanwhile
+     */
+    Optional<InputStream> open(Entry entry) {
+        try {
+            return Optional.of(Files.newInputStream(entry.getFile()));
+        } catch (IOException ex) {
+            invalidate(entry.getKey(), entry);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return File where content should be written before calling {@link DiskCache#commit}
+     */
+    Path newTempFile(String key) {
+        return dir.resolve(fileName(key) + "." + UUID.randomUUID() + TEMP);
+    }
+
+    /**
+     * Moves fully written temp file into cache, evicting least recently used entries that do not fit.
+     * Content is dropped if key was invalidated after {@code stamp} was taken.
+     */
+    void commit(String key, String version, Path tempFile, long stamp) {
+        Path file = dir.resolve(fileName(key) + BLOB);
+        try {
+            long size = Files.size(tempFile);
+            if (size > maxBytes) {
+                deleteQuietly(tempFile);
+                return;
+            }
+
+            synchronized (this) {
+                if (stamp != invalidationStamps[stripe(key)]) {
+                    deleteQuietly(tempFile);
+                    return;
+                }
+
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Entry previous = entries.put(key, new Entry(key, version, file, size));
+                totalBytes += size - (null == previous ? 0 : previous.getSize());
+                evictIfNeeded();
+            }
+        } catch (IOException ex) {
+            deleteQuietly(tempFile);
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    void invalidate(String key) {
+        invalidate(key, null);
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    // expected == null removes any entry, otherwise only the given one (it could be replaced meanwhile)
+    private synchronized void invalidate(String key, Entry expected) {
+        if (null == expected) {
+            invalidationStamps[stripe(key)]++;
+        }
+
+        Entry current = entries.get(key);
+        if (null == current || (null != expected && current != expected)) {
+            return;
+        }
+
+        entries.remove(key);
+        totalBytes -= current.getSize();
+        deleteQuietly(current.getFile());
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= evicted.getSize();
+            deleteQuietly(evicted.getFile());
+        }
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STAMP_STRIPES;
+    }
+
+    @SneakyThrows
+    private static String fileName(String key) {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // file will be overwritten or dropped on next start
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Entry {
+
+        private final String key;
+        private final String version;
+        private final Path file;
+        private final long size;
+        private volatile long validatedAtNanos = System.nanoTime();
+
+        void validated() {
+            validatedAtNanos = System.nanoTime();
+        }
+    }
+}
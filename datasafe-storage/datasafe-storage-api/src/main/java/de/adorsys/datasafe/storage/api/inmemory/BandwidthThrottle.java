@@ -0,0 +1,43 @@
+package de.adorsys.datasafe.storage.api.inmemory;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates link with limited bandwidth that is shared by all streams: each transfer is queued after transfers
+ * reserved before it, and caller sleeps until its bytes would have been transferred.
+ */
+class BandwidthThrottle {
+
+    private final long bytesPerSecond;
+    private long linkFreeAtNanos = System.nanoTime();
+
+    BandwidthThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    void transfer(long bytes) throws InterruptedIOException {
+        if (bytesPerSecond <= 0 || bytes <= 0) {
+            return;
+        }
+
+        long doneAt = reserve(bytes);
+        long toWait = doneAt - System.nanoTime();
+        if (toWait <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(toWait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while transferring data");
+        }
+    }
+
+    private synchronized long reserve(long bytes) {
+        long start = Math.max(System.nanoTime(), linkFreeAtNanos);
+        linkFreeAtNanos = start + (long) (bytes * 1e9 / bytesPerSecond);
+        return linkFreeAtNanos;
+    }
+}
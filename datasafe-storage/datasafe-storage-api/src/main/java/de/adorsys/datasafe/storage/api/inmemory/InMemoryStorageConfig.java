@@ -0,0 +1,65 @@
+package de.adorsys.datasafe.storage.api.inmemory;
+
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Simulated storage behavior of {@link InMemoryStorageService}. Default values make storage behave like
+ * an ideal one - instant, unlimited and reliable.
+ */
+@Value
+@Builder(toBuilder = true)
+public class InMemoryStorageConfig {
+
+    public static final InMemoryStorageConfig DEFAULT = InMemoryStorageConfig.builder().build();
+
+    /**
+     * Latency of operations that have no own latency in {@code latencies}.
+     */
+    @Builder.Default
+    private final LatencyDistribution defaultLatency = LatencyDistribution.none();
+
+    /**
+     * Per-operation latency. Read latency is time to first byte, write latency is applied when stream is
+     * closed, as that is when content is committed.
+     */
+    @Singular
+    private final Map<StorageOperation, LatencyDistribution> latencies;
+
+    /**
+     * Probability (0..1) that operation fails with {@link java.io.UncheckedIOException}, write fails when stream
+     * is closed and content is then not stored.
+     */
+    @Singular
+    private final Map<StorageOperation, Double> errorRates;
+
+    /**
+     * Bandwidth in bytes per second shared by all read streams, 0 means unlimited.
+     */
+    @Builder.Default
+    private final long readBytesPerSecond = 0;
+
+    /**
+     * Bandwidth in bytes per second shared by all write streams, 0 means unlimited.
+     */
+    @Builder.Default
+    private final long writeBytesPerSecond = 0;
+
+    /**
+     * Seed of latencies and failures, so that benchmark runs are repeatable.
+     */
+    @Builder.Default
+    private final long seed = 0;
+
+    LatencyDistribution latency(StorageOperation operation) {
+        return latencies.getOrDefault(operation, defaultLatency);
+    }
+
+    double errorRate(StorageOperation operation) {
+        return errorRates.getOrDefault(operation, 0.0);
+    }
+}
@@ -0,0 +1,272 @@
+package de.adorsys.datasafe.storage.api.inmemory;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Storage that keeps objects in memory and behaves like S3: object key is URI authority (bucket) with path,
+ * there are no directories, listing returns all keys that start with location path and removal removes
+ * single key. Latency, bandwidth and failures can be simulated using {@link InMemoryStorageConfig}, so that
+ * services on top of storage can be benchmarked without real object storage.
+ */
+public class InMemoryStorageService implements StorageService {
+
+    private final ConcurrentSkipListMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+
+    private final InMemoryStorageConfig config;
+    private final Random random;
+    private final BandwidthThrottle readThrottle;
+    private final BandwidthThrottle writeThrottle;
+
+    public InMemoryStorageService(InMemoryStorageConfig config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.readThrottle = new BandwidthThrottle(config.getReadBytesPerSecond());
+        this.writeThrottle = new BandwidthThrottle(config.getWriteBytesPerSecond());
+    }
+
+    public InMemoryStorageService() {
+        this(InMemoryStorageConfig.DEFAULT);
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        simulate(StorageOperation.OBJECT_EXISTS);
+        return objects.containsKey(objectKey(location));
+    }
+
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        simulate(StorageOperation.METADATA);
+        StoredObject object = objects.get(objectKey(location));
+        if (null == object) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new AbsoluteLocation<>(new BaseResolvedResource(
+                BasePrivateResource.forPrivate(location.location()),
+                object.getModifiedAt(),
+                (long) object.getContent().length,
+                null,
+                null
+        )));
+    }
+
+    /**
+     * Lists all objects whose key starts with location path, in lexicographical key order.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        simulate(StorageOperation.LIST);
+        String bucket = bucket(location);
+        String prefix = path(location);
+        String from = bucket + prefix;
+
+        return objects.subMap(from, true, from + Character.MAX_VALUE, false).entrySet().stream()
+                .map(it -> new AbsoluteLocation<>(
+                        new BaseResolvedResource(
+                                createResource(location, it.getKey().substring(bucket.length()), prefix.length()),
+                                it.getValue().getModifiedAt(),
+                                (long) it.getValue().getContent().length,
+                                null,
+                                null
+                        ))
+                );
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        simulate(StorageOperation.READ);
+        return new ThrottledInputStream(stored(location).getContent());
+    }
+
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        return new CommittingOutputStream(bucket(location) + path(location));
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        simulate(StorageOperation.REMOVE);
+        objects.remove(objectKey(location));
+    }
+
+    /**
+     * Copy shares content of the source, as stored content is never modified.
+     */
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        simulate(StorageOperation.COPY);
+        objects.put(objectKey(target), new StoredObject(stored(source).getContent(), Instant.now()));
+    }
+
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        simulate(StorageOperation.MOVE);
+        StoredObject object = stored(source);
+        String targetKey = objectKey(target);
+        if (!targetKey.equals(objectKey(source))) {
+            objects.put(targetKey, object);
+            objects.remove(objectKey(source), object);
+        }
+    }
+
+    private StoredObject stored(AbsoluteLocation location) {
+        String key = objectKey(location);
+        StoredObject object = objects.get(key);
+        if (null == object) {
+            throw new UncheckedIOException(new NoSuchFileException(Obfuscate.secure(key)));
+        }
+
+        return object;
+    }
+
+    // Latency comes before failure, as failing requests take time too
+    private void simulate(StorageOperation operation) {
+        long latency;
+        boolean fail;
+        synchronized (random) {
+            latency = config.latency(operation).nextNanos(random);
+            fail = random.nextDouble() < config.errorRate(operation);
+        }
+
+        if (latency > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latency);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted during " + operation));
+            }
+        }
+
+        if (fail) {
+            throw new UncheckedIOException(new IOException("Simulated failure of " + operation));
+        }
+    }
+
+    private static String objectKey(AbsoluteLocation location) {
+        return bucket(location) + path(location).replaceFirst("/$", "");
+    }
+
+    private static String bucket(AbsoluteLocation location) {
+        String authority = location.location().asURI().getAuthority();
+        return (null == authority ? "" : authority) + "/";
+    }
+
+    private static String path(AbsoluteLocation location) {
+        return location.location().getPath().replaceFirst("^/", "");
+    }
+
+    private static PrivateResource createResource(AbsoluteLocation root, String key, int prefixLen) {
+        String relUrl = key.substring(prefixLen).replaceFirst("^/", "");
+        if ("".equals(relUrl)) {
+            return BasePrivateResource.forPrivate(root.location());
+        }
+
+        return BasePrivateResource.forPrivate(relUrl).resolveFrom(root);
+    }
+
+    @Value
+    private static class StoredObject {
+
+        private final byte[] content;
+        private final Instant modifiedAt;
+    }
+
+    private class ThrottledInputStream extends ByteArrayInputStream {
+
+        ThrottledInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read() {
+            int result = super.read();
+            throttle(-1 == result ? 0 : 1);
+            return result;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int read = super.read(b, off, len);
+            throttle(read);
+            return read;
+        }
+
+        private void throttle(int bytes) {
+            try {
+                readThrottle.transfer(bytes);
+            } catch (InterruptedIOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private class CommittingOutputStream extends OutputStream implements AbortableStream {
+
+        private final String key;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            writeThrottle.transfer(1);
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            writeThrottle.transfer(len);
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            simulate(StorageOperation.WRITE);
+            objects.put(key, new StoredObject(buffer.toByteArray(), Instant.now()));
+        }
+
+        @Override
+        public void abort() {
+            closed = true;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+    }
+}
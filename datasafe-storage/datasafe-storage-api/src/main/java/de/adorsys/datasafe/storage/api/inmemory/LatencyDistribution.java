@@ -0,0 +1,58 @@
+package de.adorsys.datasafe.storage.api.inmemory;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Source of simulated storage operation latencies.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @param random Random source, so that latencies are repeatable for the same seed
+     * @return Next latency in nanoseconds
+     */
+    long nextNanos(Random random);
+
+    /**
+     * @return Operations complete immediately
+     */
+    static LatencyDistribution none() {
+        return random -> 0;
+    }
+
+    /**
+     * @param latency Latency of each operation
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * @param min Minimal latency
+     * @param max Maximal latency
+     * @return Latency uniformly distributed in [{@code min}, {@code max})
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long from = min.toNanos();
+        long range = max.toNanos() - from;
+        if (range <= 0) {
+            throw new IllegalArgumentException("Max latency must be larger than min");
+        }
+
+        return random -> from + (long) (random.nextDouble() * range);
+    }
+
+    /**
+     * Long-tailed latency typical for object storages: most requests are close to {@code median}, but some are
+     * many times slower.
+     * @param median Median latency
+     * @param sigma Standard deviation of latency logarithm, i.e. 0.5 makes p99 about 3.2 times the median
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double mu = Math.log(median.toNanos());
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+}
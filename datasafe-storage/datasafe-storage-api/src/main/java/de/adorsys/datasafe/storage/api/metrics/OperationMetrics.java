@@ -0,0 +1,62 @@
+package de.adorsys.datasafe.storage.api.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated measurements of single storage operation for single scheme.
+ */
+public class OperationMetrics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Latency of operation in nanoseconds, both successful and failed calls are counted.
+     */
+    @Getter
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    void record(long durationNanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+
+        latency.record(durationNanos);
+    }
+
+    /**
+     * @return Amount of calls
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return Amount of calls that have thrown an exception
+     */
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * @param percentile Percentile in range 0..100
+     * @param unit Result time unit
+     * @return Latency percentile
+     */
+    public long latencyPercentile(double percentile, TimeUnit unit) {
+        return unit.convert(latency.percentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "calls=" + calls()
+                + ", errors=" + errors()
+                + ", p50=" + latencyPercentile(50, TimeUnit.MICROSECONDS) + "us"
+                + ", p99=" + latencyPercentile(99, TimeUnit.MICROSECONDS) + "us"
+                + ", max=" + TimeUnit.NANOSECONDS.toMicros(latency.max()) + "us";
+    }
+}
@@ -0,0 +1,90 @@
+package de.adorsys.datasafe.storage.api.metrics;
+
+import lombok.Setter;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StorageMetricsSink} that aggregates measurements in memory per operation and scheme, so that they can
+ * be queried or periodically reported. Recording can be switched off at runtime using
+ * {@link StorageMetrics#setEnabled(boolean)}.
+ */
+public class StorageMetrics implements StorageMetricsSink {
+
+    private final Map<Key, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bytesRead = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bytesWritten = new ConcurrentHashMap<>();
+
+    @Setter
+    private volatile boolean enabled = true;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void recordOperation(StorageOperation operation, String scheme, long durationNanos, boolean failed) {
+        operation(operation, scheme).record(durationNanos, failed);
+    }
+
+    @Override
+    public void recordBytesRead(String scheme, long bytes) {
+        bytesRead.computeIfAbsent(scheme, id -> new LongAdder()).add(bytes);
+    }
+
+    @Override
+    public void recordBytesWritten(String scheme, long bytes) {
+        bytesWritten.computeIfAbsent(scheme, id -> new LongAdder()).add(bytes);
+    }
+
+    /**
+     * @param operation Storage operation
+     * @param scheme Location scheme
+     * @return Live measurements of {@code operation} on locations with {@code scheme}
+     */
+    public OperationMetrics operation(StorageOperation operation, String scheme) {
+        return operations.computeIfAbsent(new Key(operation, scheme), id -> new OperationMetrics());
+    }
+
+    /**
+     * @return Live measurements of all operations that were called, by scheme and operation
+     */
+    public Map<String, Map<StorageOperation, OperationMetrics>> operations() {
+        Map<String, Map<StorageOperation, OperationMetrics>> result = new TreeMap<>();
+        operations.forEach((key, metrics) ->
+                result.computeIfAbsent(key.getScheme(), id -> new TreeMap<>()).put(key.getOperation(), metrics)
+        );
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @param scheme Location scheme
+     * @return Total amount of bytes read from storage streams with {@code scheme}
+     */
+    public long bytesRead(String scheme) {
+        LongAdder bytes = bytesRead.get(scheme);
+        return null == bytes ? 0 : bytes.sum();
+    }
+
+    /**
+     * @param scheme Location scheme
+     * @return Total amount of bytes written to storage streams with {@code scheme}
+     */
+    public long bytesWritten(String scheme) {
+        LongAdder bytes = bytesWritten.get(scheme);
+        return null == bytes ? 0 : bytes.sum();
+    }
+
+    @Value
+    private static class Key {
+
+        private final StorageOperation operation;
+        private final String scheme;
+    }
+}
@@ -0,0 +1,62 @@
+package de.adorsys.datasafe.storage.api.metrics;
+
+/**
+ * Receives measurements of {@link de.adorsys.datasafe.storage.api.InstrumentedStorageService}, implement it to
+ * forward them to monitoring system of your choice or use {@link StorageMetrics} that aggregates them in memory.
+ * Methods are called from storage threads, so they should be fast and thread-safe.
+ */
+public interface StorageMetricsSink {
+
+    /**
+     * Sink that ignores everything, storage calls are then passed through without measuring.
+     */
+    StorageMetricsSink DISABLED = new StorageMetricsSink() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordOperation(StorageOperation operation, String scheme, long durationNanos, boolean failed) {
+            // NOP
+        }
+
+        @Override
+        public void recordBytesRead(String scheme, long bytes) {
+            // NOP
+        }
+
+        @Override
+        public void recordBytesWritten(String scheme, long bytes) {
+            // NOP
+        }
+    };
+
+    /**
+     * Checked before each storage call, if sink is disabled call is not measured at all.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @param operation Storage operation
+     * @param scheme Location scheme, like s3 or file
+     * @param durationNanos How long the operation took
+     * @param failed If operation has thrown an exception
+     */
+    void recordOperation(StorageOperation operation, String scheme, long durationNanos, boolean failed);
+
+    /**
+     * @param scheme Location scheme
+     * @param bytes Amount of bytes read from single stream
+     */
+    void recordBytesRead(String scheme, long bytes);
+
+    /**
+     * @param scheme Location scheme
+     * @param bytes Amount of bytes written to single stream
+     */
+    void recordBytesWritten(String scheme, long bytes);
+}
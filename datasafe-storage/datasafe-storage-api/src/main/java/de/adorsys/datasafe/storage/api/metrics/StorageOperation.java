@@ -0,0 +1,19 @@
+package de.adorsys.datasafe.storage.api.metrics;
+
+/**
+ * Storage operations that are measured by {@link de.adorsys.datasafe.storage.api.InstrumentedStorageService}.
+ */
+public enum StorageOperation {
+    OBJECT_EXISTS,
+    METADATA,
+    LIST,
+    LIST_SHALLOW,
+    LIST_PAGE,
+    LIST_SHALLOW_PAGE,
+    READ,
+    WRITE,
+    REMOVE,
+    REMOVE_ALL,
+    COPY,
+    MOVE
+}
@@ -0,0 +1,132 @@
+package de.adorsys.datasafe.storage.api.replicated;
+
+import de.adorsys.datasafe.storage.api.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read and write behavior of single replica of {@link ReplicatedStorageService}.
+ */
+public class ReplicaStats {
+
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int SMOOTHING_SHIFT = 3;
+
+    private final ReplicationConfig config;
+    private final LatencyHistogram firstByte = new LatencyHistogram();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slowReads = new LongAdder();
+    private final LongAdder overtaken = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    // Moving average of time to first byte, penalized by failures, that orders replicas
+    private final AtomicLong averageNanos = new AtomicLong();
+    private final AtomicLong hedgeDelayComputedAt = new AtomicLong(System.nanoTime());
+    private volatile long hedgeDelayNanos;
+
+    ReplicaStats(ReplicationConfig config) {
+        this.config = config;
+        this.hedgeDelayNanos = config.getMaxHedgeDelay().toNanos();
+    }
+
+    /**
+     * @return Amount of successful reads
+     */
+    public long reads() {
+        return reads.sum();
+    }
+
+    /**
+     * @return Amount of failed reads
+     */
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Amount of reads that were hedged because this replica did not respond in time
+     */
+    public long slowReads() {
+        return slowReads.sum();
+    }
+
+    /**
+     * @return Amount of reads where other replica responded first after hedging
+     */
+    public long overtaken() {
+        return overtaken.sum();
+    }
+
+    /**
+     * @return Amount of writes and removals that failed on this replica
+     */
+    public long writeFailures() {
+        return writeFailures.sum();
+    }
+
+    /**
+     * @param percentile Percentile in range 0..100
+     * @param unit Result time unit
+     * @return Time to first byte percentile of successful reads, including ones that lost hedge race
+     */
+    public long firstByteLatency(double percentile, TimeUnit unit) {
+        return unit.convert(firstByte.percentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    void recordRead(long nanos) {
+        reads.increment();
+        firstByte.record(nanos);
+        average(nanos);
+    }
+
+    void recordError(long penaltyNanos) {
+        errors.increment();
+        average(penaltyNanos);
+    }
+
+    void recordSlowRead() {
+        slowReads.increment();
+    }
+
+    void recordOvertaken() {
+        overtaken.increment();
+    }
+
+    void recordWriteFailure() {
+        writeFailures.increment();
+    }
+
+    long averageNanos() {
+        return averageNanos.get();
+    }
+
+    // Percentile is computed from whole histogram, so it is refreshed periodically instead of on each read
+    long hedgeDelayNanos() {
+        long now = System.nanoTime();
+        long computedAt = hedgeDelayComputedAt.get();
+        if (now - computedAt >= HEDGE_DELAY_REFRESH_NANOS && hedgeDelayComputedAt.compareAndSet(computedAt, now)) {
+            long max = config.getMaxHedgeDelay().toNanos();
+            long delay = reads() < config.getMinSamples() ? max : firstByte.percentile(config.getHedgePercentile());
+            hedgeDelayNanos = Math.max(config.getMinHedgeDelay().toNanos(), Math.min(max, delay));
+        }
+
+        return hedgeDelayNanos;
+    }
+
+    private void average(long nanos) {
+        averageNanos.updateAndGet(current -> current + ((nanos - current) >> SMOOTHING_SHIFT));
+    }
+
+    @Override
+    public String toString() {
+        return "reads=" + reads()
+                + ", errors=" + errors()
+                + ", slowReads=" + slowReads()
+                + ", overtaken=" + overtaken()
+                + ", writeFailures=" + writeFailures()
+                + ", p95=" + firstByteLatency(95, TimeUnit.MICROSECONDS) + "us";
+    }
+}
@@ -0,0 +1,493 @@
+package de.adorsys.datasafe.storage.api.replicated;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Storage that keeps the same locations on several replicas (i.e. S3 endpoints in different zones).
+ * Writes and removals go to all replicas and succeed once {@link ReplicationConfig#getWriteQuorum()} replicas
+ * have committed them, replica that failed write has its copy removed, so that it does not serve partial or stale
+ * content. Streams of failed or abandoned writes are aborted where storage supports it, see {@link AbortableStream}.
+ * Replica that failed removal, copy or move while quorum succeeded has the locations it diverged on removed.
+ * Reads go to replica with the lowest recent time to first byte, if it does not deliver first byte within
+ * the percentile of its latency, read is hedged - sent to the next replica as well, and the first stream that
+ * delivers is used. Failed reads fail over to the next replica. Other operations use the fastest replica and
+ * fail over on error. Replica behavior is available from {@link ReplicatedStorageService#stats()}.
+ * Replicas that are behind the quorum may serve previous content or listing until they complete the write.
+ */
+public class ReplicatedStorageService implements StorageService {
+
+    private final List<Replica> replicas;
+    private final ExecutorService executorService;
+    private final ReplicationConfig config;
+    private final int writeQuorum;
+    private final AtomicLong readCount = new AtomicLong();
+
+    /**
+     * @param replicas Storages that hold the same content
+     * @param executorService Pool that reads, commits and removes on replicas concurrently
+     * @param config Write quorum and hedging rules
+     */
+    public ReplicatedStorageService(List<? extends StorageService> replicas, ExecutorService executorService,
+                                    ReplicationConfig config) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+
+        if (config.getWriteQuorum() < 1) {
+            throw new IllegalArgumentException("Write quorum must be positive: " + config.getWriteQuorum());
+        }
+
+        this.replicas = replicas.stream().map(it -> new Replica(it, new ReplicaStats(config)))
+                .collect(Collectors.toList());
+        this.executorService = executorService;
+        this.config = config;
+        this.writeQuorum = Math.min(config.getWriteQuorum(), replicas.size());
+    }
+
+    /**
+     * @return Live behavior of replicas, in order they were given
+     */
+    public List<ReplicaStats> stats() {
+        return replicas.stream().map(Replica::getStats).collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return withFailover(it -> it.objectExists(location));
+    }
+
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        return withFailover(it -> it.metadata(location));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return withFailover(it -> it.list(location));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        return withFailover(it -> it.listShallow(location));
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return withFailover(it -> it.listPage(location, continuationToken, pageSize));
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        return withFailover(it -> it.listShallowPage(location, continuationToken, pageSize));
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        return new HedgedRead(location, byLatency()).await();
+    }
+
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        return new ReplicatedOutputStream(location);
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        onQuorum(it -> it.remove(location), it -> it.remove(location));
+    }
+
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        List<? extends AbsoluteLocation> toRemove = locations.collect(Collectors.toList());
+        onQuorum(it -> it.removeAll(toRemove.stream()), it -> it.removeAll(toRemove.stream()));
+    }
+
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        onQuorum(it -> it.copy(source, target), it -> it.remove(target));
+    }
+
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        onQuorum(it -> it.move(source, target), it -> it.removeAll(Stream.of(source, target)));
+    }
+
+    // Replica order for this call: the fastest first, but every n-th call probes the second one
+    private List<Replica> byLatency() {
+        List<Replica> ordered = new ArrayList<>(replicas);
+        ordered.sort(Comparator.comparingLong(it -> it.getStats().averageNanos()));
+        long count = readCount.incrementAndGet();
+        if (ordered.size() > 1 && config.getProbeEvery() > 0 && 0 == count % config.getProbeEvery()) {
+            Collections.swap(ordered, 0, 1);
+        }
+        return ordered;
+    }
+
+    private <T> T withFailover(Function<StorageService, T> operation) {
+        RuntimeException failure = null;
+        for (Replica replica : byLatency()) {
+            try {
+                return operation.apply(replica.getStorage());
+            } catch (RuntimeException ex) {
+                failure = suppress(failure, ex);
+            }
+        }
+
+        throw failure;
+    }
+
+    // Runs operation on all replicas concurrently, returns when quorum succeeded. Replicas that failed are
+    // cleaned up once quorum succeeded, as until then their content may be the only one left
+    private void onQuorum(Consumer<StorageService> operation, Consumer<StorageService> cleanup) {
+        Quorum quorum = new Quorum();
+        for (Replica replica : replicas) {
+            executorService.execute(() -> {
+                try {
+                    operation.accept(replica.getStorage());
+                    quorum.succeeded();
+                } catch (RuntimeException ex) {
+                    replica.getStats().recordWriteFailure();
+                    quorum.failed(ex);
+                    quorum.whenReached(() -> replica.cleanUp(cleanup));
+                }
+            });
+        }
+
+        quorum.await();
+    }
+
+    private static <T extends Throwable> T suppress(T first, T next) {
+        if (null == first) {
+            return next;
+        }
+
+        first.addSuppressed(next);
+        return first;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException | RuntimeException ex) {
+            // stream that is no longer needed
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && null != ex.getCause() ? ex.getCause() : ex;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Replica {
+
+        private final StorageService storage;
+        private final ReplicaStats stats;
+
+        void cleanUp(Consumer<StorageService> cleanup) {
+            try {
+                cleanup.accept(storage);
+            } catch (RuntimeException ex) {
+                // replica is failing already
+            }
+        }
+
+        // Time to first byte is what hedging protects, so stream is opened and its first byte is fetched
+        @SneakyThrows
+        InputStream open(AbsoluteLocation location) {
+            InputStream stream = storage.read(location);
+            try {
+                PushbackInputStream withFirstByte = new PushbackInputStream(stream, 1);
+                int first = withFirstByte.read();
+                if (-1 != first) {
+                    withFirstByte.unread(first);
+                }
+                return withFirstByte;
+            } catch (IOException | RuntimeException ex) {
+                closeQuietly(stream);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Single read: starts with the fastest replica, hedges to the next one after delay and fails over
+     * once all started attempts have failed. Streams of attempts that lost are closed.
+     */
+    private class HedgedRead {
+
+        private final AbsoluteLocation location;
+        private final List<Replica> order;
+        private final CompletableFuture<InputStream> result = new CompletableFuture<>();
+
+        private int started;
+        private int failed;
+        private Throwable failure;
+
+        HedgedRead(AbsoluteLocation location, List<Replica> order) {
+            this.location = location;
+            this.order = order;
+        }
+
+        @SneakyThrows
+        InputStream await() {
+            startNext();
+            Replica primary = order.get(0);
+            try {
+                try {
+                    return result.get(primary.getStats().hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ex) {
+                    hedge(primary);
+                    return result.get();
+                }
+            } catch (ExecutionException ex) {
+                throw ex.getCause();
+            } catch (InterruptedException ex) {
+                // late stream is closed by the attempt that fails to complete result
+                result.cancel(false);
+                throw ex;
+            }
+        }
+
+        private synchronized void hedge(Replica primary) {
+            if (started < order.size() && !result.isDone()) {
+                primary.getStats().recordSlowRead();
+                startNext();
+            }
+        }
+
+        private synchronized void startNext() {
+            Replica replica = order.get(started++);
+            long start = System.nanoTime();
+            CompletableFuture.supplyAsync(() -> replica.open(location), executorService)
+                    .whenComplete((stream, ex) -> completed(replica, start, stream, ex));
+        }
+
+        private void completed(Replica replica, long start, InputStream stream, Throwable ex) {
+            if (null == ex) {
+                replica.getStats().recordRead(System.nanoTime() - start);
+                if (!result.complete(stream)) {
+                    replica.getStats().recordOvertaken();
+                    closeQuietly(stream);
+                }
+                return;
+            }
+
+            replica.getStats().recordError(config.getMaxHedgeDelay().toNanos());
+            synchronized (this) {
+                failure = suppress(failure, unwrap(ex));
+                failed++;
+                if (failed == order.size()) {
+                    result.completeExceptionally(failure);
+                } else if (failed == started && !result.isDone()) {
+                    startNext();
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts replica results of write or removal, {@link Quorum#await()} returns once enough replicas succeeded
+     * or throws once quorum can not be reached.
+     */
+    private class Quorum {
+
+        private final CompletableFuture<Void> reached = new CompletableFuture<>();
+        private int succeeded;
+        private int failed;
+        private Throwable failure;
+
+        synchronized void succeeded() {
+            succeeded++;
+            if (succeeded >= writeQuorum) {
+                reached.complete(null);
+            }
+        }
+
+        synchronized void failed(Throwable ex) {
+            failure = suppress(failure, ex);
+            failed++;
+            if (replicas.size() - failed < writeQuorum) {
+                reached.completeExceptionally(failure);
+            }
+        }
+
+        void whenReached(Runnable action) {
+            reached.thenRun(action);
+        }
+
+        boolean isLost() {
+            return reached.isCompletedExceptionally();
+        }
+
+        @SneakyThrows
+        void await() {
+            try {
+                reached.get();
+            } catch (ExecutionException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+    /**
+     * Writes content to streams of all replicas and commits them concurrently on close. Replica that fails
+     * while content is written is dropped and write fails as soon as quorum can not be reached, streams of
+     * remaining replicas are aborted then, so that partial content is not committed.
+     */
+    private class ReplicatedOutputStream extends OutputStream implements AbortableStream {
+
+        private final AbsoluteLocation location;
+        private final List<Replica> writing = new ArrayList<>();
+        private final List<OutputStream> streams = new ArrayList<>();
+        private final Quorum quorum = new Quorum();
+        private boolean closed;
+
+        ReplicatedOutputStream(AbsoluteLocation location) {
+            this.location = location;
+            for (Replica replica : replicas) {
+                open(replica);
+            }
+            abortIfQuorumLost();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            forEachStream(it -> it.write(b));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            forEachStream(it -> it.write(b, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            forEachStream(OutputStream::flush);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            for (int i = 0; i < writing.size(); i++) {
+                Replica replica = writing.get(i);
+                OutputStream stream = streams.get(i);
+                executorService.execute(() -> commit(replica, stream));
+            }
+
+            quorum.await();
+        }
+
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            for (int i = 0; i < writing.size(); i++) {
+                if (!AbortableStream.abortOrClose(streams.get(i))) {
+                    removeOnQuorum(writing.get(i));
+                }
+            }
+        }
+
+        private void open(Replica replica) {
+            try {
+                streams.add(replica.getStorage().write(location));
+                writing.add(replica);
+            } catch (RuntimeException ex) {
+                drop(replica, ex);
+            }
+        }
+
+        private void commit(Replica replica, OutputStream stream) {
+            try {
+                stream.close();
+                quorum.succeeded();
+            } catch (IOException | RuntimeException ex) {
+                drop(replica, ex);
+            }
+        }
+
+        private void forEachStream(StreamWrite write) throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            for (int i = 0; i < writing.size(); i++) {
+                try {
+                    write.apply(streams.get(i));
+                } catch (IOException | RuntimeException ex) {
+                    Replica replica = writing.remove(i);
+                    OutputStream stream = streams.remove(i--);
+                    AbortableStream.abortOrClose(stream);
+                    drop(replica, ex);
+                }
+            }
+
+            abortIfQuorumLost();
+        }
+
+        // Remaining replicas do not commit partial content once write can't succeed
+        private void abortIfQuorumLost() {
+            if (quorum.isLost()) {
+                abort();
+                quorum.await();
+            }
+        }
+
+        private void drop(Replica replica, Throwable ex) {
+            replica.getStats().recordWriteFailure();
+            quorum.failed(ex);
+            removeOnQuorum(replica);
+        }
+
+        // Partial or stale copy is removed, so that reads fail over to replicas that have the content. Until
+        // quorum succeeded previous content of replica may be the only one left, so it is kept if write failed
+        private void removeOnQuorum(Replica replica) {
+            quorum.whenReached(() -> replica.cleanUp(it -> it.remove(location)));
+        }
+    }
+
+    @FunctionalInterface
+    private interface StreamWrite {
+
+        void apply(OutputStream stream) throws IOException;
+    }
+}
@@ -0,0 +1,57 @@
+package de.adorsys.datasafe.storage.api.replicated;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Write quorum and read hedging rules of {@link ReplicatedStorageService}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ReplicationConfig {
+
+    public static final int ALL_REPLICAS = Integer.MAX_VALUE;
+
+    public static final ReplicationConfig DEFAULT = ReplicationConfig.builder().build();
+
+    /**
+     * Amount of replicas that must commit write (or removal) before it is reported as successful, capped by amount
+     * of replicas. Remaining replicas complete it in background.
+     */
+    @Builder.Default
+    private final int writeQuorum = ALL_REPLICAS;
+
+    /**
+     * Percentile of time to first byte of the chosen replica after which read is also sent to the next replica.
+     */
+    @Builder.Default
+    private final double hedgePercentile = 95;
+
+    /**
+     * Lower bound of hedge delay, so that jitter of fast replica does not double the load.
+     */
+    @Builder.Default
+    private final Duration minHedgeDelay = Duration.ofMillis(5);
+
+    /**
+     * Upper bound of hedge delay, it is also used until replica has {@code minSamples} measurements and as
+     * latency of failed read when choosing the fastest replica.
+     */
+    @Builder.Default
+    private final Duration maxHedgeDelay = Duration.ofSeconds(1);
+
+    /**
+     * Amount of reads from replica before its percentile is used as hedge delay.
+     */
+    @Builder.Default
+    private final int minSamples = 20;
+
+    /**
+     * Every n-th read goes to the second fastest replica first, so that replica that was slow gets a chance
+     * to show it has recovered, 0 disables probing.
+     */
+    @Builder.Default
+    private final int probeEvery = 100;
+}
@@ -0,0 +1,836 @@
+package de.adorsys.datasafe.storage.api.tiered;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.actions.PagedListing;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Storage with fast hot tier (i.e. local filesystem) and cold tier (i.e. S3). Objects are written to hot tier and
+ * migrated to cold tier asynchronously, objects read from cold tier are promoted back to hot tier - content is
+ * copied to hot tier as caller reads it, and becomes hot tier copy once it is read completely. Migrated
+ * objects that were not accessed recently are removed from hot tier, see {@link TieringPolicy}.
+ * Callers use cold tier locations under {@code coldRoot}, their hot tier copies have the same relative path under
+ * {@code hotRoot}. Locations outside of {@code coldRoot} are passed to cold tier as is.
+ * Content of hot tier is tracked in memory, after restart it should be rebuilt using
+ * {@link TieredStorageService#recover()}.
+ */
+@Slf4j
+public class TieredStorageService implements StorageService {
+
+    private static final int LOCK_STRIPES = 1024;
+    private static final int COPY_BUFFER = 64 * 1024;
+    private static final String PROMOTING_SUFFIX = ".promoting";
+
+    private final StorageService hot;
+    private final Uri hotRoot;
+    private final StorageService cold;
+    private final Uri coldRoot;
+    private final ExecutorService executorService;
+    private final TieringPolicy policy;
+
+    // Objects in hot tier by cold tier location
+    private final NavigableMap<String, HotObject> hotObjects = new ConcurrentSkipListMap<>();
+    // Objects being copied to hot tier by cold tier location, writes and removals of location cancel them
+    private final NavigableMap<String, Promotion> promotions = new ConcurrentSkipListMap<>();
+    // Objects being copied to cold tier by cold tier location, removal of location does not cancel them, so that
+    // the next migration of location starts only once the current one finished and can't be overtaken by it
+    private final Map<String, HotObject> migrations = new ConcurrentHashMap<>();
+    // Serialize changes of hot tier content of the same location
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param hot Fast storage that holds recently written and read objects
+     * @param hotRoot Where hot tier copies are stored
+     * @param cold Storage that holds all objects
+     * @param coldRoot Root of tiered locations
+     * @param executorService Pool that migrates, promotes and demotes objects
+     * @param policy Rules of moving objects between tiers
+     */
+    public TieredStorageService(StorageService hot, Uri hotRoot, StorageService cold, Uri coldRoot,
+                                ExecutorService executorService, TieringPolicy policy) {
+        this.hot = hot;
+        this.hotRoot = hotRoot.asDir();
+        this.cold = cold;
+        this.coldRoot = coldRoot.asDir();
+        this.executorService = executorService;
+        this.policy = policy;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            return cold.objectExists(location);
+        }
+
+        return hotObjects.containsKey(key(location)) || cold.objectExists(location);
+    }
+
+    /**
+     * Reads metadata of hot tier copy if object is not migrated yet, otherwise of cold tier object.
+     */
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            return cold.metadata(location);
+        }
+
+        HotObject object = hotObjects.get(key(location));
+        if (null == object || object.migrated) {
+            return cold.metadata(location);
+        }
+
+        Optional<AbsoluteLocation<ResolvedResource>> hotCopy = hot.metadata(hotLocation(location));
+        // migrated or removed meanwhile
+        if (!hotCopy.isPresent()) {
+            return cold.metadata(location);
+        }
+
+        return hotCopy.map(it -> new AbsoluteLocation<>(
+                it.getResource().withResource(BasePrivateResource.forPrivate(location.location()))
+        ));
+    }
+
+    /**
+     * Lists cold tier objects together with objects that are not migrated yet.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            return cold.list(location);
+        }
+
+        Map<String, HotObject> notMigrated = notMigrated(key(location));
+        return Stream.concat(
+                cold.list(location).filter(it -> !notMigrated.containsKey(key(it))),
+                notMigrated.entrySet().stream().map(it -> resolved(it.getKey(), it.getValue().modifiedAt))
+        );
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            return cold.listShallow(location);
+        }
+
+        String prefix = location.location().asDir().asURI().toString();
+        Map<String, HotObject> notMigrated = notMigrated(prefix);
+        if (notMigrated.isEmpty()) {
+            return cold.listShallow(location);
+        }
+
+        Map<String, AbsoluteLocation<ResolvedResource>> result = new LinkedHashMap<>();
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = cold.listShallow(location)) {
+            listed.forEach(it -> result.put(key(it), it));
+        }
+
+        notMigrated.forEach((key, object) -> {
+            int nestedDir = key.indexOf('/', prefix.length());
+            if (-1 == nestedDir) {
+                result.put(key, resolved(key, object.modifiedAt));
+            } else {
+                result.computeIfAbsent(key.substring(0, nestedDir + 1), dir -> resolved(dir, null));
+            }
+        });
+
+        return result.values().stream();
+    }
+
+    /**
+     * Cold tier lists page natively unless there are objects that are not migrated yet in listed location.
+     */
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        if (!isTiered(location) || notMigrated(key(location)).isEmpty()) {
+            return cold.listPage(location, continuationToken, pageSize);
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = list(location)) {
+            return PagedListing.select(listing, location, continuationToken, pageSize);
+        }
+    }
+
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        if (!isTiered(location) || notMigrated(location.location().asDir().asURI().toString()).isEmpty()) {
+            return cold.listShallowPage(location, continuationToken, pageSize);
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = listShallow(location)) {
+            return PagedListing.select(listing, location, continuationToken, pageSize);
+        }
+    }
+
+    /**
+     * Reads hot tier copy if there is one, otherwise reads cold tier and promotes object to hot tier.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            return cold.read(location);
+        }
+
+        sweepIfDue();
+        String key = key(location);
+        HotObject object = hotObjects.get(key);
+        if (null != object) {
+            object.accessed();
+            try {
+                return hot.read(hotLocation(location));
+            } catch (RuntimeException ex) {
+                // demoted meanwhile, object that is not migrated can be read only from hot tier
+                if (!object.migrated) {
+                    throw ex;
+                }
+            }
+        }
+
+        InputStream content = cold.read(location);
+        if (!policy.isPromoteOnRead()) {
+            return content;
+        }
+
+        Promotion promotion = startPromotion(key, location);
+        return null == promotion ? content : new PromotingInputStream(content, promotion);
+    }
+
+    /**
+     * Writes object to hot tier, it is scheduled for migration to cold tier once stream is closed.
+     */
+    @Override
+    public OutputStream write(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            return cold.write(location);
+        }
+
+        sweepIfDue();
+        return new HotTierOutputStream(hot.write(hotLocation(location)), location);
+    }
+
+    /**
+     * Copies hot tier copy of source if there is one, otherwise cold tier object. Tiered target is written to
+     * hot tier and migrated, as if it was written by caller.
+     */
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        if (!isTiered(target)) {
+            copyToCold(source, target);
+            return;
+        }
+
+        sweepIfDue();
+        String key = key(target);
+        synchronized (lock(key)) {
+            if (!copyHotCopy(source, hotLocation(target))) {
+                transferOrThrow(cold, source, hot, hotLocation(target));
+            }
+
+            written(key, target);
+        }
+    }
+
+    /**
+     * Cold tier moves objects natively if neither location is tiered, otherwise object is copied and removed.
+     */
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        if (!isTiered(source) && !isTiered(target)) {
+            cold.move(source, target);
+            return;
+        }
+
+        if (source.location().asURI().equals(target.location().asURI())) {
+            return;
+        }
+
+        copy(source, target);
+        remove(source);
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        if (!isTiered(location)) {
+            cold.remove(location);
+            return;
+        }
+
+        String key = key(location);
+        synchronized (lock(key)) {
+            forget(key, location.location().isDir());
+            hot.remove(hotLocation(location));
+            cold.remove(location);
+        }
+    }
+
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        List<AbsoluteLocation> toRemove = locations.collect(Collectors.toList());
+        List<AbsoluteLocation> hotCopies = new ArrayList<>();
+        for (AbsoluteLocation location : toRemove) {
+            if (isTiered(location)) {
+                String key = key(location);
+                synchronized (lock(key)) {
+                    forget(key, location.location().isDir());
+                }
+                hotCopies.add(hotLocation(location));
+            }
+        }
+
+        hot.removeAll(hotCopies.stream());
+        cold.removeAll(toRemove.stream());
+    }
+
+    /**
+     * Registers objects found in hot tier, ones that are missing in cold tier or are newer than their cold tier
+     * copy are migrated again. Should be called on start, before storage is used.
+     */
+    public void recover() {
+        Map<String, Instant> coldObjects;
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed =
+                     cold.list(BasePrivateResource.forAbsolutePrivate(coldRoot))) {
+            coldObjects = listed.collect(
+                    Collectors.toMap(this::key, TieredStorageService::modifiedAt, (first, second) -> first)
+            );
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed =
+                     hot.list(BasePrivateResource.forAbsolutePrivate(hotRoot))) {
+            listed.forEach(it -> {
+                if (it.location().asURI().toString().endsWith(PROMOTING_SUFFIX)) {
+                    // promotion interrupted by restart
+                    removeQuietly(it);
+                    return;
+                }
+
+                Uri coldUri = coldRoot.resolve(hotRoot.relativize(it.location()));
+                String key = coldUri.asURI().toString();
+                HotObject object = new HotObject(modifiedAt(it));
+                Instant coldModifiedAt = coldObjects.get(key);
+                synchronized (lock(key)) {
+                    if (null != hotObjects.putIfAbsent(key, object)) {
+                        return;
+                    }
+
+                    object.migrated = null != coldModifiedAt && !coldModifiedAt.isBefore(object.modifiedAt);
+                    if (!object.migrated) {
+                        startMigration(key, BasePrivateResource.forAbsolutePrivate(coldUri), object);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Amount of objects in hot tier
+     */
+    public int hotObjects() {
+        return hotObjects.size();
+    }
+
+    // Called under lock once hot tier copy is written
+    private void written(String key, AbsoluteLocation location) {
+        promotions.remove(key);
+        HotObject object = new HotObject(Instant.now());
+        hotObjects.put(key, object);
+        startMigration(key, location, object);
+    }
+
+    // Called under lock, migration in progress will start the next one, so that they do not overtake each other
+    private void startMigration(String key, AbsoluteLocation location, HotObject object) {
+        if (null != migrations.putIfAbsent(key, object)) {
+            return;
+        }
+
+        executorService.execute(() -> migrate(key, location, object));
+    }
+
+    private void migrate(String key, AbsoluteLocation location, HotObject object) {
+        boolean copied = transfer(hot, hotLocation(location), cold, location);
+        synchronized (lock(key)) {
+            migrations.remove(key, object);
+            HotObject current = hotObjects.get(key);
+            if (current == object) {
+                // failed migration is retried by sweep
+                object.migrated = copied;
+            } else if (null == current) {
+                // removed while being migrated
+                cold.remove(location);
+            } else if (!current.migrated) {
+                // written again, possibly after removal, while being migrated
+                startMigration(key, location, current);
+            }
+        }
+    }
+
+    // Only registration is done under lock, content is copied while caller reads it
+    private Promotion startPromotion(String key, AbsoluteLocation location) {
+        Promotion promotion;
+        synchronized (lock(key)) {
+            if (hotObjects.containsKey(key) || promotions.containsKey(key)) {
+                return null;
+            }
+
+            promotion = new Promotion(key, hotLocation(location));
+            promotions.put(key, promotion);
+        }
+
+        try {
+            promotion.out = hot.write(promotion.temp);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to start promotion of {}", Obfuscate.secure(location), ex);
+            promotions.remove(key, promotion);
+            return null;
+        }
+
+        return promotion;
+    }
+
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        long last = lastSweepNanos.get();
+        if (now - last < policy.getSweepInterval().toNanos() || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        executorService.execute(this::sweep);
+    }
+
+    /**
+     * Demotes migrated objects that are idle or least recently accessed if hot tier has too many objects,
+     * retries failed migrations.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        long demoteAfterNanos = policy.getDemoteAfter().toNanos();
+        List<Map.Entry<String, HotObject>> migrated = new ArrayList<>();
+        hotObjects.forEach((key, object) -> {
+            if (object.migrated) {
+                migrated.add(new AbstractMap.SimpleImmutableEntry<>(key, object));
+            } else if (!migrations.containsKey(key)) {
+                retryMigration(key, object);
+            }
+        });
+
+        migrated.sort(Comparator.comparingLong(it -> it.getValue().accessedAtNanos));
+        int excess = hotObjects.size() - policy.getMaxHotObjects();
+        for (Map.Entry<String, HotObject> candidate : migrated) {
+            boolean idle = now - candidate.getValue().accessedAtNanos > demoteAfterNanos;
+            if (!idle && excess <= 0) {
+                break;
+            }
+
+            if (demote(candidate.getKey(), candidate.getValue())) {
+                excess--;
+            }
+        }
+    }
+
+    private void retryMigration(String key, HotObject object) {
+        synchronized (lock(key)) {
+            if (hotObjects.get(key) == object && !object.migrated) {
+                startMigration(key, BasePrivateResource.forAbsolutePrivate(URI.create(key)), object);
+            }
+        }
+    }
+
+    private boolean demote(String key, HotObject object) {
+        synchronized (lock(key)) {
+            if (hotObjects.get(key) != object) {
+                return false;
+            }
+
+            hotObjects.remove(key);
+            hot.remove(hotLocation(BasePrivateResource.forAbsolutePrivate(URI.create(key))));
+            return true;
+        }
+    }
+
+    // Called under lock, directory removal forgets objects inside it
+    private void forget(String key, boolean isDir) {
+        hotObjects.remove(key);
+        promotions.remove(key);
+        if (isDir) {
+            hotObjects.subMap(key, key + Character.MAX_VALUE).clear();
+            promotions.subMap(key, key + Character.MAX_VALUE).clear();
+        }
+    }
+
+    private Map<String, HotObject> notMigrated(String prefix) {
+        return hotObjects.subMap(prefix, prefix + Character.MAX_VALUE).entrySet().stream()
+                .filter(it -> !it.getValue().migrated)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    // Source may be tiered, its content is in hot tier until it is migrated
+    private void copyToCold(AbsoluteLocation source, AbsoluteLocation target) {
+        if (!isTiered(source)) {
+            cold.copy(source, target);
+            return;
+        }
+
+        HotObject object = hotObjects.get(key(source));
+        if (null == object || object.migrated) {
+            cold.copy(source, target);
+            return;
+        }
+
+        transferOrThrow(hot, hotLocation(source), cold, target);
+    }
+
+    // Hot tier copy can be demoted meanwhile, then object is in cold tier
+    private boolean copyHotCopy(AbsoluteLocation source, AbsoluteLocation hotTarget) {
+        HotObject object = isTiered(source) ? hotObjects.get(key(source)) : null;
+        if (null == object) {
+            return false;
+        }
+
+        try {
+            hot.copy(hotLocation(source), hotTarget);
+            return true;
+        } catch (RuntimeException ex) {
+            if (!object.migrated) {
+                throw ex;
+            }
+
+            return false;
+        }
+    }
+
+    private static boolean transfer(StorageService from, AbsoluteLocation source,
+                                    StorageService to, AbsoluteLocation target) {
+        try {
+            transferOrThrow(from, source, to, target);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to copy {} to {}", Obfuscate.secure(source), Obfuscate.secure(target), ex);
+            return false;
+        }
+    }
+
+    // Target keeps its previous content if copy fails and its storage supports abort
+    @SneakyThrows
+    private static void transferOrThrow(StorageService from, AbsoluteLocation source,
+                                        StorageService to, AbsoluteLocation target) {
+        try (InputStream is = from.read(source)) {
+            OutputStream os = to.write(target);
+            try {
+                byte[] buffer = new byte[COPY_BUFFER];
+                int read;
+                while (-1 != (read = is.read(buffer))) {
+                    os.write(buffer, 0, read);
+                }
+            } catch (IOException | RuntimeException ex) {
+                AbortableStream.abortOrClose(os);
+                throw ex;
+            }
+
+            os.close();
+        }
+    }
+
+    private void removeQuietly(AbsoluteLocation location) {
+        try {
+            hot.remove(location);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to remove {}", Obfuscate.secure(location), ex);
+        }
+    }
+
+    private boolean isTiered(AbsoluteLocation location) {
+        return key(location).startsWith(coldRoot.asURI().toString());
+    }
+
+    private AbsoluteLocation hotLocation(AbsoluteLocation location) {
+        return BasePrivateResource.forAbsolutePrivate(hotRoot.resolve(coldRoot.relativize(location.location())));
+    }
+
+    private Object lock(String key) {
+        return locks[(key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private String key(AbsoluteLocation location) {
+        return location.location().asURI().toString();
+    }
+
+    private static Instant modifiedAt(AbsoluteLocation<ResolvedResource> location) {
+        Instant modifiedAt = location.getResource().getModifiedAt();
+        return null == modifiedAt ? Instant.EPOCH : modifiedAt;
+    }
+
+    private static AbsoluteLocation<ResolvedResource> resolved(String key, Instant modifiedAt) {
+        return new AbsoluteLocation<>(
+                new BaseResolvedResource(BasePrivateResource.forPrivate(URI.create(key)), modifiedAt)
+        );
+    }
+
+    /**
+     * Hot tier copy of object, state flag is changed under lock of its location.
+     */
+    private static class HotObject {
+
+        private final Instant modifiedAt;
+        private volatile long accessedAtNanos = System.nanoTime();
+        private volatile boolean migrated;
+
+        HotObject(Instant modifiedAt) {
+            this.modifiedAt = modifiedAt;
+        }
+
+        void accessed() {
+            accessedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Writes hot tier copy, object is registered and scheduled for migration once stream is closed, aborted stream
+     * leaves location as it was.
+     */
+    private class HotTierOutputStream extends FilterOutputStream implements AbortableStream {
+
+        private final AbsoluteLocation location;
+        private final String key;
+        private boolean closed;
+
+        HotTierOutputStream(OutputStream out, AbsoluteLocation location) {
+            super(out);
+            this.location = location;
+            this.key = key(location);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            synchronized (lock(key)) {
+                super.close();
+                written(key, location);
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            if (AbortableStream.abortOrClose(out)) {
+                return;
+            }
+
+            // hot tier committed partial content over previous hot tier copy, so cold tier copy is all that is left
+            synchronized (lock(key)) {
+                forget(key, false);
+                removeQuietly(hotLocation(location));
+            }
+        }
+    }
+
+    /**
+     * Copy of cold tier object into temporary hot tier location, it replaces hot tier copy once complete unless
+     * location was written or removed meanwhile. Used by single reader.
+     */
+    private class Promotion {
+
+        private final String key;
+        private final AbsoluteLocation target;
+        private final AbsoluteLocation temp;
+        private OutputStream out;
+        private boolean failed;
+
+        Promotion(String key, AbsoluteLocation target) {
+            this.key = key;
+            this.target = target;
+            this.temp = BasePrivateResource.forAbsolutePrivate(
+                    URI.create(target.location().asURI().toString() + "." + UUID.randomUUID() + PROMOTING_SUFFIX)
+            );
+        }
+
+        void copy(byte[] b, int off, int len) {
+            if (failed) {
+                return;
+            }
+
+            try {
+                out.write(b, off, len);
+            } catch (IOException | RuntimeException ex) {
+                fail(ex);
+            }
+        }
+
+        // Called once cold tier content is read completely
+        void complete() {
+            if (failed) {
+                return;
+            }
+
+            try {
+                out.close();
+                synchronized (lock(key)) {
+                    if (promotions.remove(key, this) && !hotObjects.containsKey(key)) {
+                        hot.move(temp, target);
+                        HotObject object = new HotObject(Instant.now());
+                        object.migrated = true;
+                        hotObjects.put(key, object);
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                fail(ex);
+                return;
+            }
+
+            removeQuietly(temp);
+        }
+
+        void fail(Exception ex) {
+            if (failed) {
+                return;
+            }
+
+            log.warn("Failed to promote {}", Obfuscate.secure(target), ex);
+            failed = true;
+            promotions.remove(key, this);
+            AbortableStream.abortOrClose(out);
+            removeQuietly(temp);
+        }
+    }
+
+    /**
+     * Copies cold tier content that caller reads to hot tier. If caller closes stream before reading it
+     * completely, the rest is copied in background.
+     */
+    private class PromotingInputStream extends FilterInputStream {
+
+        private final Promotion promotion;
+        private boolean completed;
+        private boolean closed;
+
+        PromotingInputStream(InputStream in, Promotion promotion) {
+            super(in);
+            this.promotion = promotion;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return -1 == read ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read;
+            try {
+                read = in.read(b, off, len);
+            } catch (IOException | RuntimeException ex) {
+                promotion.fail(ex);
+                throw ex;
+            }
+
+            if (-1 == read) {
+                complete();
+            } else {
+                promotion.copy(b, off, read);
+            }
+
+            return read;
+        }
+
+        // skipped content is read, so that it is copied too
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(COPY_BUFFER, Math.max(n, 1))];
+            long skipped = 0;
+            int read = 0;
+            while (skipped < n && -1 != (read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped)))) {
+                skipped += read;
+            }
+
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            if (completed || promotion.failed) {
+                in.close();
+                return;
+            }
+
+            executorService.execute(this::copyRest);
+        }
+
+        private void copyRest() {
+            try (InputStream toClose = in) {
+                byte[] buffer = new byte[COPY_BUFFER];
+                while (!completed && !promotion.failed) {
+                    read(buffer, 0, buffer.length);
+                }
+            } catch (IOException | RuntimeException ex) {
+                // failed promotion is already logged and cleaned up
+            }
+        }
+
+        private void complete() {
+            if (!completed) {
+                completed = true;
+                promotion.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.adorsys.datasafe.storage.api.tiered;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * When objects are moved between tiers of {@link TieredStorageService}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class TieringPolicy {
+
+    public static final TieringPolicy DEFAULT = TieringPolicy.builder().build();
+
+    /**
+     * Objects that were not accessed for this time are removed from hot tier once they are migrated to cold one.
+     */
+    @Builder.Default
+    private final Duration demoteAfter = Duration.ofHours(24);
+
+    /**
+     * Hot tier keeps at most this amount of migrated objects, least recently accessed ones are removed first.
+     * Objects not migrated yet are never removed.
+     */
+    @Builder.Default
+    private final int maxHotObjects = 100_000;
+
+    /**
+     * Copy objects that are read from cold tier back to hot tier.
+     */
+    @Builder.Default
+    private final boolean promoteOnRead = true;
+
+    /**
+     * How often hot tier is checked for objects to demote or to migrate again after failure, check is triggered
+     * by storage operations.
+     */
+    @Builder.Default
+    private final Duration sweepInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,81 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BlockingStorageServiceTest extends BaseMockitoTest {
+
+    private AbsoluteLocation location = new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://bucket/file"));
+
+    private AsyncStorageService async = mock(AsyncStorageService.class);
+
+    private BlockingStorageService tested = new BlockingStorageService(async);
+
+    @Test
+    void objectExistsWaitsForResult() {
+        when(async.objectExists(location)).thenReturn(CompletableFuture.completedFuture(true));
+
+        assertTrue(tested.objectExists(location));
+    }
+
+    @Test
+    void failureIsUnwrapped() {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new UncheckedIOException(new IOException("Failed")));
+        when(async.remove(location)).thenReturn(failed);
+
+        assertThrows(UncheckedIOException.class, () -> tested.remove(location));
+    }
+
+    @Test
+    @SneakyThrows
+    void writeSendsContentOnceOnClose() {
+        when(async.write(eq(location), any())).thenReturn(CompletableFuture.completedFuture(null));
+        ArgumentCaptor<ByteBuffer> content = ArgumentCaptor.forClass(ByteBuffer.class);
+
+        OutputStream os = tested.write(location);
+        os.write(new byte[] {1, 2, 3});
+        verify(async, never()).write(any(), any());
+        os.close();
+        os.close();
+
+        verify(async).write(eq(location), content.capture());
+        byte[] written = new byte[content.getValue().remaining()];
+        content.getValue().get(written);
+        assertArrayEquals(new byte[] {1, 2, 3}, written);
+    }
+
+    @Test
+    @SneakyThrows
+    void contentLargerThanBufferIsStreamed() {
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        when(async.openWrite(location)).thenReturn(CompletableFuture.completedFuture(stored));
+        BlockingStorageService chunked = new BlockingStorageService(async, 2);
+
+        try (OutputStream os = chunked.write(location)) {
+            os.write(new byte[] {1, 2});
+            verify(async, never()).openWrite(any());
+            os.write(new byte[] {3});
+        }
+
+        verify(async, never()).write(any(), any());
+        assertArrayEquals(new byte[] {1, 2, 3}, stored.toByteArray());
+    }
+}
@@ -0,0 +1,194 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageConfig;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageService;
+import de.adorsys.datasafe.storage.api.inmemory.LatencyDistribution;
+import de.adorsys.datasafe.storage.api.metrics.StorageMetrics;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingStorageServiceTest {
+
+    private static final AbsoluteLocation FILE = new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://b/f"));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final StorageMetrics metrics = new StorageMetrics();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentReadsShareSingleFetch() {
+        InMemoryStorageService storage = new InMemoryStorageService(InMemoryStorageConfig.builder()
+                .latency(StorageOperation.READ, LatencyDistribution.fixed(Duration.ofMillis(50)))
+                .build()
+        );
+        CoalescingStorageService tested = coalescing(storage, 1024, 8 * 1024, Duration.ofSeconds(5));
+        byte[] content = randomBytes(100_000);
+        write(storage, content);
+
+        List<InputStream> streams = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            streams.add(tested.read(FILE));
+        }
+
+        List<Future<byte[]>> results = new ArrayList<>();
+        streams.forEach(it -> results.add(executor.submit(() -> readAll(it))));
+        for (Future<byte[]> result : results) {
+            assertArrayEquals(content, result.get());
+        }
+
+        assertEquals(1, backendReads());
+    }
+
+    @Test
+    void laggingReaderIsDetached() {
+        InMemoryStorageService storage = new InMemoryStorageService();
+        CoalescingStorageService tested = coalescing(storage, 16, 64, Duration.ofMillis(10));
+        byte[] content = randomBytes(1000);
+        write(storage, content);
+
+        InputStream fast = tested.read(FILE);
+        InputStream slow = tested.read(FILE);
+        byte[] start = new byte[10];
+        readFully(slow, start);
+
+        assertArrayEquals(content, readAll(fast));
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        rest.write(start, 0, start.length);
+        byte[] remaining = readAll(slow);
+        rest.write(remaining, 0, remaining.length);
+        assertArrayEquals(content, rest.toByteArray());
+        assertEquals(2, backendReads());
+    }
+
+    @Test
+    void detachedReaderFailsWhenContentChanged() {
+        InMemoryStorageService storage = new InMemoryStorageService();
+        CoalescingStorageService tested = coalescing(storage, 16, 64, Duration.ofMillis(10));
+        write(storage, randomBytes(1000));
+
+        InputStream fast = tested.read(FILE);
+        InputStream slow = tested.read(FILE);
+        readFully(slow, new byte[10]);
+        readAll(fast);
+        write(storage, randomBytes(999));
+
+        assertThrows(IOException.class, () -> readAll(slow));
+    }
+
+    @Test
+    @SneakyThrows
+    void slowOpenDoesNotBlockWrite() {
+        InMemoryStorageService storage = new InMemoryStorageService(InMemoryStorageConfig.builder()
+                .latency(StorageOperation.READ, LatencyDistribution.fixed(Duration.ofSeconds(1)))
+                .build()
+        );
+        CoalescingStorageService tested = coalescing(storage, 16, 64, Duration.ofMillis(10));
+        write(storage, new byte[] {1});
+
+        Future<byte[]> opening = executor.submit(() -> readAll(tested.read(FILE)));
+        Thread.sleep(100);
+        long start = System.nanoTime();
+        write(tested, new byte[] {2});
+
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(500).toNanos());
+        assertEquals(1, opening.get().length);
+    }
+
+    @Test
+    void readAfterWriteDoesNotJoinPreviousFetch() {
+        InMemoryStorageService storage = new InMemoryStorageService();
+        CoalescingStorageService tested = coalescing(storage, 16, 64, Duration.ofMillis(10));
+        write(tested, new byte[] {1});
+
+        InputStream before = tested.read(FILE);
+        write(tested, new byte[] {2});
+        InputStream after = tested.read(FILE);
+
+        assertArrayEquals(new byte[] {1}, readAll(before));
+        assertArrayEquals(new byte[] {2}, readAll(after));
+    }
+
+    @Test
+    void failedReadIsNotCoalesced() {
+        InMemoryStorageService storage = new InMemoryStorageService();
+        CoalescingStorageService tested = coalescing(storage, 16, 64, Duration.ofMillis(10));
+
+        assertThrows(UncheckedIOException.class, () -> tested.read(FILE));
+        write(storage, new byte[] {1});
+
+        assertArrayEquals(new byte[] {1}, readAll(tested.read(FILE)));
+        assertEquals(2, backendReads());
+    }
+
+    private CoalescingStorageService coalescing(InMemoryStorageService storage, int chunk, long buffer,
+                                                Duration lagTimeout) {
+        return new CoalescingStorageService(
+                new InstrumentedStorageService(storage, metrics), chunk, buffer, lagTimeout
+        );
+    }
+
+    private long backendReads() {
+        return metrics.operation(StorageOperation.READ, "s3").calls();
+    }
+
+    @SneakyThrows
+    private static void write(StorageService storage, byte[] content) {
+        try (OutputStream os = storage.write(FILE)) {
+            os.write(content);
+        }
+    }
+
+    @SneakyThrows
+    private static void readFully(InputStream is, byte[] target) {
+        int pos = 0;
+        while (pos < target.length) {
+            pos += is.read(target, pos, target.length - pos);
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] readAll(InputStream is) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream toRead = is) {
+            byte[] buffer = new byte[100];
+            int read;
+            while ((read = toRead.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(size).nextBytes(result);
+        return result;
+    }
+}
@@ -0,0 +1,153 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.storage.api.metrics.StorageMetrics;
+import de.adorsys.datasafe.storage.api.metrics.StorageMetricsSink;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InstrumentedStorageServiceTest extends BaseMockitoTest {
+
+    private final AbsoluteLocation s3File = new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://bucket/file"));
+    private final AbsoluteLocation fsFile = new AbsoluteLocation<>(BasePrivateResource.forPrivate("file:///dir/file"));
+    private final AbsoluteLocation<ResolvedResource> listedFile = new AbsoluteLocation<>(
+            new BaseResolvedResource(BasePrivateResource.forPrivate("s3://bucket/file"), Instant.now())
+    );
+
+    private final StorageMetrics metrics = new StorageMetrics();
+
+    @Mock
+    private StorageService storage;
+
+    @Test
+    void countsCallsAndErrorsPerScheme() {
+        InstrumentedStorageService tested = new InstrumentedStorageService(storage, metrics);
+        when(storage.objectExists(s3File)).thenReturn(true);
+        when(storage.objectExists(fsFile)).thenThrow(new IllegalStateException("Failed"));
+
+        tested.objectExists(s3File);
+        tested.objectExists(s3File);
+        assertThrows(IllegalStateException.class, () -> tested.objectExists(fsFile));
+
+        assertEquals(2, metrics.operation(StorageOperation.OBJECT_EXISTS, "s3").calls());
+        assertEquals(0, metrics.operation(StorageOperation.OBJECT_EXISTS, "s3").errors());
+        assertEquals(1, metrics.operation(StorageOperation.OBJECT_EXISTS, "file").calls());
+        assertEquals(1, metrics.operation(StorageOperation.OBJECT_EXISTS, "file").errors());
+    }
+
+    @Test
+    @SneakyThrows
+    void countsBytesOfStreams() {
+        InstrumentedStorageService tested = new InstrumentedStorageService(storage, metrics);
+        when(storage.read(s3File)).thenReturn(new ByteArrayInputStream(new byte[100]));
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        when(storage.write(s3File)).thenReturn(written);
+
+        try (InputStream is = tested.read(s3File)) {
+            is.read();
+            is.read(new byte[50]);
+        }
+
+        try (OutputStream os = tested.write(s3File)) {
+            os.write(1);
+            os.write(new byte[10], 2, 7);
+        }
+
+        assertEquals(51, metrics.bytesRead("s3"));
+        assertEquals(8, metrics.bytesWritten("s3"));
+        assertEquals(8, written.size());
+        assertEquals(1, metrics.operation(StorageOperation.READ, "s3").calls());
+        assertEquals(1, metrics.operation(StorageOperation.WRITE, "s3").calls());
+    }
+
+    @Test
+    @SneakyThrows
+    void writeFailingOnCloseIsError() {
+        InstrumentedStorageService tested = new InstrumentedStorageService(storage, metrics);
+        OutputStream failing = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                throw new IOException("Upload failed");
+            }
+        };
+        when(storage.write(s3File)).thenReturn(failing);
+
+        OutputStream os = tested.write(s3File);
+        assertThrows(IOException.class, os::close);
+
+        assertEquals(1, metrics.operation(StorageOperation.WRITE, "s3").errors());
+    }
+
+    @Test
+    void listingIsMeasuredUntilExhaustedOrClosed() {
+        InstrumentedStorageService tested = new InstrumentedStorageService(storage, metrics);
+        when(storage.list(s3File)).thenReturn(Stream.of(listedFile, listedFile));
+        when(storage.listShallow(s3File)).thenReturn(Stream.of(listedFile, listedFile));
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = tested.list(s3File)) {
+            assertEquals(0, metrics.operation(StorageOperation.LIST, "s3").calls());
+            assertEquals(2, listed.count());
+            assertEquals(1, metrics.operation(StorageOperation.LIST, "s3").calls());
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = tested.listShallow(s3File)) {
+            listed.findFirst();
+            assertEquals(0, metrics.operation(StorageOperation.LIST_SHALLOW, "s3").calls());
+        }
+
+        assertEquals(1, metrics.operation(StorageOperation.LIST, "s3").calls());
+        assertEquals(1, metrics.operation(StorageOperation.LIST_SHALLOW, "s3").calls());
+    }
+
+    @Test
+    void removeAllIsMeasuredPerScheme() {
+        InstrumentedStorageService tested = new InstrumentedStorageService(storage, metrics);
+        doThrow(new IllegalStateException("Failed")).when(storage).removeAll(any());
+
+        assertThrows(IllegalStateException.class, () -> tested.removeAll(Stream.of(s3File, fsFile)));
+
+        assertEquals(1, metrics.operation(StorageOperation.REMOVE_ALL, "s3").errors());
+        assertEquals(0, metrics.operation(StorageOperation.REMOVE_ALL, "file").calls());
+    }
+
+    @Test
+    void disabledSinkPassesStreamsThrough() {
+        InputStream content = new ByteArrayInputStream(new byte[10]);
+        OutputStream target = new ByteArrayOutputStream();
+        when(storage.read(s3File)).thenReturn(content);
+        when(storage.write(s3File)).thenReturn(target);
+        metrics.setEnabled(false);
+
+        InstrumentedStorageService tested = new InstrumentedStorageService(storage, metrics);
+        assertSame(content, tested.read(s3File));
+        assertSame(target, tested.write(s3File));
+        tested.remove(s3File);
+
+        verify(storage).remove(s3File);
+        assertEquals(0, metrics.operation(StorageOperation.READ, "s3").calls());
+        assertEquals(0, metrics.operation(StorageOperation.REMOVE, "s3").calls());
+        assertSame(content, new InstrumentedStorageService(storage, StorageMetricsSink.DISABLED).read(s3File));
+    }
+}
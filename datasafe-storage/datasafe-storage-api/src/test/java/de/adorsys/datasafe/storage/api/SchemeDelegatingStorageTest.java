@@ -1,14 +1,21 @@
 package de.adorsys.datasafe.storage.api;
 
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageService;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 
+import java.io.OutputStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class SchemeDelegatingStorageTest extends BaseMockitoTest {
@@ -60,6 +67,46 @@ class SchemeDelegatingStorageTest extends BaseMockitoTest {
         verify(service).remove(locationExists);
     }
 
+    @Test
+    void removeAllDelegatesInBulk() {
+        tested.removeAll(Stream.of(locationExists, locationExists));
+
+        verify(service).removeAll(any());
+        verify(service, never()).remove(any());
+    }
+
+    @Test
+    void moveDelegatesWithinScheme() {
+        tested.move(locationExists, locationExists);
+
+        verify(service).move(locationExists, locationExists);
+    }
+
+    @Test
+    @SneakyThrows
+    void moveStreamsContentAcrossSchemes() {
+        InMemoryStorageService source = new InMemoryStorageService();
+        InMemoryStorageService target = new InMemoryStorageService();
+        AbsoluteLocation from = new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://bucket/file"));
+        AbsoluteLocation to = new AbsoluteLocation<>(BasePrivateResource.forPrivate("mem://bucket/file"));
+        Map<String, StorageService> byScheme = new HashMap<>();
+        byScheme.put("s3", source);
+        byScheme.put("mem", target);
+        try (OutputStream os = source.write(from)) {
+            os.write(new byte[] {1, 2, 3});
+        }
+
+        new SchemeDelegatingStorage(byScheme).move(from, to);
+
+        assertFalse(source.objectExists(from));
+        assertTrue(target.objectExists(to));
+    }
+
+    @Test
+    void removeAllThrowsWhenNoProtocol() {
+        assertThrows(IllegalArgumentException.class, () -> tested.removeAll(Stream.of(locationNotExists)));
+    }
+
     @Test
     void writeDelegates() {
         tested.write(locationExists);
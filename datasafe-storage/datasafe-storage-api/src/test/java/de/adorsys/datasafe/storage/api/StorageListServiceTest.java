@@ -0,0 +1,77 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StorageListServiceTest extends BaseMockitoTest {
+
+    private static final String ROOT = "s3://bucket/root";
+
+    @Test
+    void defaultShallowListingKeepsFilesAndDistinctDirectories() {
+        StorageListService tested = location -> Stream.of("file", "dir/a", "dir/b", "dir/deeper/c", "other/d")
+                .map(it -> new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                        BasePrivateResource.forPrivate(ROOT + "/" + it), Instant.now()
+                )));
+
+        List<AbsoluteLocation<ResolvedResource>> listed = tested
+                .listShallow(BasePrivateResource.forAbsolutePrivate(URI.create(ROOT)))
+                .collect(Collectors.toList());
+
+        assertEquals(
+                Arrays.asList(ROOT + "/file", ROOT + "/dir/", ROOT + "/other/"),
+                listed.stream().map(it -> it.location().toASCIIString()).collect(Collectors.toList())
+        );
+        assertNull(listed.get(1).getResource().getModifiedAt());
+    }
+
+    @Test
+    void defaultPagedListingContinuesAfterLastKey() {
+        StorageListService tested = location -> Stream.of("d", "b", "dir/a", "a", "c")
+                .map(it -> new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                        BasePrivateResource.forPrivate(ROOT + "/" + it), Instant.now()
+                )));
+        AbsoluteLocation root = BasePrivateResource.forAbsolutePrivate(URI.create(ROOT));
+
+        List<List<String>> pages = new ArrayList<>();
+        String token = null;
+        do {
+            ListPage<AbsoluteLocation<ResolvedResource>> page = tested.listPage(root, token, 2);
+            pages.add(page.getItems().stream()
+                    .map(it -> it.location().toASCIIString().substring(ROOT.length() + 1))
+                    .collect(Collectors.toList()));
+            token = page.getNextToken();
+        } while (null != token);
+
+        assertEquals(
+                Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("dir/a")),
+                pages
+        );
+    }
+
+    @Test
+    void pagedListingRejectsMalformedToken() {
+        StorageListService tested = location -> Stream.empty();
+        AbsoluteLocation root = BasePrivateResource.forAbsolutePrivate(URI.create(ROOT));
+
+        assertThrows(IllegalArgumentException.class, () -> tested.listPage(root, "not a token", 2));
+    }
+}
@@ -0,0 +1,246 @@
+package de.adorsys.datasafe.storage.api.cache;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.InstrumentedStorageService;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageService;
+import de.adorsys.datasafe.storage.api.metrics.StorageMetrics;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingStorageServiceTest {
+
+    private static final AbsoluteLocation FILE = at("s3://bucket/file");
+
+    private final InMemoryStorageService storage = new InMemoryStorageService();
+    private final StorageMetrics metrics = new StorageMetrics();
+    private final StorageService measured = new InstrumentedStorageService(storage, metrics);
+
+    @TempDir
+    Path cacheDir;
+
+    private CachingStorageService tested;
+
+    @BeforeEach
+    void init() {
+        tested = new CachingStorageService(measured, cacheDir, 1024);
+    }
+
+    @Test
+    void repeatedReadIsServedFromCache() {
+        write(storage, FILE, new byte[] {1, 2, 3});
+
+        assertArrayEquals(new byte[] {1, 2, 3}, read(FILE));
+        assertArrayEquals(new byte[] {1, 2, 3}, read(FILE));
+
+        assertEquals(1, backendReads());
+        assertEquals(3, tested.cachedBytes());
+    }
+
+    @Test
+    @SneakyThrows
+    void modificationBehindCacheIsDetected() {
+        write(storage, FILE, new byte[] {1});
+        read(FILE);
+
+        Thread.sleep(10);
+        write(storage, FILE, new byte[] {2});
+
+        assertArrayEquals(new byte[] {2}, read(FILE));
+        assertEquals(2, backendReads());
+    }
+
+    @Test
+    void writeAndRemoveInvalidate() {
+        write(tested, FILE, new byte[] {1});
+        read(FILE);
+
+        write(tested, FILE, new byte[] {2});
+        assertArrayEquals(new byte[] {2}, read(FILE));
+
+        tested.remove(FILE);
+        assertEquals(0, tested.cachedBytes());
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedWriteKeepsPreviousContent() {
+        write(tested, FILE, new byte[] {1});
+        read(FILE);
+
+        OutputStream os = tested.write(FILE);
+        os.write(2);
+        assertTrue(AbortableStream.abortOrClose(os));
+
+        assertArrayEquals(new byte[] {1}, read(FILE));
+    }
+
+    @Test
+    void metadataIsReadWithoutListing() {
+        write(storage, FILE, new byte[] {1, 2});
+
+        assertEquals(Optional.of(2L), tested.metadata(FILE).map(it -> it.getResource().getSize()));
+        assertEquals(1, metrics.operation(StorageOperation.METADATA, "s3").calls());
+        assertEquals(0, metrics.operation(StorageOperation.LIST, "s3").calls());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        tested = new CachingStorageService(measured, cacheDir, 250);
+        AbsoluteLocation first = at("s3://bucket/first");
+        AbsoluteLocation second = at("s3://bucket/second");
+        AbsoluteLocation third = at("s3://bucket/third");
+        write(storage, first, new byte[100]);
+        write(storage, second, new byte[100]);
+        write(storage, third, new byte[100]);
+
+        read(first);
+        read(second);
+        read(first);
+        read(third);
+        assertEquals(200, tested.cachedBytes());
+
+        read(first);
+        read(third);
+        assertEquals(3, backendReads());
+        read(second);
+        assertEquals(4, backendReads());
+    }
+
+    @Test
+    @SneakyThrows
+    void partiallyReadContentIsNotCached() {
+        write(storage, FILE, new byte[100]);
+
+        try (InputStream is = tested.read(FILE)) {
+            is.read(new byte[10]);
+        }
+
+        assertEquals(0, tested.cachedBytes());
+    }
+
+    @Test
+    @SneakyThrows
+    void validationIsSkippedUntilRevalidationInterval() {
+        tested = new CachingStorageService(measured, cacheDir, 1024, Duration.ofHours(1));
+        write(storage, FILE, new byte[] {1});
+        read(FILE);
+
+        Thread.sleep(10);
+        write(storage, FILE, new byte[] {2});
+
+        assertArrayEquals(new byte[] {1}, read(FILE));
+        assertEquals(1, metrics.operation(StorageOperation.METADATA, "s3").calls());
+    }
+
+    @Test
+    void versionIsCheckedWithoutListing() {
+        write(storage, FILE, new byte[] {1});
+
+        read(FILE);
+        read(FILE);
+
+        assertEquals(2, metrics.operation(StorageOperation.METADATA, "s3").calls());
+        assertEquals(0, metrics.operation(StorageOperation.LIST, "s3").calls());
+    }
+
+    @Test
+    void overwriteWithinSameSecondIsDetectedByETag() {
+        AtomicInteger writes = new AtomicInteger();
+        StorageService secondResolution = new InMemoryStorageService() {
+
+            @Override
+            public OutputStream write(AbsoluteLocation location) {
+                writes.incrementAndGet();
+                return super.write(location);
+            }
+
+            @Override
+            public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+                return super.metadata(location).map(it -> new AbsoluteLocation<>(new BaseResolvedResource(
+                        it.getResource().asPrivate(), Instant.EPOCH, it.getResource().getSize(), "v" + writes, null
+                )));
+            }
+        };
+        tested = new CachingStorageService(secondResolution, cacheDir, 1024);
+        write(secondResolution, FILE, new byte[] {1});
+        read(FILE);
+
+        write(secondResolution, FILE, new byte[] {2});
+
+        assertArrayEquals(new byte[] {2}, read(FILE));
+    }
+
+    @Test
+    @SneakyThrows
+    void failureToCacheDoesNotFailRead() {
+        write(storage, FILE, new byte[] {1, 2, 3});
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        try (InputStream is = tested.read(FILE)) {
+            int read;
+            while ((read = is.read()) != -1) {
+                content.write(read);
+            }
+
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                files.forEach(DiskCache::deleteQuietly);
+            }
+        }
+
+        assertArrayEquals(new byte[] {1, 2, 3}, content.toByteArray());
+        assertEquals(0, tested.cachedBytes());
+    }
+
+    private long backendReads() {
+        return metrics.operation(StorageOperation.READ, "s3").calls();
+    }
+
+    @SneakyThrows
+    private byte[] read(AbsoluteLocation location) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = tested.read(location)) {
+            byte[] buffer = new byte[64];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    @SneakyThrows
+    private static void write(StorageService storage, AbsoluteLocation location, byte[] content) {
+        try (OutputStream os = storage.write(location)) {
+            os.write(content);
+        }
+
+        assertTrue(storage.objectExists(location));
+    }
+
+    private static AbsoluteLocation at(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(uri));
+    }
+}
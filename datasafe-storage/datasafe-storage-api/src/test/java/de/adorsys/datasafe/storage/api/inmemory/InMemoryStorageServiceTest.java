@@ -0,0 +1,160 @@
+package de.adorsys.datasafe.storage.api.inmemory;
+
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryStorageServiceTest {
+
+    private final InMemoryStorageService storage = new InMemoryStorageService();
+
+    @Test
+    void writeReadRemove() {
+        byte[] content = {1, 2, 3};
+        write("s3://bucket/dir/file.txt", content);
+
+        assertTrue(storage.objectExists(at("s3://bucket/dir/file.txt")));
+        assertFalse(storage.objectExists(at("s3://other/dir/file.txt")));
+        assertArrayEquals(content, read("s3://bucket/dir/file.txt"));
+
+        storage.remove(at("s3://bucket/dir/file.txt"));
+        assertFalse(storage.objectExists(at("s3://bucket/dir/file.txt")));
+        assertThrows(UncheckedIOException.class, () -> storage.read(at("s3://bucket/dir/file.txt")));
+    }
+
+    @Test
+    void copyAndMoveKeepContent() {
+        byte[] content = {1, 2, 3};
+        write("s3://bucket/dir/file.txt", content);
+
+        storage.copy(at("s3://bucket/dir/file.txt"), at("s3://bucket/copy.txt"));
+        storage.move(at("s3://bucket/dir/file.txt"), at("s3://bucket/moved.txt"));
+
+        assertFalse(storage.objectExists(at("s3://bucket/dir/file.txt")));
+        assertArrayEquals(content, read("s3://bucket/copy.txt"));
+        assertArrayEquals(content, read("s3://bucket/moved.txt"));
+        assertThrows(
+                UncheckedIOException.class,
+                () -> storage.move(at("s3://bucket/dir/file.txt"), at("s3://bucket/other.txt"))
+        );
+    }
+
+    @Test
+    void listMatchesKeyPrefixLikeS3() {
+        write("s3://bucket/root/b.txt", new byte[0]);
+        write("s3://bucket/root/a/c.txt", new byte[0]);
+        write("s3://bucket/root2/d.txt", new byte[0]);
+        write("s3://other/root/e.txt", new byte[0]);
+
+        assertEquals(
+                Arrays.asList("s3://bucket/root/a/c.txt", "s3://bucket/root/b.txt"),
+                list("s3://bucket/root/")
+        );
+        assertEquals(3, list("s3://bucket/root").size());
+        assertEquals(
+                Arrays.asList("s3://bucket/root/a/", "s3://bucket/root/b.txt"),
+                shallowList("s3://bucket/root/")
+        );
+    }
+
+    @Test
+    void writeIsVisibleOnlyAfterClose() throws Exception {
+        OutputStream os = storage.write(at("s3://bucket/file"));
+        os.write(1);
+        assertFalse(storage.objectExists(at("s3://bucket/file")));
+
+        os.close();
+        assertTrue(storage.objectExists(at("s3://bucket/file")));
+    }
+
+    @Test
+    void injectedWriteFailureDiscardsContent() {
+        InMemoryStorageService failing = new InMemoryStorageService(
+                InMemoryStorageConfig.builder().errorRate(StorageOperation.WRITE, 1.0).build()
+        );
+
+        OutputStream os = failing.write(at("s3://bucket/file"));
+        assertThrows(UncheckedIOException.class, os::close);
+        assertFalse(failing.objectExists(at("s3://bucket/file")));
+    }
+
+    @Test
+    @SneakyThrows
+    void latencyAndBandwidthAreSimulated() {
+        InMemoryStorageService slow = new InMemoryStorageService(InMemoryStorageConfig.builder()
+                .latency(StorageOperation.OBJECT_EXISTS, LatencyDistribution.fixed(Duration.ofMillis(50)))
+                .readBytesPerSecond(1024 * 1024)
+                .build()
+        );
+
+        long start = System.nanoTime();
+        slow.objectExists(at("s3://bucket/file"));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+
+        try (OutputStream os = slow.write(at("s3://bucket/file"))) {
+            os.write(new byte[100 * 1024]);
+        }
+
+        start = System.nanoTime();
+        readFrom(slow, "s3://bucket/file");
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(90).toNanos());
+    }
+
+    @SneakyThrows
+    private void write(String uri, byte[] content) {
+        try (OutputStream os = storage.write(at(uri))) {
+            os.write(content);
+        }
+    }
+
+    private byte[] read(String uri) {
+        return readFrom(storage, uri);
+    }
+
+    @SneakyThrows
+    private static byte[] readFrom(InMemoryStorageService storage, String uri) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = storage.read(at(uri))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    private List<String> list(String uri) {
+        return storage.list(at(uri)).map(this::asString).collect(Collectors.toList());
+    }
+
+    private List<String> shallowList(String uri) {
+        return storage.listShallow(at(uri)).map(this::asString).sorted().collect(Collectors.toList());
+    }
+
+    private String asString(AbsoluteLocation<ResolvedResource> location) {
+        return location.location().asURI().toString();
+    }
+
+    private static AbsoluteLocation at(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(uri));
+    }
+}
@@ -0,0 +1,57 @@
+package de.adorsys.datasafe.storage.api.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void emptyHistogram() {
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.count());
+        assertEquals(50, histogram.percentile(50));
+        assertEquals(99, histogram.percentile(99));
+        assertEquals(100, histogram.percentile(100));
+    }
+
+    @Test
+    void largeValuesHaveBoundedRelativeError() {
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record(1_000_000L + random.nextInt(9_000_000));
+        }
+        histogram.record(Long.MAX_VALUE);
+
+        assertWithinPrecision(5_500_000, histogram.percentile(50));
+        assertWithinPrecision(9_100_000, histogram.percentile(90));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    }
+
+    @Test
+    void bucketBoundaries() {
+        for (long value : new long[] {0, 127, 128, 129, 255, 256, 1L << 40, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.highestValue(index) >= value, "Bucket upper bound of " + value);
+            assertTrue(index == 0 || LatencyHistogram.highestValue(index - 1) < value, "Bucket lower bound " + value);
+        }
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) < expected * 0.04, expected + " vs " + actual);
+    }
+}
@@ -0,0 +1,260 @@
+package de.adorsys.datasafe.storage.api.replicated;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageConfig;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageService;
+import de.adorsys.datasafe.storage.api.inmemory.LatencyDistribution;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicatedStorageServiceTest {
+
+    private static final AbsoluteLocation FILE = BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/file"));
+
+    private static final ReplicationConfig FAST_HEDGING = ReplicationConfig.builder()
+            .minHedgeDelay(Duration.ofMillis(1))
+            .maxHedgeDelay(Duration.ofMillis(20))
+            .probeEvery(0)
+            .build();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void writeGoesToAllReplicas() {
+        InMemoryStorageService first = new InMemoryStorageService();
+        InMemoryStorageService second = new InMemoryStorageService();
+        ReplicatedStorageService tested = replicated(ReplicationConfig.DEFAULT, first, second);
+
+        write(tested, new byte[] {1});
+
+        assertArrayEquals(new byte[] {1}, read(first));
+        assertArrayEquals(new byte[] {1}, read(second));
+    }
+
+    @Test
+    @SneakyThrows
+    void writeSucceedsWithQuorum() {
+        InMemoryStorageService failing = failing(StorageOperation.WRITE);
+        InMemoryStorageService healthy = new InMemoryStorageService();
+        ReplicatedStorageService tested = replicated(
+                ReplicationConfig.builder().writeQuorum(1).build(), failing, healthy
+        );
+
+        write(tested, new byte[] {1});
+        // failing replica may complete after quorum was reached
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertArrayEquals(new byte[] {1}, read(healthy));
+        assertFalse(failing.objectExists(FILE));
+        assertEquals(1, tested.stats().get(0).writeFailures());
+    }
+
+    @Test
+    @SneakyThrows
+    void replicaStreamFailedMidWriteIsAborted() {
+        AtomicBoolean committed = new AtomicBoolean();
+        AtomicBoolean aborted = new AtomicBoolean();
+        StorageService brokenStream = new InMemoryStorageService() {
+            @Override
+            public OutputStream write(AbsoluteLocation location) {
+                return new BrokenStream(committed, aborted);
+            }
+        };
+        InMemoryStorageService healthy = new InMemoryStorageService();
+        ReplicatedStorageService tested = replicated(
+                ReplicationConfig.builder().writeQuorum(1).build(), brokenStream, healthy
+        );
+
+        write(tested, new byte[] {1});
+
+        assertTrue(aborted.get());
+        assertFalse(committed.get());
+        assertArrayEquals(new byte[] {1}, read(healthy));
+    }
+
+    @Test
+    @SneakyThrows
+    void replicaThatFailedCopyHasTargetRemoved() {
+        AbsoluteLocation target = BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/target"));
+        InMemoryStorageService failing = failing(StorageOperation.COPY);
+        InMemoryStorageService healthy = new InMemoryStorageService();
+        write(failing, new byte[] {1});
+        write(healthy, new byte[] {1});
+        try (OutputStream os = failing.write(target)) {
+            os.write(0);
+        }
+        ReplicatedStorageService tested = replicated(
+                ReplicationConfig.builder().writeQuorum(1).build(), failing, healthy
+        );
+
+        tested.copy(FILE, target);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertTrue(healthy.objectExists(target));
+        assertFalse(failing.objectExists(target));
+    }
+
+    @Test
+    void writeFailsWithoutQuorum() {
+        ReplicatedStorageService tested = replicated(
+                ReplicationConfig.DEFAULT, failing(StorageOperation.WRITE), new InMemoryStorageService()
+        );
+
+        assertThrows(UncheckedIOException.class, () -> write(tested, new byte[] {1}));
+    }
+
+    @Test
+    @SneakyThrows
+    void failedWriteWithoutQuorumKeepsPreviousContent() {
+        AtomicBoolean broken = new AtomicBoolean();
+        InMemoryStorageService failing = new InMemoryStorageService() {
+            @Override
+            public OutputStream write(AbsoluteLocation location) {
+                if (broken.get()) {
+                    throw new UncheckedIOException(new IOException("Broken"));
+                }
+                return super.write(location);
+            }
+        };
+        InMemoryStorageService first = new InMemoryStorageService();
+        InMemoryStorageService second = new InMemoryStorageService();
+        ReplicatedStorageService tested = replicated(ReplicationConfig.DEFAULT, first, failing, second);
+        write(tested, new byte[] {1});
+        broken.set(true);
+
+        assertThrows(UncheckedIOException.class, () -> write(tested, new byte[] {2}));
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertArrayEquals(new byte[] {1}, read(first));
+        assertArrayEquals(new byte[] {1}, read(failing));
+        assertArrayEquals(new byte[] {1}, read(second));
+    }
+
+    @Test
+    void slowReadIsHedgedToNextReplica() {
+        InMemoryStorageService slow = new InMemoryStorageService(InMemoryStorageConfig.builder()
+                .latency(StorageOperation.READ, LatencyDistribution.fixed(Duration.ofSeconds(2)))
+                .build());
+        InMemoryStorageService fast = new InMemoryStorageService();
+        write(slow, new byte[] {1});
+        write(fast, new byte[] {1});
+        ReplicatedStorageService tested = replicated(FAST_HEDGING, slow, fast);
+
+        long start = System.nanoTime();
+        assertArrayEquals(new byte[] {1}, read(tested));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1, tested.stats().get(0).slowReads());
+        assertEquals(1, tested.stats().get(1).reads());
+    }
+
+    @Test
+    void failedReadFailsOverToNextReplica() {
+        InMemoryStorageService failing = failing(StorageOperation.READ);
+        InMemoryStorageService healthy = new InMemoryStorageService();
+        write(failing, new byte[] {1});
+        write(healthy, new byte[] {1});
+        ReplicatedStorageService tested = replicated(ReplicationConfig.DEFAULT, failing, healthy);
+
+        assertArrayEquals(new byte[] {1}, read(tested));
+        assertArrayEquals(new byte[] {1}, read(tested));
+
+        assertEquals(1, tested.stats().get(0).errors());
+        assertEquals(2, tested.stats().get(1).reads());
+    }
+
+    @Test
+    void readFailsWhenAllReplicasFail() {
+        ReplicatedStorageService tested = replicated(
+                ReplicationConfig.DEFAULT, failing(StorageOperation.READ), failing(StorageOperation.READ)
+        );
+
+        assertThrows(UncheckedIOException.class, () -> read(tested));
+    }
+
+    /**
+     * Fails on write, records whether content was committed or aborted.
+     */
+    @RequiredArgsConstructor
+    private static class BrokenStream extends OutputStream implements AbortableStream {
+
+        private final AtomicBoolean committed;
+        private final AtomicBoolean aborted;
+
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("Broken");
+        }
+
+        @Override
+        public void close() {
+            committed.set(true);
+        }
+
+        @Override
+        public void abort() {
+            aborted.set(true);
+        }
+    }
+
+    private ReplicatedStorageService replicated(ReplicationConfig config, StorageService... replicas) {
+        return new ReplicatedStorageService(Arrays.asList(replicas), executor, config);
+    }
+
+    private static InMemoryStorageService failing(StorageOperation operation) {
+        return new InMemoryStorageService(InMemoryStorageConfig.builder().errorRate(operation, 1.0).build());
+    }
+
+    @SneakyThrows
+    private static void write(StorageService storage, byte[] content) {
+        try (OutputStream os = storage.write(FILE)) {
+            os.write(content);
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] read(StorageService storage) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = storage.read(FILE)) {
+            byte[] buffer = new byte[64];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+}
@@ -0,0 +1,370 @@
+package de.adorsys.datasafe.storage.api.tiered;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.storage.api.InstrumentedStorageService;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.inmemory.InMemoryStorageService;
+import de.adorsys.datasafe.storage.api.metrics.StorageMetrics;
+import de.adorsys.datasafe.storage.api.metrics.StorageOperation;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredStorageServiceTest {
+
+    private static final Uri HOT_ROOT = new Uri("mem://hot/tier/");
+    private static final Uri COLD_ROOT = new Uri("s3://cold/");
+    private static final AbsoluteLocation FILE = at("s3://cold/file");
+
+    private final InMemoryStorageService hot = new InMemoryStorageService();
+    private final HookedStorage cold = new HookedStorage();
+    private final StorageMetrics coldMetrics = new StorageMetrics();
+    private final ManualExecutor executor = new ManualExecutor();
+
+    @Test
+    void writtenObjectIsMigratedAndReadFromHotTier() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+
+        write(tested, FILE, new byte[] {1});
+
+        assertTrue(hot.objectExists(at("mem://hot/tier/file")));
+        assertArrayEquals(new byte[] {1}, read(cold, FILE));
+        assertArrayEquals(new byte[] {1}, read(tested, FILE));
+        assertEquals(0, coldReads());
+    }
+
+    @Test
+    void coldObjectIsPromotedOnRead() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(cold, FILE, new byte[] {1});
+
+        assertArrayEquals(new byte[] {1}, read(tested, FILE));
+        assertEquals(1, tested.hotObjects());
+
+        assertArrayEquals(new byte[] {1}, read(tested, FILE));
+        assertEquals(1, coldReads());
+    }
+
+    @Test
+    @SneakyThrows
+    void partiallyReadObjectIsPromotedInBackground() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(cold, FILE, new byte[] {1, 2, 3});
+
+        try (InputStream is = tested.read(FILE)) {
+            assertEquals(1, is.read());
+        }
+
+        assertArrayEquals(new byte[] {1, 2, 3}, read(hot, at("mem://hot/tier/file")));
+        assertEquals(1, tested.hotObjects());
+        assertEquals(1, coldReads());
+    }
+
+    @Test
+    @SneakyThrows
+    void promotionIsCancelledByWrite() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(cold, FILE, new byte[] {1});
+
+        try (InputStream is = tested.read(FILE)) {
+            write(tested, FILE, new byte[] {2});
+            assertEquals(1, is.read());
+            assertEquals(-1, is.read());
+        }
+
+        assertArrayEquals(new byte[] {2}, read(tested, FILE));
+        assertEquals(asSet("mem://hot/tier/file"), uris(hot.list(at("mem://hot/tier/"))));
+    }
+
+    @Test
+    void idleObjectsAreDemoted() {
+        TieredStorageService tested = tiered(TieringPolicy.builder()
+                .demoteAfter(Duration.ZERO)
+                .sweepInterval(Duration.ZERO)
+                .build()
+        );
+        write(tested, FILE, new byte[] {1});
+
+        write(tested, at("s3://cold/other"), new byte[] {2});
+
+        assertFalse(hot.objectExists(at("mem://hot/tier/file")));
+        assertEquals(1, tested.hotObjects());
+        assertArrayEquals(new byte[] {1}, read(tested, FILE));
+    }
+
+    @Test
+    void leastRecentlyAccessedObjectsAreDemotedWhenHotTierIsFull() {
+        TieredStorageService tested = tiered(TieringPolicy.builder()
+                .maxHotObjects(1)
+                .sweepInterval(Duration.ZERO)
+                .build()
+        );
+        write(tested, FILE, new byte[] {1});
+        write(tested, at("s3://cold/second"), new byte[] {2});
+        read(tested, FILE);
+
+        write(tested, at("s3://cold/third"), new byte[] {3});
+
+        assertTrue(hot.objectExists(at("mem://hot/tier/file")));
+        assertFalse(hot.objectExists(at("mem://hot/tier/second")));
+        assertEquals(2, tested.hotObjects());
+    }
+
+    @Test
+    void objectsNotMigratedYetAreListed() {
+        executor.direct = false;
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(cold, at("s3://cold/dir/old"), new byte[] {1});
+        write(tested, at("s3://cold/dir/new"), new byte[] {2});
+        write(tested, at("s3://cold/dir/nested/new"), new byte[] {3});
+
+        assertEquals(
+                asSet("s3://cold/dir/old", "s3://cold/dir/new", "s3://cold/dir/nested/new"),
+                uris(tested.list(at("s3://cold/dir/")))
+        );
+        assertEquals(
+                asSet("s3://cold/dir/old", "s3://cold/dir/new", "s3://cold/dir/nested/"),
+                uris(tested.listShallow(at("s3://cold/dir/")))
+        );
+
+        executor.runAll();
+        assertEquals(
+                asSet("s3://cold/dir/old", "s3://cold/dir/new", "s3://cold/dir/nested/new"),
+                uris(cold.list(at("s3://cold/dir/")))
+        );
+    }
+
+    @Test
+    void removedObjectIsRemovedFromBothTiers() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(tested, FILE, new byte[] {1});
+
+        tested.remove(FILE);
+
+        assertFalse(tested.objectExists(FILE));
+        assertFalse(hot.objectExists(at("mem://hot/tier/file")));
+        assertEquals(0, tested.hotObjects());
+    }
+
+    @Test
+    void writeAfterRemoveDoesNotOvertakeMigrationInProgress() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        // runs once first migration has read hot tier copy
+        cold.beforeWrite = () -> {
+            tested.remove(FILE);
+            write(tested, FILE, new byte[] {2});
+        };
+
+        write(tested, FILE, new byte[] {1});
+
+        assertArrayEquals(new byte[] {2}, read(cold, FILE));
+        assertArrayEquals(new byte[] {2}, read(tested, FILE));
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedWriteKeepsPreviousContent() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(tested, FILE, new byte[] {1});
+
+        OutputStream os = tested.write(FILE);
+        os.write(2);
+        assertTrue(AbortableStream.abortOrClose(os));
+
+        assertArrayEquals(new byte[] {1}, read(hot, at("mem://hot/tier/file")));
+        assertArrayEquals(new byte[] {1}, read(tested, FILE));
+    }
+
+    @Test
+    void objectsNotMigratedYetHaveMetadataAndArePaged() {
+        executor.direct = false;
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(cold, at("s3://cold/dir/old"), new byte[] {1});
+        write(tested, at("s3://cold/dir/new"), new byte[] {2, 3});
+        write(tested, at("s3://cold/dir/nested/new"), new byte[] {4});
+
+        assertEquals(2L, tested.metadata(at("s3://cold/dir/new")).get().getResource().getSize());
+        ListPage<AbsoluteLocation<ResolvedResource>> first = tested.listPage(at("s3://cold/dir/"), null, 2);
+        ListPage<AbsoluteLocation<ResolvedResource>> second =
+                tested.listPage(at("s3://cold/dir/"), first.getNextToken(), 2);
+        assertEquals(asSet("s3://cold/dir/new", "s3://cold/dir/nested/new"), uris(first.getItems().stream()));
+        assertEquals(asSet("s3://cold/dir/old"), uris(second.getItems().stream()));
+        assertEquals(
+                asSet("s3://cold/dir/new", "s3://cold/dir/nested/", "s3://cold/dir/old"),
+                uris(tested.listShallowPage(at("s3://cold/dir/"), null, 3).getItems().stream())
+        );
+    }
+
+    @Test
+    void copiedObjectIsWrittenToHotTierAndMigrated() {
+        executor.direct = false;
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(tested, FILE, new byte[] {1});
+
+        tested.copy(FILE, at("s3://cold/copy"));
+
+        assertArrayEquals(new byte[] {1}, read(hot, at("mem://hot/tier/copy")));
+        executor.runAll();
+        assertArrayEquals(new byte[] {1}, read(cold, at("s3://cold/copy")));
+        assertEquals(0, coldReads());
+    }
+
+    @Test
+    void movedColdObjectIsReadFromNewLocation() {
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+        write(cold, FILE, new byte[] {1});
+
+        tested.move(FILE, at("s3://cold/moved"));
+
+        assertFalse(tested.objectExists(FILE));
+        assertArrayEquals(new byte[] {1}, read(tested, at("s3://cold/moved")));
+        assertArrayEquals(new byte[] {1}, read(cold, at("s3://cold/moved")));
+    }
+
+    @Test
+    void recoverMigratesObjectsMissingInColdTier() {
+        write(hot, at("mem://hot/tier/file"), new byte[] {1});
+        TieredStorageService tested = tiered(TieringPolicy.DEFAULT);
+
+        tested.recover();
+
+        assertEquals(1, tested.hotObjects());
+        assertArrayEquals(new byte[] {1}, read(cold, FILE));
+    }
+
+    private TieredStorageService tiered(TieringPolicy policy) {
+        StorageService measuredCold = new InstrumentedStorageService(cold, coldMetrics);
+        return new TieredStorageService(hot, HOT_ROOT, measuredCold, COLD_ROOT, executor, policy);
+    }
+
+    private long coldReads() {
+        return coldMetrics.operation(StorageOperation.READ, "s3").calls();
+    }
+
+    private static Set<String> asSet(String... uris) {
+        return new HashSet<>(Arrays.asList(uris));
+    }
+
+    private static Set<String> uris(Stream<? extends AbsoluteLocation> listed) {
+        return listed.map(it -> it.location().asURI().toString()).collect(Collectors.toSet());
+    }
+
+    @SneakyThrows
+    private static void write(StorageService storage, AbsoluteLocation location, byte[] content) {
+        try (OutputStream os = storage.write(location)) {
+            os.write(content);
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] read(StorageService storage, AbsoluteLocation location) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = storage.read(location)) {
+            byte[] buffer = new byte[64];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    private static AbsoluteLocation at(String uri) {
+        return BasePrivateResource.forAbsolutePrivate(URI.create(uri));
+    }
+
+    /**
+     * Runs hook once before the next write, i.e. in the middle of migration that has read hot tier copy.
+     */
+    private static class HookedStorage extends InMemoryStorageService {
+
+        private Runnable beforeWrite;
+
+        @Override
+        public OutputStream write(AbsoluteLocation location) {
+            Runnable hook = beforeWrite;
+            beforeWrite = null;
+            if (null != hook) {
+                hook.run();
+            }
+
+            return super.write(location);
+        }
+    }
+
+    /**
+     * Runs tasks in calling thread, or queues them until {@link ManualExecutor#runAll()}.
+     */
+    private static class ManualExecutor extends AbstractExecutorService {
+
+        private final Queue<Runnable> queued = new ArrayDeque<>();
+        private boolean direct = true;
+
+        void runAll() {
+            Runnable task;
+            while (null != (task = queued.poll())) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (direct) {
+                command.run();
+            } else {
+                queued.add(command);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            // nothing to shut down
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
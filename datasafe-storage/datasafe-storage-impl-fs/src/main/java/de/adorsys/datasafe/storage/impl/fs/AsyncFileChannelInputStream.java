@@ -0,0 +1,105 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reads {@link AsynchronousFileChannel} using two buffers - while one chunk is consumed by the reader,
+ * next one is being read by the channel.
+ */
+class AsyncFileChannelInputStream extends InputStream {
+
+    private final AsynchronousFileChannel channel;
+
+    private ByteBuffer current;
+    private ByteBuffer spare;
+    private Future<Integer> pending;
+    private long position;
+
+    AsyncFileChannelInputStream(AsynchronousFileChannel channel, int chunkSize) {
+        this.channel = channel;
+        this.current = ByteBuffer.allocate(chunkSize);
+        this.current.limit(0);
+        this.spare = ByteBuffer.allocate(chunkSize);
+        requestNext();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return -1 == read ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (!channel.isOpen()) {
+            throw new IOException("Stream is closed");
+        }
+
+        if (0 == len) {
+            return 0;
+        }
+
+        while (!current.hasRemaining()) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+
+        int read = Math.min(len, current.remaining());
+        current.get(bytes, off, read);
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return current.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (null == pending) {
+            return false;
+        }
+
+        int read = await(pending);
+        pending = null;
+        if (-1 == read) {
+            return false;
+        }
+
+        position += read;
+        ByteBuffer filled = spare;
+        filled.flip();
+        spare = current;
+        current = filled;
+        requestNext();
+        return true;
+    }
+
+    private void requestNext() {
+        spare.clear();
+        pending = channel.read(spare, position);
+    }
+
+    private static int await(Future<Integer> read) throws IOException {
+        try {
+            return read.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading file");
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to read file", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.AsyncStorageService;
+import de.adorsys.datasafe.storage.api.ExecutorAsyncStorageService;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Filesystem {@link AsyncStorageService} that reads and writes file content using {@link AsynchronousFileChannel}.
+ * Written file is committed the same way {@link FileSystemStorageService} commits it, so that both give the same
+ * atomicity and durability guarantees (see {@link FileSystemStorageConfig#isAtomicWrite()} and {@link FsyncMode}).
+ * Operations that have no asynchronous filesystem API (list, remove, exists) are executed
+ * by {@link FileSystemStorageService} using {@code executorService}.
+ */
+@Slf4j
+public class AsyncFileSystemStorageService implements AsyncStorageService {
+
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private static final Set<OpenOption> READ = Collections.singleton(StandardOpenOption.READ);
+    private static final Set<OpenOption> WRITE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING
+    )));
+
+    private final FileSystemStorageService storage;
+    private final ExecutorService executorService;
+    private final ExecutorAsyncStorageService blockingOperations;
+
+    /**
+     * @param dir Storage root
+     * @param executorService Pool that handles channel completion and blocking filesystem operations
+     */
+    public AsyncFileSystemStorageService(Uri dir, ExecutorService executorService, FileSystemStorageConfig config) {
+        this.storage = new FileSystemStorageService(dir, config);
+        this.executorService = executorService;
+        this.blockingOperations = new ExecutorAsyncStorageService(storage, executorService);
+    }
+
+    public AsyncFileSystemStorageService(Uri dir, ExecutorService executorService) {
+        this(dir, executorService, FileSystemStorageConfig.DEFAULT);
+    }
+
+    public AsyncFileSystemStorageService(Path dir, ExecutorService executorService) {
+        this(new Uri(dir.toUri()), executorService);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> objectExists(AbsoluteLocation location) {
+        return blockingOperations.objectExists(location);
+    }
+
+    @Override
+    public CompletableFuture<List<AbsoluteLocation<ResolvedResource>>> list(AbsoluteLocation location) {
+        return blockingOperations.list(location);
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(AbsoluteLocation location) {
+        return blockingOperations.remove(location);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> read(AbsoluteLocation location) {
+        CompletableFuture<InputStream> result = new CompletableFuture<>();
+        try {
+            Path filePath = storage.resolveFile(location.location().asURI(), false);
+            log.debug("Async read file: {}", Obfuscate.secure(filePath));
+            AsynchronousFileChannel channel = AsynchronousFileChannel.open(filePath, READ, executorService);
+            result.complete(new AsyncFileChannelInputStream(channel, READ_CHUNK));
+        } catch (IOException | RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> write(AbsoluteLocation location, ByteBuffer content) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            Path filePath = storage.resolveFile(location.location().asURI(), true);
+            Path tempPath = storage.writePath(filePath);
+            log.debug("Async write file: {}", Obfuscate.secure(filePath));
+            AsynchronousFileChannel channel = openForWrite(tempPath);
+            writeRemaining(channel, content.slice(), 0L, new PendingFile(tempPath, filePath), result);
+        } catch (IOException | RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+
+        return result;
+    }
+
+    /**
+     * Stream of {@link FileSystemStorageService} is returned, so that content is written as it comes.
+     */
+    @Override
+    public CompletableFuture<OutputStream> openWrite(AbsoluteLocation location) {
+        return blockingOperations.openWrite(location);
+    }
+
+    private AsynchronousFileChannel openForWrite(Path file) throws IOException {
+        try {
+            return AsynchronousFileChannel.open(file, WRITE, executorService);
+        } catch (NoSuchFileException ex) {
+            storage.recreateParent(file);
+            return AsynchronousFileChannel.open(file, WRITE, executorService);
+        }
+    }
+
+    // Single write call can write only part of the buffer, so writing continues from completion handler
+    private void writeRemaining(AsynchronousFileChannel channel, ByteBuffer content, long position,
+                                PendingFile file, CompletableFuture<Void> result) {
+        channel.write(content, position, null, new CompletionHandler<Integer, Void>() {
+
+            @Override
+            public void completed(Integer written, Void attachment) {
+                if (content.hasRemaining()) {
+                    writeRemaining(channel, content, position + written, file, result);
+                    return;
+                }
+
+                try {
+                    storage.committer().commit(channel, file.temp, file.target);
+                    result.complete(null);
+                } catch (IOException | RuntimeException ex) {
+                    failed(ex, attachment);
+                }
+            }
+
+            @Override
+            public void failed(Throwable ex, Void attachment) {
+                try {
+                    storage.committer().abort(channel, file.temp, file.target);
+                } catch (IOException abortEx) {
+                    ex.addSuppressed(abortEx);
+                }
+
+                result.completeExceptionally(ex);
+            }
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingFile {
+
+        private final Path temp;
+        private final Path target;
+    }
+}
@@ -0,0 +1,51 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps released direct buffers for reuse, as their allocation is expensive and memory is returned only when
+ * they are garbage collected.
+ */
+class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+
+    private final Queue<ByteBuffer> pooled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return Cleared buffer of {@code bufferSize} bytes
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = pooled.poll();
+        if (null == buffer) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        pooledCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (pooledCount.incrementAndGet() > maxPooled) {
+            pooledCount.decrementAndGet();
+            return;
+        }
+
+        pooled.offer(buffer);
+    }
+}
@@ -0,0 +1,179 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads file using {@link FileChannel} into pooled direct buffer, files of at least {@code mmapThreshold} bytes
+ * are memory-mapped region by region instead. Content can be sent without copying it to Java heap using
+ * {@link FileChannelInputStream#transferTo(WritableByteChannel)}, i.e. to socket channel when serving file.
+ */
+public class FileChannelInputStream extends InputStream {
+
+    private static final long MAX_MAPPED_REGION = 1024L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final DirectBufferPool bufferPool;
+    private final boolean mapped;
+
+    // bytes that were fetched from the file but not read yet
+    private ByteBuffer current;
+    private ByteBuffer pooled;
+    // file position of the byte following the fetched ones
+    private long position;
+    private boolean closed;
+
+    FileChannelInputStream(FileChannel channel, DirectBufferPool bufferPool, long mmapThreshold) throws IOException {
+        this.channel = channel;
+        this.bufferPool = bufferPool;
+        this.mapped = channel.size() >= mmapThreshold;
+        if (!mapped) {
+            this.pooled = bufferPool.acquire();
+            this.current = pooled;
+            this.current.limit(0);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return -1 == read ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        ensureOpen();
+        if (0 == len) {
+            return 0;
+        }
+
+        while (null == current || !current.hasRemaining()) {
+            if (!fetch()) {
+                return -1;
+            }
+        }
+
+        int read = Math.min(len, current.remaining());
+        current.get(bytes, off, read);
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0) {
+            return 0;
+        }
+
+        long skipped = 0;
+        if (null != current) {
+            skipped = Math.min(n, current.remaining());
+            current.position(current.position() + (int) skipped);
+        }
+
+        long fromFile = Math.min(n - skipped, Math.max(0, channel.size() - position));
+        position += fromFile;
+        return skipped + fromFile;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        long remaining = (null == current ? 0 : current.remaining()) + Math.max(0, channel.size() - position);
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+    }
+
+    /**
+     * Sends remaining content to {@code target}, file content that is not buffered yet is sent using
+     * {@link FileChannel#transferTo} which avoids copying it through Java heap where operating system allows.
+     * @return Amount of bytes sent
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        ensureOpen();
+        long transferred = 0;
+        if (null != current) {
+            while (current.hasRemaining()) {
+                transferred += target.write(current);
+            }
+        }
+
+        long size = channel.size();
+        while (position < size) {
+            long sent = channel.transferTo(position, size - position, target);
+            if (sent <= 0) {
+                break;
+            }
+
+            position += sent;
+            transferred += sent;
+        }
+
+        return transferred;
+    }
+
+    /**
+     * Sends remaining content to {@code target}, see {@link FileChannelInputStream#transferTo(WritableByteChannel)}.
+     * @return Amount of bytes sent
+     */
+    public long transferTo(OutputStream target) throws IOException {
+        if (target instanceof FileOutputStream) {
+            return transferTo(((FileOutputStream) target).getChannel());
+        }
+
+        long transferred = transferTo(Channels.newChannel(target));
+        target.flush();
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        current = null;
+        if (null != pooled) {
+            bufferPool.release(pooled);
+            pooled = null;
+        }
+
+        channel.close();
+    }
+
+    private boolean fetch() throws IOException {
+        if (mapped) {
+            long toMap = Math.min(MAX_MAPPED_REGION, channel.size() - position);
+            if (toMap <= 0) {
+                return false;
+            }
+
+            current = channel.map(FileChannel.MapMode.READ_ONLY, position, toMap);
+            position += toMap;
+            return true;
+        }
+
+        current.clear();
+        int read = channel.read(current, position);
+        current.flip();
+        if (-1 == read) {
+            return false;
+        }
+
+        position += read;
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
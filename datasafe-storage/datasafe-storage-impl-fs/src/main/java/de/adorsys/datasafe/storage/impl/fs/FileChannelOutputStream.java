@@ -0,0 +1,120 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.AbortableStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Writes file using {@link FileChannel}, content is collected in pooled direct buffer and written once it is full,
+ * so that channel does not copy it into temporary direct buffer on each write. Content is written to
+ * {@code temp} file that is committed to {@code target} when stream is closed, or removed if writing failed.
+ */
+class FileChannelOutputStream extends OutputStream implements AbortableStream {
+
+    private final FileChannel channel;
+    private final DirectBufferPool bufferPool;
+    private final FileCommitter committer;
+    private final Path temp;
+    private final Path target;
+
+    private ByteBuffer buffer;
+
+    FileChannelOutputStream(FileChannel channel, DirectBufferPool bufferPool, FileCommitter committer,
+                            Path temp, Path target) {
+        this.channel = channel;
+        this.bufferPool = bufferPool;
+        this.committer = committer;
+        this.temp = temp;
+        this.target = target;
+        this.buffer = bufferPool.acquire();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+
+            int toPut = Math.min(len, buffer.remaining());
+            buffer.put(bytes, off, toPut);
+            off += toPut;
+            len -= toPut;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null == buffer) {
+            return;
+        }
+
+        boolean committed = false;
+        try {
+            drain();
+            committer.commit(channel, temp, target);
+            committed = true;
+        } finally {
+            bufferPool.release(buffer);
+            buffer = null;
+            if (!committed) {
+                discard();
+            }
+        }
+    }
+
+    @Override
+    public void abort() {
+        if (null == buffer) {
+            return;
+        }
+
+        bufferPool.release(buffer);
+        buffer = null;
+        discard();
+    }
+
+    // Failure of writing is reported instead
+    private void discard() {
+        try {
+            committer.abort(channel, temp, target);
+        } catch (IOException ex) {
+            // temp file is ignored by listing
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (null == buffer) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Completes written file: syncs it according to {@link FsyncMode} and renames temporary file to its target,
+ * so that readers see either previous or complete new content.
+ */
+class FileCommitter {
+
+    private final FsyncMode mode;
+    private final long groupCommitIntervalNanos;
+
+    private final List<Pending> batch = new ArrayList<>();
+    private final AtomicLong directorySyncs = new AtomicLong();
+    private ScheduledExecutorService groupCommitExecutor;
+
+    FileCommitter(FsyncMode mode, long groupCommitIntervalNanos) {
+        this.mode = mode;
+        this.groupCommitIntervalNanos = groupCommitIntervalNanos;
+    }
+
+    /**
+     * Syncs and closes {@code channel} of {@code temp} file and moves it to {@code target}.
+     * In {@link FsyncMode#GROUP_COMMIT} mode waits for directory of {@code target} to be synced with the batch.
+     * @param channel {@link FileChannel} or {@link AsynchronousFileChannel} of {@code temp} file
+     */
+    void commit(Channel channel, Path temp, Path target) throws IOException {
+        switch (mode) {
+            case NONE:
+                channel.close();
+                move(temp, target);
+                return;
+            case ON_CLOSE:
+                forceAndClose(channel);
+                move(temp, target);
+                syncDir(target.getParent());
+                return;
+            case GROUP_COMMIT:
+                forceAndClose(channel);
+                move(temp, target);
+                await(enqueue(new Pending(target.getParent())));
+                return;
+            default:
+                throw new IllegalStateException("Unknown mode " + mode);
+        }
+    }
+
+    /**
+     * Closes {@code channel} of the file that won't be committed and removes {@code temp} file.
+     */
+    void abort(Channel channel, Path temp, Path target) throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (!temp.equals(target)) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Renames {@code source} file to {@code target}, directories of both are synced unless mode is
+     * {@link FsyncMode#NONE}.
+     */
+    void rename(Path source, Path target) throws IOException {
+        move(source, target);
+        if (FsyncMode.NONE != mode) {
+            syncDir(target.getParent());
+            if (!source.getParent().equals(target.getParent())) {
+                syncDir(source.getParent());
+            }
+        }
+    }
+
+    // The first file of the batch schedules its commit
+    private synchronized CompletableFuture<Void> enqueue(Pending pending) {
+        if (batch.isEmpty()) {
+            if (null == groupCommitExecutor) {
+                groupCommitExecutor = Executors.newSingleThreadScheduledExecutor(
+                        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fs-group-commit-%d").build()
+                );
+            }
+
+            groupCommitExecutor.schedule(this::commitBatch, groupCommitIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+
+        batch.add(pending);
+        return pending.result;
+    }
+
+    private void commitBatch() {
+        List<Pending> toCommit;
+        synchronized (this) {
+            toCommit = new ArrayList<>(batch);
+            batch.clear();
+        }
+
+        // file content was synced by writers, renames are durable once their directories are synced,
+        // each directory is synced once per batch
+        Set<Path> dirs = new LinkedHashSet<>();
+        toCommit.forEach(it -> dirs.add(it.dir));
+        dirs.forEach(this::syncDir);
+        toCommit.forEach(it -> it.result.complete(null));
+    }
+
+    /**
+     * @return How many times directories were synced
+     */
+    long directorySyncs() {
+        return directorySyncs.get();
+    }
+
+    private static void forceAndClose(Channel channel) throws IOException {
+        try {
+            if (channel instanceof AsynchronousFileChannel) {
+                ((AsynchronousFileChannel) channel).force(false);
+            } else {
+                ((FileChannel) channel).force(false);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        if (temp.equals(target)) {
+            return;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void syncDir(Path dir) {
+        directorySyncs.incrementAndGet();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // directories can't be opened or synced on some platforms (i.e. Windows)
+        }
+    }
+
+    private static void await(CompletableFuture<Void> result) throws IOException {
+        try {
+            result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for file sync");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+
+            throw new IOException("Failed to commit file", ex.getCause());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Pending {
+
+        private final Path dir;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,124 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Moves files of existing {@link FileSystemStorageService} tree to locations of the layout given by
+ * {@link FileSystemStorageConfig#getShardLevels()} and {@link FileSystemStorageConfig#getShardWidth()},
+ * shard directories left empty are removed. Files are moved by linking them to the new location, which never
+ * replaces existing file, and unlinking the old one, so migration to sharded layout can run while storage is used
+ * with the new layout - files that are not moved yet are read from their old location.
+ * Migration from sharded to flat layout should be done while storage is not used.
+ * If file exists in both locations, one in the target layout is kept as it was written later.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FileSystemLayoutMigration {
+
+    private final Path root;
+    private final FileSystemStorageConfig config;
+
+    /**
+     * @return Amount of moved files
+     */
+    @SneakyThrows
+    public long migrate() {
+        ShardedLayout layout = config.layout();
+        AtomicLong moved = new AtomicLong();
+        FileTreeSpliterator.OpenStreams openStreams = new FileTreeSpliterator.OpenStreams();
+        try (Stream<FileTreeSpliterator.Entry> files =
+                     StreamSupport.stream(FileTreeSpliterator.walk(root, openStreams), config.isParallelList())) {
+            files.onClose(openStreams::close)
+                    .map(FileTreeSpliterator.Entry::getPath)
+                    .filter(FileSystemStorageService::isNotTemp)
+                    .forEach(it -> {
+                        Path target = layout.physical(ShardedLayout.logical(root, it));
+                        if (!target.equals(it) && move(it, target)) {
+                            moved.incrementAndGet();
+                        }
+                    });
+        }
+
+        removeEmptyShardDirs();
+        log.info("Moved {} files to new layout in {}", moved.get(), Obfuscate.secure(root));
+        return moved.get();
+    }
+
+    /**
+     * Usage: {@code FileSystemLayoutMigration <storage root> <shard levels> [<shard width>]}
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: <storage root> <shard levels> [<shard width>]");
+        }
+
+        FileSystemStorageConfig.FileSystemStorageConfigBuilder config = FileSystemStorageConfig.builder()
+                .shardLevels(Integer.parseInt(args[1]))
+                .parallelList(true);
+        if (args.length > 2) {
+            config.shardWidth(Integer.parseInt(args[2]));
+        }
+
+        new FileSystemLayoutMigration(Paths.get(args[0]).toAbsolutePath(), config.build()).migrate();
+    }
+
+    // Target is linked, as link never replaces existing file, unlike rename. If target exists, writer using
+    // new layout won and old file is dropped
+    @SneakyThrows
+    private static boolean move(Path from, Path to) {
+        Files.createDirectories(to.getParent());
+        try {
+            link(from, to);
+        } catch (FileAlreadyExistsException ex) {
+            Files.deleteIfExists(from);
+            return false;
+        }
+
+        Files.deleteIfExists(from);
+        return true;
+    }
+
+    private static void link(Path from, Path to) throws IOException {
+        try {
+            Files.createLink(to, from);
+        } catch (UnsupportedOperationException ex) {
+            // move without REPLACE_EXISTING still fails if target exists, though not atomically
+            Files.move(from, to);
+        }
+    }
+
+    private void removeEmptyShardDirs() throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (null == exc && ShardedLayout.isShardDir(dir) && isEmpty(dir)) {
+                    Files.deleteIfExists(dir);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isEmpty(Path dir) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            return !entries.iterator().hasNext();
+        }
+    }
+}
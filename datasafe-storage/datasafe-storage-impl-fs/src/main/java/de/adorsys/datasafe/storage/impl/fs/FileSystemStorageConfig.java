@@ -0,0 +1,96 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Tuning options of {@link FileSystemStorageService} file content access.
+ */
+@Value
+@Builder(toBuilder = true)
+public class FileSystemStorageConfig {
+
+    public static final FileSystemStorageConfig DEFAULT = FileSystemStorageConfig.builder().build();
+
+    private static final int KB = 1024;
+    private static final long MB = 1024L * KB;
+
+    /**
+     * Read and write files using {@link java.nio.channels.FileChannel} with direct buffers, otherwise plain
+     * heap streams are used.
+     */
+    @Builder.Default
+    private final boolean fileChannelIo = true;
+
+    /**
+     * Size of direct buffer used by single stream, buffers are pooled and reused by subsequent streams.
+     */
+    @Builder.Default
+    private final int bufferSize = 256 * KB;
+
+    /**
+     * How many released direct buffers are kept for reuse.
+     */
+    @Builder.Default
+    private final int maxPooledBuffers = 64;
+
+    /**
+     * Files of at least this size are memory-mapped when read, {@link Long#MAX_VALUE} disables mapping.
+     * Mapped regions are released only when garbage collected, so it should be used for large files only.
+     */
+    @Builder.Default
+    private final long mmapThreshold = 16 * MB;
+
+    /**
+     * Write content to temporary file in the same directory and rename it to the target when stream is closed,
+     * so that readers never see partially written file (file channel IO only).
+     */
+    @Builder.Default
+    private final boolean atomicWrite = true;
+
+    /**
+     * When written files are synced to storage device (file channel IO only).
+     */
+    @Builder.Default
+    private final FsyncMode fsyncMode = FsyncMode.NONE;
+
+    /**
+     * How long files closed by concurrent writers are collected before their directories are synced together
+     * ({@link FsyncMode#GROUP_COMMIT} only).
+     */
+    @Builder.Default
+    private final Duration groupCommitInterval = Duration.ofMillis(10);
+
+    /**
+     * List directory subtrees in parallel using common fork/join pool, useful for large trees on storage that
+     * serves concurrent metadata requests well (i.e. SSD or network filesystem).
+     */
+    @Builder.Default
+    private final boolean parallelList = false;
+
+    /**
+     * Amount of nested shard directories named by hash of file name files are placed into, 0 disables sharding.
+     * Locations of files are not affected, existing tree can be moved to the new layout using
+     * {@link FileSystemLayoutMigration}.
+     */
+    @Builder.Default
+    private final int shardLevels = 0;
+
+    /**
+     * Hex chars of file name hash used as shard directory name, each level of width 2 fans out to 256 directories.
+     */
+    @Builder.Default
+    private final int shardWidth = 2;
+
+    /**
+     * How many directories known to exist are remembered, so that their existence is not checked on each write.
+     */
+    @Builder.Default
+    private final long knownDirectoriesCacheSize = 10_000;
+
+    ShardedLayout layout() {
+        return 0 == shardLevels ? ShardedLayout.NONE : new ShardedLayout(shardLevels, shardWidth);
+    }
+}
@@ -3,37 +3,93 @@ package de.adorsys.datasafe.storage.impl.fs;
 import com.google.common.io.MoreFiles;
 import com.google.common.io.RecursiveDeleteOption;
 import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.actions.PagedListing;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.time.Instant;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Filesystem ({@link java.nio.file}) compatible storage service default implementation.
+ * File content is accessed using {@link FileChannel} with direct buffers, see {@link FileSystemStorageConfig}.
+ * Files can be spread into hashed shard directories while their locations stay the same,
+ * see {@link FileSystemStorageConfig#getShardLevels()}.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class FileSystemStorageService implements StorageService {
 
+    private static final Set<OpenOption> READ = Collections.singleton(StandardOpenOption.READ);
+    private static final Set<OpenOption> WRITE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING
+    )));
+
+    private static final String TEMP_PREFIX = ".~";
+    private static final String TEMP_SUFFIX = ".tmp";
+
     private final Uri dir;
+    private final Path root;
+    private final FileSystemStorageConfig config;
+    private final DirectBufferPool bufferPool;
+    private final ShardedLayout layout;
+    private final FileCommitter committer;
+    private final KnownDirectories directories;
+
+    public FileSystemStorageService(Uri dir, FileSystemStorageConfig config) {
+        this.dir = dir;
+        this.root = Paths.get(dir.asURI());
+        this.config = config;
+        this.bufferPool = new DirectBufferPool(config.getBufferSize(), config.getMaxPooledBuffers());
+        this.layout = config.layout();
+        this.committer = new FileCommitter(config.getFsyncMode(), config.getGroupCommitInterval().toNanos());
+        this.directories = new KnownDirectories(config.getKnownDirectoriesCacheSize());
+    }
+
+    public FileSystemStorageService(Uri dir) {
+        this(dir, FileSystemStorageConfig.DEFAULT);
+    }
+
+    public FileSystemStorageService(Path dir, FileSystemStorageConfig config) {
+        this(new Uri(dir.toUri()), config);
+    }
 
     public FileSystemStorageService(Path dir) {
-        this.dir = new Uri(dir.toUri());
+        this(dir, FileSystemStorageConfig.DEFAULT);
     }
 
     /**
-     * Lists resources and returns their location without access credentials.
+     * Lists resources and returns their location without access credentials. Directory tree is walked lazily
+     * reading attributes of each entry once, with {@link FileSystemStorageConfig#isParallelList()} subtrees
+     * are walked in parallel.
      */
     @SneakyThrows
     @Override
@@ -42,38 +98,136 @@ public class FileSystemStorageService implements StorageService {
         Path filePath = resolve(path.location().asURI(), false);
         log.debug("List file: {}", Obfuscate.secure(filePath));
 
+        BasicFileAttributes attributes = attributesOrNull(filePath);
+        if (null == attributes && layout.isSharded()) {
+            attributes = attributesOrNull(layout.physical(filePath));
+        }
+
         // FS should be compatible with s3 behavior:
-        if (!filePath.toFile().exists()) {
+        if (null == attributes) {
             return Stream.empty();
         }
 
-        return Files.walk(filePath)
-                .filter(it -> !it.startsWith("."))
-                .filter(it -> !it.toFile().isDirectory())
-                .map(it -> new AbsoluteLocation<>(
-                        new BaseResolvedResource(
-                                new BasePrivateResource(new Uri(it.toUri())),
-                                Instant.ofEpochMilli(it.toFile().lastModified()))
-                        )
-                );
+        if (!attributes.isDirectory()) {
+            return Stream.of(resolved(filePath, attributes));
+        }
+
+        FileTreeSpliterator.OpenStreams openStreams = new FileTreeSpliterator.OpenStreams();
+        return StreamSupport.stream(FileTreeSpliterator.walk(filePath, openStreams), config.isParallelList())
+                .onClose(openStreams::close)
+                .filter(it -> isNotTemp(it.getPath()))
+                .map(it -> resolved(logical(it.getPath()), it.getAttributes()));
+    }
+
+    /**
+     * Lists only direct children of the directory, sub-directories have location ending with '/'.
+     * Files inside shard directories are listed as direct children.
+     */
+    @SneakyThrows
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation path) {
+        log.debug("List shallow request: {}", Obfuscate.secure(path));
+        Path dirPath = resolve(path.location().asURI(), false);
+
+        // FS should be compatible with s3 behavior:
+        if (!Files.isDirectory(dirPath)) {
+            return Stream.empty();
+        }
+
+        return children(dirPath)
+                .map(it -> {
+                    BasicFileAttributes attributes = attributesOrNull(it);
+                    boolean isDir = null == attributes || attributes.isDirectory();
+                    if (isDir) {
+                        return new AbsoluteLocation<ResolvedResource>(
+                                new BaseResolvedResource(new BasePrivateResource(new Uri(logical(it).toUri())), null)
+                        );
+                    }
+
+                    return resolved(logical(it), attributes);
+                });
+    }
+
+    /**
+     * Lists single page walking directory tree in order of file names. Walk resumes right after the file
+     * that ended previous page, so each page reads only directories on its way instead of the whole tree.
+     */
+    @SneakyThrows
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation path, String continuationToken, int pageSize) {
+        log.debug("List page request: {}", Obfuscate.secure(path));
+        PagedListing.validatePageSize(pageSize);
+        String afterKey = PagedListing.afterKey(continuationToken);
+        Path filePath = resolve(path.location().asURI(), false);
+
+        BasicFileAttributes attributes = attributesOrNull(filePath);
+        if (null == attributes && layout.isSharded()) {
+            attributes = attributesOrNull(layout.physical(filePath));
+        }
+
+        if (null == attributes || (!attributes.isDirectory() && null != afterKey)) {
+            return new ListPage<>(Collections.emptyList(), null);
+        }
+
+        if (!attributes.isDirectory()) {
+            return new ListPage<>(Collections.singletonList(resolved(filePath, attributes)), null);
+        }
+
+        SortedFileWalk walk = new SortedFileWalk(
+                filePath,
+                null == afterKey ? Collections.emptyList() : Arrays.asList(afterKey.split("/")),
+                pageSize + 1,
+                this::childrenAfter,
+                this::logicalName
+        );
+
+        List<AbsoluteLocation<ResolvedResource>> items = new ArrayList<>();
+        Path last = null;
+        while (items.size() < pageSize && walk.hasNext()) {
+            FileTreeSpliterator.Entry entry = walk.next();
+            last = logical(entry.getPath());
+            items.add(resolved(last, entry.getAttributes()));
+        }
+
+        return new ListPage<>(items, walk.hasNext() ? PagedListing.token(relativeKey(filePath, last)) : null);
     }
 
+    /**
+     * Reads file content, with {@link FileSystemStorageConfig#isFileChannelIo()} returned stream is
+     * {@link FileChannelInputStream} that can send content without copying it.
+     */
     @SneakyThrows
     @Override
     public InputStream read(AbsoluteLocation path) {
         log.debug("Read file request: {}", Obfuscate.secure(path));
-        Path filePath = resolve(path.location().asURI(), false);
+        Path filePath = resolveFile(path.location().asURI(), false);
         log.debug("Read file: {}", Obfuscate.secure(filePath));
-        return MoreFiles.asByteSource(filePath, StandardOpenOption.READ).openStream();
+        if (!config.isFileChannelIo()) {
+            return MoreFiles.asByteSource(filePath, StandardOpenOption.READ).openStream();
+        }
+
+        FileChannel channel = FileChannel.open(filePath, READ);
+        try {
+            return new FileChannelInputStream(channel, bufferPool, config.getMmapThreshold());
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
     }
 
     @SneakyThrows
     @Override
     public OutputStream write(AbsoluteLocation path) {
         log.debug("Write file request: {}", Obfuscate.secure(path.location()));
-        Path filePath = resolve(path.location().asURI(), true);
+        Path filePath = resolveFile(path.location().asURI(), true);
         log.debug("Write file: {}", Obfuscate.secure(filePath));
-        return MoreFiles.asByteSink(filePath, StandardOpenOption.CREATE).openStream();
+        if (!config.isFileChannelIo()) {
+            return MoreFiles.asByteSink(filePath, StandardOpenOption.CREATE).openStream();
+        }
+
+        Path tempPath = writePath(filePath);
+        return new FileChannelOutputStream(openForWrite(tempPath), bufferPool, committer, tempPath, filePath);
     }
 
     @SneakyThrows
@@ -86,24 +240,290 @@ public class FileSystemStorageService implements StorageService {
 
         Path path = resolve(location.location().asURI(), false);
         boolean isFile = !path.toFile().isDirectory();
-        MoreFiles.deleteRecursively(path, RecursiveDeleteOption.ALLOW_INSECURE);
+        if (!isFile) {
+            directories.forget(path);
+        }
+
+        if (Files.exists(path)) {
+            MoreFiles.deleteRecursively(path, RecursiveDeleteOption.ALLOW_INSECURE);
+        }
+
+        if (layout.isSharded() && isFile) {
+            Files.deleteIfExists(layout.physical(path));
+        }
         log.debug("deleted {} at: {}", isFile ? "file" : "directory", Obfuscate.secure(location));
     }
 
+    /**
+     * Removes files and directories in parallel, locations nested inside other removed directories are skipped,
+     * as they are removed with their parent.
+     */
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        Set<Path> paths = locations
+                .map(it -> resolve(it.location().asURI(), false))
+                .collect(Collectors.toSet());
+
+        paths.parallelStream()
+                .filter(it -> !hasRemovedAncestor(it, paths))
+                .forEach(this::removePath);
+    }
+
+    /**
+     * Copies file content channel-to-channel into temporary file that is committed like written one.
+     */
+    @SneakyThrows
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        Path sourcePath = resolveFile(source.location().asURI(), false);
+        Path targetPath = resolveFile(target.location().asURI(), true);
+        log.debug("Copy file {} to {}", Obfuscate.secure(sourcePath), Obfuscate.secure(targetPath));
+
+        try (FileChannel sourceChannel = FileChannel.open(sourcePath, READ)) {
+            Path tempPath = tempFile(targetPath);
+            FileChannel channel = openForWrite(tempPath);
+            boolean committed = false;
+            try {
+                long size = sourceChannel.size();
+                for (long position = 0; position < size; ) {
+                    position += sourceChannel.transferTo(position, size - position, channel);
+                }
+                committer.commit(channel, tempPath, targetPath);
+                committed = true;
+            } finally {
+                if (!committed) {
+                    committer.abort(channel, tempPath, targetPath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renames file atomically, so that its content is neither copied nor seen partially written.
+     * Both locations must be on the same file system to be moved atomically.
+     */
+    @SneakyThrows
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        Path sourcePath = resolveFile(source.location().asURI(), false);
+        Path targetPath = resolveFile(target.location().asURI(), true);
+        log.debug("Move file {} to {}", Obfuscate.secure(sourcePath), Obfuscate.secure(targetPath));
+
+        try {
+            committer.rename(sourcePath, targetPath);
+        } catch (NoSuchFileException ex) {
+            if (!Files.exists(sourcePath)) {
+                throw ex;
+            }
+
+            // target directory was removed externally after it was cached
+            recreateParent(targetPath);
+            committer.rename(sourcePath, targetPath);
+        }
+    }
+
     @Override
     public boolean objectExists(AbsoluteLocation location) {
-        boolean exists = Files.exists(resolve(location.location().asURI(), false));
+        Path path = resolve(location.location().asURI(), false);
+        boolean exists = Files.exists(path) || (layout.isSharded() && Files.exists(layout.physical(path)));
         log.debug("exists {} directory at: {}", exists, Obfuscate.secure(location));
         return exists;
     }
 
+    /**
+     * Reads attributes of single file instead of walking it as {@link #list} does.
+     */
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        Path filePath = resolve(location.location().asURI(), false);
+        BasicFileAttributes attributes = attributesOrNull(resolveFile(location.location().asURI(), false));
+        if (null == attributes || attributes.isDirectory()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(resolved(filePath, attributes));
+    }
+
+    private static AbsoluteLocation<ResolvedResource> resolved(Path path, BasicFileAttributes attributes) {
+        return new AbsoluteLocation<>(
+                new BaseResolvedResource(
+                        new BasePrivateResource(new Uri(path.toUri())),
+                        attributes.lastModifiedTime().toInstant(),
+                        attributes.size(),
+                        eTag(attributes),
+                        null
+                )
+        );
+    }
+
+    /**
+     * Filesystem has no content tags, so the tag is derived from modification time and size, as HTTP servers do
+     * for static files.
+     */
+    static String eTag(BasicFileAttributes attributes) {
+        return Long.toHexString(attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS))
+                + "-" + Long.toHexString(attributes.size());
+    }
+
+    // Entry removed meanwhile is reported as directory, as it has no modification date
+    @SneakyThrows
+    private static BasicFileAttributes attributesOrNull(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+    }
+
+    private static boolean hasRemovedAncestor(Path path, Set<Path> removed) {
+        for (Path parent = path.getParent(); null != parent; parent = parent.getParent()) {
+            if (removed.contains(parent)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @SneakyThrows
+    private void removePath(Path path) {
+        if (Files.isDirectory(path)) {
+            directories.forget(path);
+            MoreFiles.deleteRecursively(path, RecursiveDeleteOption.ALLOW_INSECURE);
+        } else {
+            Files.deleteIfExists(path);
+            if (layout.isSharded()) {
+                Files.deleteIfExists(layout.physical(path));
+            }
+        }
+
+        log.debug("deleted {}", Obfuscate.secure(path));
+    }
+
+    // Files inside shard directories are direct children of directory that holds the shard directory
+    private Stream<Path> children(Path dir) throws IOException {
+        return Files.list(dir)
+                .flatMap(it -> layout.isSharded() && ShardedLayout.isShardDir(it) ? listShards(it) : Stream.of(it))
+                .filter(FileSystemStorageService::isNotTemp);
+    }
+
+    // Keeps only the first entries in bounded heap instead of sorting whole directory,
+    // directory removed meanwhile has no entries
+    @SneakyThrows
+    private List<Path> childrenAfter(Path dir, String after, int limit) {
+        Comparator<Map.Entry<String, Path>> byName = Map.Entry.comparingByKey();
+        PriorityQueue<Map.Entry<String, Path>> first = new PriorityQueue<>(limit + 1, byName.reversed());
+        try (Stream<Path> children = children(dir)) {
+            children.forEach(it -> {
+                String name = logicalName(it);
+                if (null != after && name.compareTo(after) <= 0) {
+                    return;
+                }
+
+                first.add(new AbstractMap.SimpleImmutableEntry<>(name, it));
+                if (first.size() > limit) {
+                    first.poll();
+                }
+            });
+        } catch (NoSuchFileException ex) {
+            return Collections.emptyList();
+        }
+
+        return first.stream().sorted(byName).map(Map.Entry::getValue).collect(Collectors.toList());
+    }
+
+    private String logicalName(Path physical) {
+        return logical(physical).getFileName().toString();
+    }
+
+    private static String relativeKey(Path dir, Path file) {
+        List<String> names = new ArrayList<>();
+        dir.relativize(file).forEach(it -> names.add(it.toString()));
+        return String.join("/", names);
+    }
+
+    // Shard directory holds only nested shard directories and files, so it is small and is listed eagerly
+    private Stream<Path> listShards(Path shardDir) {
+        FileTreeSpliterator.OpenStreams openStreams = new FileTreeSpliterator.OpenStreams();
+        try (Stream<FileTreeSpliterator.Entry> files =
+                     StreamSupport.stream(FileTreeSpliterator.walk(shardDir, openStreams), false)) {
+            return files.onClose(openStreams::close)
+                    .map(FileTreeSpliterator.Entry::getPath)
+                    .collect(Collectors.toList())
+                    .stream();
+        }
+    }
+
+    private static Path tempFile(Path file) {
+        return file.resolveSibling(TEMP_PREFIX + file.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+    }
+
+    // Temporary files of writes in progress (or abandoned) are never listed
+    static boolean isNotTemp(Path path) {
+        String name = path.getFileName().toString();
+        return !(name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX));
+    }
+
+    private Path logical(Path physical) {
+        return layout.isSharded() ? ShardedLayout.logical(root, physical) : physical;
+    }
+
+    /**
+     * Resolves where file content is stored. Unless writing, file that is not in its shard directory yet
+     * (tree is being migrated) is resolved to its unsharded location.
+     */
+    protected Path resolveFile(URI uri, boolean forWrite) {
+        if (!layout.isSharded()) {
+            return resolve(uri, forWrite);
+        }
+
+        Path logical = resolve(uri, false);
+        Path physical = layout.physical(logical);
+        if (forWrite) {
+            ensureParentExists(physical);
+            return physical;
+        }
+
+        return !Files.exists(physical) && Files.exists(logical) ? logical : physical;
+    }
+
     protected Path resolve(URI uri, boolean mkDirs) {
         Path path = Paths.get(dir.resolve(uri).asURI());
-        if (!path.getParent().toFile().exists() && mkDirs) {
-            log.debug("Creating directories for: {}", Obfuscate.secure(path));
-            path.getParent().toFile().mkdirs();
+        if (mkDirs) {
+            ensureParentExists(path);
         }
 
-        return Paths.get(dir.resolve(uri).asURI());
+        return path;
+    }
+
+    // Directory could be removed externally after it was cached, so it is created again in such case
+    private FileChannel openForWrite(Path file) throws IOException {
+        try {
+            return FileChannel.open(file, WRITE);
+        } catch (NoSuchFileException ex) {
+            recreateParent(file);
+            return FileChannel.open(file, WRITE);
+        }
+    }
+
+    /**
+     * Path where content of {@code file} is written before it is committed by {@link #committer()}.
+     */
+    Path writePath(Path file) {
+        return config.isAtomicWrite() ? tempFile(file) : file;
+    }
+
+    FileCommitter committer() {
+        return committer;
+    }
+
+    void recreateParent(Path file) {
+        directories.forget(file.getParent());
+        ensureParentExists(file);
+    }
+
+    @SneakyThrows
+    private void ensureParentExists(Path file) {
+        directories.ensureExists(file.getParent());
     }
 }
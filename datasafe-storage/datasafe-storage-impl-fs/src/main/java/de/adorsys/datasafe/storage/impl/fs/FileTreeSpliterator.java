@@ -0,0 +1,217 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Lazily walks file tree and provides files (not directories) together with their attributes, that are read
+ * using single call per entry. Directories found but not walked yet can be split off, so that parallel stream
+ * walks subtrees using fork/join pool, if there are none - batches of entries of directory being walked are split
+ * off, so that large flat directory is processed in parallel too. Like {@link Files#walk}, symbolic links
+ * to directories are not followed. Entries removed during the walk are skipped.
+ */
+class FileTreeSpliterator implements Spliterator<FileTreeSpliterator.Entry> {
+
+    private static final int ENTRIES_PER_SPLIT = 1024;
+
+    private final Deque<Path> pendingDirs = new ArrayDeque<>();
+    private final OpenStreams openStreams;
+
+    private DirectoryStream<Path> current;
+    private Iterator<Path> currentEntries;
+
+    private FileTreeSpliterator(OpenStreams openStreams) {
+        this.openStreams = openStreams;
+    }
+
+    /**
+     * @param root Directory to walk
+     * @param openStreams Registry that closes directory streams left open if walk is not finished
+     */
+    static FileTreeSpliterator walk(Path root, OpenStreams openStreams) {
+        FileTreeSpliterator result = new FileTreeSpliterator(openStreams);
+        result.pendingDirs.add(root);
+        return result;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Entry> action) {
+        while (true) {
+            if (null == currentEntries && !openNextDir()) {
+                return false;
+            }
+
+            if (!currentEntries.hasNext()) {
+                closeCurrent();
+                continue;
+            }
+
+            Path path = currentEntries.next();
+            BasicFileAttributes attributes = attributes(path);
+            if (null == attributes) {
+                continue;
+            }
+
+            if (attributes.isDirectory()) {
+                pendingDirs.add(path);
+                continue;
+            }
+
+            action.accept(new Entry(path, attributes));
+            return true;
+        }
+    }
+
+    /**
+     * Splits off half of directories that are found but not walked yet, or batch of entries of current directory
+     * if there are no such.
+     */
+    @Override
+    public Spliterator<Entry> trySplit() {
+        int toSplit = null == currentEntries ? pendingDirs.size() / 2 : (pendingDirs.size() + 1) / 2;
+        if (0 == toSplit) {
+            return splitEntries();
+        }
+
+        FileTreeSpliterator split = new FileTreeSpliterator(openStreams);
+        for (int i = 0; i < toSplit; i++) {
+            split.pendingDirs.add(pendingDirs.pollLast());
+        }
+
+        return split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT;
+    }
+
+    // Split reads attributes of its entries itself, directories among them become its pending ones
+    private Spliterator<Entry> splitEntries() {
+        if (null == currentEntries) {
+            return null;
+        }
+
+        List<Path> batch = new ArrayList<>();
+        while (batch.size() < ENTRIES_PER_SPLIT && currentEntries.hasNext()) {
+            batch.add(currentEntries.next());
+        }
+
+        if (batch.isEmpty()) {
+            return null;
+        }
+
+        FileTreeSpliterator split = new FileTreeSpliterator(openStreams);
+        split.currentEntries = batch.iterator();
+        return split;
+    }
+
+    private boolean openNextDir() {
+        while (!pendingDirs.isEmpty()) {
+            Path dir = pendingDirs.pollFirst();
+            try {
+                current = Files.newDirectoryStream(dir);
+                openStreams.add(current);
+                currentEntries = current.iterator();
+                return true;
+            } catch (NoSuchFileException ex) {
+                // removed meanwhile
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        return false;
+    }
+
+    private void closeCurrent() {
+        if (null != current) {
+            openStreams.close(current);
+        }
+        current = null;
+        currentEntries = null;
+    }
+
+    // Links are resolved only for entries that are links, to tell files from directories
+    static BasicFileAttributes attributes(Path path) {
+        try {
+            BasicFileAttributes attributes =
+                    Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isSymbolicLink()) {
+                return attributes;
+            }
+
+            BasicFileAttributes target = Files.readAttributes(path, BasicFileAttributes.class);
+            return target.isDirectory() ? null : target;
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Entry {
+
+        private final Path path;
+        private final BasicFileAttributes attributes;
+    }
+
+    /**
+     * Directory streams opened by spliterator and its splits, closes those still open when stream is closed.
+     */
+    static class OpenStreams implements Closeable {
+
+        private final Queue<DirectoryStream<Path>> streams = new ConcurrentLinkedQueue<>();
+
+        void add(DirectoryStream<Path> stream) {
+            streams.add(stream);
+        }
+
+        void close(DirectoryStream<Path> stream) {
+            streams.remove(stream);
+            closeQuietly(stream);
+        }
+
+        @Override
+        public void close() {
+            DirectoryStream<Path> stream;
+            while (null != (stream = streams.poll())) {
+                closeQuietly(stream);
+            }
+        }
+
+        private static void closeQuietly(DirectoryStream<Path> stream) {
+            try {
+                stream.close();
+            } catch (IOException ex) {
+                // nothing is read from it anymore
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+/**
+ * When written file content is forced to the storage device.
+ */
+public enum FsyncMode {
+
+    /**
+     * Never, operating system writes content when it sees fit - fastest, recently written files can be lost
+     * on power failure.
+     */
+    NONE,
+
+    /**
+     * Each file and its directory are synced when stream is closed, so that file is durable once it is written.
+     */
+    ON_CLOSE,
+
+    /**
+     * Each file is synced by its writer, directories of files closed by concurrent writers within
+     * {@link FileSystemStorageConfig#getGroupCommitInterval()} are synced together, once per batch, writer waits
+     * until its batch is durable. Trades latency for throughput.
+     */
+    GROUP_COMMIT
+}
@@ -0,0 +1,41 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import com.google.common.cache.CacheBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Bounded set of directories known to exist, so that writing file does not check or create its directory each time.
+ * Directories removed by storage are forgotten, ones removed externally must be forgotten by caller that failed
+ * to use them.
+ */
+class KnownDirectories {
+
+    private final Set<Path> known;
+
+    KnownDirectories(long maxSize) {
+        this.known = Collections.newSetFromMap(
+                CacheBuilder.newBuilder().maximumSize(maxSize).<Path, Boolean>build().asMap()
+        );
+    }
+
+    void ensureExists(Path dir) throws IOException {
+        if (null == dir || known.contains(dir)) {
+            return;
+        }
+
+        Files.createDirectories(dir);
+        known.add(dir);
+    }
+
+    /**
+     * Forgets {@code removed} directory and its subdirectories.
+     */
+    void forget(Path removed) {
+        known.removeIf(it -> it.startsWith(removed));
+    }
+}
@@ -0,0 +1,83 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Maps logical file path to physical one, where file is placed into {@code levels} nested shard directories
+ * named by hash of file name, so that directory with a lot of files is spread across many small ones.
+ * I.e. {@code root/docs/file} becomes {@code root/docs/@3f/@a0/file}. Directories are never sharded.
+ * Names that start with {@code @} followed by hex digits only are reserved for shard directories.
+ */
+class ShardedLayout {
+
+    static final ShardedLayout NONE = new ShardedLayout(0, 0);
+
+    private static final String SHARD_PREFIX = "@";
+    private static final Pattern SHARD_NAME = Pattern.compile(SHARD_PREFIX + "[0-9a-f]+");
+    private static final int HASH_HEX_CHARS = 32;
+
+    private final int levels;
+    private final int width;
+
+    ShardedLayout(int levels, int width) {
+        if (levels < 0 || (levels > 0 && width <= 0) || levels * width > HASH_HEX_CHARS) {
+            throw new IllegalArgumentException("Shard levels and width must fit " + HASH_HEX_CHARS + " hex chars");
+        }
+
+        this.levels = levels;
+        this.width = width;
+    }
+
+    boolean isSharded() {
+        return levels > 0;
+    }
+
+    /**
+     * @return Where file with logical path {@code file} is stored
+     */
+    Path physical(Path file) {
+        if (!isSharded() || null == file.getFileName()) {
+            return file;
+        }
+
+        String name = file.getFileName().toString();
+        String hash = Hashing.murmur3_128().hashString(name, StandardCharsets.UTF_8).toString();
+        Path result = file.getParent();
+        for (int level = 0; level < levels; level++) {
+            result = result.resolve(SHARD_PREFIX + hash.substring(level * width, (level + 1) * width));
+        }
+
+        return result.resolve(name);
+    }
+
+    /**
+     * @return Logical path of {@code physical} one, shard directories of any layout below {@code root} are removed
+     */
+    static Path logical(Path root, Path physical) {
+        if (!physical.startsWith(root)) {
+            return physical;
+        }
+
+        Path result = root;
+        for (Path name : root.relativize(physical)) {
+            if (!isShardName(name)) {
+                result = result.resolve(name.toString());
+            }
+        }
+
+        return result;
+    }
+
+    static boolean isShardDir(Path dir) {
+        Path name = dir.getFileName();
+        return null != name && isShardName(name);
+    }
+
+    private static boolean isShardName(Path name) {
+        return SHARD_NAME.matcher(name.toString()).matches();
+    }
+}
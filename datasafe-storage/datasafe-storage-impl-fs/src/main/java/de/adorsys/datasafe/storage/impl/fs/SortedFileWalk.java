@@ -0,0 +1,143 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Walks file tree depth-first visiting entries of each directory in order of their names and provides files
+ * (not directories), so that walk can be resumed right after any previously provided file. Entries of directory
+ * are selected in batches of {@code batchSize} that follow the last visited one, so directory is never sorted
+ * as a whole, and only directories on the way to the current file are held in memory.
+ * Like {@link FileTreeSpliterator}, symbolic links to directories are not followed.
+ */
+class SortedFileWalk implements Iterator<FileTreeSpliterator.Entry> {
+
+    private final Children children;
+    private final Function<Path, String> name;
+    private final int batchSize;
+    private final Deque<Level> levels = new ArrayDeque<>();
+
+    private FileTreeSpliterator.Entry next;
+
+    /**
+     * @param root Directory to walk
+     * @param after Names of file path, relative to {@code root}, after which walk starts, empty to walk all files
+     * @param batchSize How many entries of directory are selected at once, i.e. page size + 1
+     * @param children Selects entries of directory that follow given name
+     * @param name Name that orders entry within its directory
+     */
+    SortedFileWalk(Path root, List<String> after, int batchSize, Children children, Function<Path, String> name) {
+        this.children = children;
+        this.name = name;
+        this.batchSize = batchSize;
+        resume(root, after);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (null == next && !levels.isEmpty()) {
+            Path path = levels.peek().next();
+            if (null == path) {
+                levels.pop();
+                continue;
+            }
+
+            BasicFileAttributes attributes = FileTreeSpliterator.attributes(path);
+            if (null == attributes) {
+                continue;
+            }
+
+            if (attributes.isDirectory()) {
+                levels.push(new Level(path, null));
+                continue;
+            }
+
+            next = new FileTreeSpliterator.Entry(path, attributes);
+        }
+
+        return null != next;
+    }
+
+    @Override
+    public FileTreeSpliterator.Entry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        FileTreeSpliterator.Entry result = next;
+        next = null;
+        return result;
+    }
+
+    // Each level continues after the resume path, walk descends along it
+    private void resume(Path root, List<String> after) {
+        Path dir = root;
+        for (String resumeName : after) {
+            levels.push(new Level(dir, resumeName));
+            // directories are never moved into shard directories, so their path is the logical one
+            dir = dir.resolve(resumeName);
+            BasicFileAttributes attributes = FileTreeSpliterator.attributes(dir);
+            if (null == attributes || !attributes.isDirectory()) {
+                return;
+            }
+        }
+
+        levels.push(new Level(dir, null));
+    }
+
+    /**
+     * Selects entries of directory.
+     */
+    @FunctionalInterface
+    interface Children {
+
+        /**
+         * @param dir Directory to select entries from
+         * @param after Name entries follow, null to select from the first entry
+         * @param limit Maximal amount of entries
+         * @return The first {@code limit} entries that follow {@code after}, sorted by name
+         */
+        List<Path> after(Path dir, String after, int limit);
+    }
+
+    /**
+     * Directory being walked, entries following the last visited one are selected once batch is consumed.
+     */
+    private class Level {
+
+        private final Path dir;
+        private String lastName;
+        private Iterator<Path> batch;
+        private boolean complete;
+
+        Level(Path dir, String after) {
+            this.dir = dir;
+            this.lastName = after;
+        }
+
+        Path next() {
+            if (null == batch || !batch.hasNext()) {
+                if (complete) {
+                    return null;
+                }
+
+                List<Path> entries = children.after(dir, lastName, batchSize);
+                complete = entries.size() < batchSize;
+                batch = entries.iterator();
+                if (!batch.hasNext()) {
+                    return null;
+                }
+            }
+
+            Path entry = batch.next();
+            lastName = name.apply(entry);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.BlockingStorageService;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncFileSystemStorageServiceTest extends BaseMockitoTest {
+
+    private static final String MESSAGE = "hello";
+
+    private ExecutorService executor = Executors.newFixedThreadPool(2);
+    private AsyncFileSystemStorageService storageService;
+    private Path storageDir;
+
+    @BeforeEach
+    void prepare(@TempDir Path dir) {
+        this.storageService = new AsyncFileSystemStorageService(dir, executor);
+        this.storageDir = dir;
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void writeAndReadMultipleChunks() {
+        byte[] content = new byte[3 * 64 * 1024 + 13];
+        new Random(1).nextBytes(content);
+        AbsoluteLocation<PrivateResource> file = location("deep/folder/file");
+
+        storageService.write(file, ByteBuffer.wrap(content)).get();
+
+        assertThat(Files.readAllBytes(storageDir.resolve("deep/folder/file"))).isEqualTo(content);
+        try (InputStream is = storageService.read(file).get()) {
+            assertThat(IOUtils.toByteArray(is)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void writeReplacesLongerContent() {
+        AbsoluteLocation<PrivateResource> file = location("file");
+        storageService.write(file, ByteBuffer.wrap(new byte[1024])).get();
+
+        storageService.write(file, ByteBuffer.wrap(MESSAGE.getBytes())).get();
+
+        assertThat(storageDir.resolve("file")).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeIsCommittedFromTemporaryFile() {
+        AbsoluteLocation<PrivateResource> file = location("folder/file");
+        storageService = new AsyncFileSystemStorageService(
+                new Uri(storageDir.toUri()),
+                executor,
+                FileSystemStorageConfig.builder().fsyncMode(FsyncMode.GROUP_COMMIT).build()
+        );
+
+        storageService.write(file, ByteBuffer.wrap(MESSAGE.getBytes())).get();
+
+        try (Stream<Path> files = Files.list(storageDir.resolve("folder"))) {
+            assertThat(files).containsExactly(storageDir.resolve("folder/file"));
+        }
+        assertThat(storageDir.resolve("folder/file")).hasContent(MESSAGE);
+    }
+
+    @Test
+    void readMissingFails() {
+        assertThatThrownBy(() -> storageService.read(location("missing")).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void listAndRemove() {
+        storageService.write(location("in/file"), ByteBuffer.wrap(MESSAGE.getBytes())).get();
+
+        assertThat(storageService.list(location("in")).get()).hasSize(1);
+        storageService.remove(location("in")).get();
+        assertThat(storageService.objectExists(location("in/file")).get()).isFalse();
+    }
+
+    @Test
+    @SneakyThrows
+    void worksThroughBlockingBridge() {
+        BlockingStorageService blocking = new BlockingStorageService(storageService);
+
+        try (OutputStream os = blocking.write(location("file"))) {
+            os.write(MESSAGE.getBytes());
+        }
+
+        assertThat(blocking.read(location("file"))).hasContent(MESSAGE);
+    }
+
+    private AbsoluteLocation<PrivateResource> location(String path) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(storageDir.toUri().resolve(path)));
+    }
+}
@@ -0,0 +1,78 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileCommitterTest extends BaseMockitoTest {
+
+    private static final int WRITERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void eachCommitSyncsDirectoryOnClose() {
+        FileCommitter committer = new FileCommitter(FsyncMode.ON_CLOSE, 0);
+
+        commitConcurrently(committer);
+
+        assertThat(committer.directorySyncs()).isEqualTo(WRITERS);
+        assertThat(dir.resolve("file-0")).hasContent("hello");
+    }
+
+    @Test
+    void groupCommitSyncsDirectoryOncePerBatch() {
+        FileCommitter committer = new FileCommitter(FsyncMode.GROUP_COMMIT, Duration.ofMillis(500).toNanos());
+
+        commitConcurrently(committer);
+
+        assertThat(committer.directorySyncs()).isEqualTo(1);
+        assertThat(dir.resolve("file-0")).hasContent("hello");
+    }
+
+    @SneakyThrows
+    private void commitConcurrently(FileCommitter committer) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> commits = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Path temp = dir.resolve(".~file-" + i + ".tmp");
+            Path target = dir.resolve("file-" + i);
+            commits.add(executor.submit(() -> {
+                FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                channel.write(ByteBuffer.wrap("hello".getBytes()));
+                start.await();
+                committer.commit(channel, temp, target);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> commit : commits) {
+            commit.get();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemLayoutMigrationTest extends BaseMockitoTest {
+
+    private static final FileSystemStorageConfig SHARDED = FileSystemStorageConfig.builder().shardLevels(2).build();
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    @SneakyThrows
+    void migratesFlatTreeToShardedAndBack() {
+        createFile("first.txt");
+        createFile("docs/second.txt");
+        AbsoluteLocation root = BasePrivateResource.forAbsolutePrivate(storageDir.toUri());
+
+        assertThat(new FileSystemLayoutMigration(storageDir, SHARDED).migrate()).isEqualTo(2);
+
+        assertThat(storageDir.resolve("first.txt")).doesNotExist();
+        assertThat(new FileSystemStorageService(storageDir, SHARDED).list(root))
+                .extracting(it -> it.location().asURI())
+                .containsExactlyInAnyOrder(uri("first.txt"), uri("docs/second.txt"));
+
+        assertThat(new FileSystemLayoutMigration(storageDir, FileSystemStorageConfig.DEFAULT).migrate())
+                .isEqualTo(2);
+
+        assertThat(storageDir.resolve("docs/second.txt")).hasContent("hello");
+        try (Stream<Path> tree = Files.walk(storageDir)) {
+            assertThat(tree).noneMatch(ShardedLayout::isShardDir);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void keepsFileWrittenToNewLayout() {
+        createFile("file.txt");
+        Path sharded = SHARDED.layout().physical(storageDir.resolve("file.txt"));
+        Files.createDirectories(sharded.getParent());
+        Files.write(sharded, "newer".getBytes());
+
+        assertThat(new FileSystemLayoutMigration(storageDir, SHARDED).migrate()).isZero();
+
+        assertThat(storageDir.resolve("file.txt")).doesNotExist();
+        assertThat(sharded).hasContent("newer");
+    }
+
+    private URI uri(String path) {
+        return storageDir.toUri().resolve(path);
+    }
+
+    @SneakyThrows
+    private void createFile(String path) {
+        Path file = storageDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, "hello".getBytes());
+    }
+}
@@ -0,0 +1,121 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Compares write and read throughput of {@link FileSystemStorageService} using plain heap streams, file channel
+ * with direct buffers, memory-mapped reads and {@link FileChannelInputStream#transferTo} for small and large files.
+ * Files are written to {@code FS_PERFORMANCE_DIR} if set (i.e. to NVMe drive), otherwise to temporary directory.
+ * Data is read and written in chunks, as it is done by CMS encryption streams.
+ */
+@Slf4j
+class FileSystemReadWritePerformance {
+
+    private static final int KB = 1024;
+    private static final int MB = 1024 * KB;
+    private static final int CHUNK = 8192;
+    private static final long BYTES_PER_RUN = 256L * MB;
+
+    enum Mode {
+        HEAP_STREAMS(FileSystemStorageConfig.builder().fileChannelIo(false).build()),
+        FILE_CHANNEL(FileSystemStorageConfig.builder().mmapThreshold(Long.MAX_VALUE).build()),
+        MEMORY_MAPPED(FileSystemStorageConfig.builder().mmapThreshold(0).build()),
+        TRANSFER_TO(FileSystemStorageConfig.builder().mmapThreshold(Long.MAX_VALUE).build());
+
+        private final FileSystemStorageConfig config;
+
+        Mode(FileSystemStorageConfig config) {
+            this.config = config;
+        }
+    }
+
+    @SneakyThrows
+    @ParameterizedTest(name = "{0} bytes, {1}")
+    @MethodSource("sizesAndModes")
+    @EnabledIfEnvironmentVariable(named = "FS_PERFORMANCE_TEST", matches = "true")
+    void readWriteThroughput(int size, Mode mode, @TempDir Path tempDir) {
+        String customDir = System.getenv("FS_PERFORMANCE_DIR");
+        Path dir = null == customDir ? tempDir : Files.createTempDirectory(Paths.get(customDir), "perf");
+        FileSystemStorageService storage = new FileSystemStorageService(dir, mode.config);
+        int files = (int) Math.max(1, BYTES_PER_RUN / size);
+        byte[] chunk = new byte[CHUNK];
+        Arrays.fill(chunk, (byte) 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < files; i++) {
+            try (OutputStream os = storage.write(location(dir, i))) {
+                for (long written = 0; written < size; written += CHUNK) {
+                    os.write(chunk, 0, (int) Math.min(CHUNK, size - written));
+                }
+            }
+        }
+        long writeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < files; i++) {
+            try (InputStream is = storage.read(location(dir, i))) {
+                if (Mode.TRANSFER_TO == mode) {
+                    ((FileChannelInputStream) is).transferTo(new DiscardingChannel());
+                } else {
+                    while (-1 != is.read(chunk)) {
+                        // discard
+                    }
+                }
+            }
+        }
+        long readNanos = System.nanoTime() - start;
+
+        storage.remove(new AbsoluteLocation<>(BasePrivateResource.forPrivate(dir.toUri())));
+        long total = (long) files * size;
+        log.info("{} files of {} bytes, {}: write {} Mb/s, read {} Mb/s", files, size, mode,
+                total * 1e9 / writeNanos / MB, total * 1e9 / readNanos / MB);
+    }
+
+    private static Stream<Arguments> sizesAndModes() {
+        return Stream.of(4 * KB, 256 * KB, 64 * MB, 256 * MB)
+                .flatMap(size -> Arrays.stream(Mode.values()).map(mode -> Arguments.of(size, mode)));
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(Path dir, int index) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(dir.resolve("file-" + index).toUri()));
+    }
+
+    private static class DiscardingChannel implements WritableByteChannel {
+
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
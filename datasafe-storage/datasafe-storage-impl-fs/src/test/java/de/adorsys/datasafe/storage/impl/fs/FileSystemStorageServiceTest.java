@@ -1,8 +1,12 @@
 package de.adorsys.datasafe.storage.impl.fs;
 
+import com.google.common.io.MoreFiles;
+import de.adorsys.datasafe.storage.api.AbortableStream;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import lombok.SneakyThrows;
@@ -11,17 +15,32 @@ import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Slf4j
@@ -51,6 +70,34 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         assertThat(storageService.objectExists(storageService.list(root).findFirst().get())).isTrue();
     }
 
+    @Test
+    void metadataOfFile() {
+        createFileWithMessage();
+
+        ResolvedResource resource = storageService.metadata(fileWithMsg).get().getResource();
+
+        assertThat(resource.getSize()).isEqualTo(MESSAGE.length());
+        assertThat(resource.getETag()).isNotNull();
+        assertThat(storageService.metadata(root)).isEmpty();
+        assertThat(storageService.metadata(
+                new AbsoluteLocation<>(BasePrivateResource.forPrivate(storageDir.toUri().resolve("missing")))
+        )).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedWriteKeepsPreviousContent() {
+        createFileWithMessage();
+
+        OutputStream os = storageService.write(fileWithMsg);
+        os.write("other".getBytes());
+        ((AbortableStream) os).abort();
+        os.close();
+
+        assertThat(storageDir.resolve(FILE)).hasContent(MESSAGE);
+        assertThat(storageService.list(root)).hasSize(1);
+    }
+
     @Test
     void listEmpty() {
         Path nonExistingFile = storageDir.resolve(UUID.randomUUID().toString());
@@ -124,6 +171,138 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
                 .asString().contains(FILE);
     }
 
+    @Test
+    @SneakyThrows
+    void listProvidesSizeAndETag() {
+        createFileWithMessage();
+        String eTag = storageService.list(root).findFirst().get().getResource().getETag();
+
+        Files.setLastModifiedTime(storageDir.resolve(FILE), FileTime.fromMillis(1000));
+
+        assertThat(storageService.list(root))
+                .extracting(it -> it.getResource().getSize(), it -> it.getResource().getETag())
+                .containsExactly(tuple((long) MESSAGE.length(), "f4240-" + Long.toHexString(MESSAGE.length())));
+        assertThat(eTag).isNotEqualTo(storageService.list(root).findFirst().get().getResource().getETag());
+    }
+
+    @Test
+    @SneakyThrows
+    void listWalksNestedDirectoriesInParallel() {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().parallelList(true).build()
+        );
+        for (int i = 0; i < 20; i++) {
+            createFileWithMessage("in/" + i + "/deeper/some.txt", true);
+            createFileWithMessage("in/" + i + "/some.txt", false);
+        }
+        Files.setLastModifiedTime(storageDir.resolve("in/3/some.txt"), FileTime.fromMillis(1000));
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = storageService.list(root)) {
+            assertThat(listed.collect(Collectors.toList()))
+                    .hasSize(40)
+                    .filteredOn(it -> it.location().asURI().equals(storageDir.resolve("in/3/some.txt").toUri()))
+                    .extracting(it -> it.getResource().getModifiedAt())
+                    .containsExactly(Instant.ofEpochMilli(1000));
+        }
+    }
+
+    @Test
+    void listSplitsLargeFlatDirectoryInParallel() {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().parallelList(true).build()
+        );
+        createFileWithMessage("flat/sub/some.txt", true);
+        for (int i = 0; i < 2500; i++) {
+            createFileWithMessage("flat/" + i + ".txt", false);
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = storageService.list(root)) {
+            assertThat(listed.map(it -> it.location().asURI()).collect(Collectors.toList()))
+                    .hasSize(2501)
+                    .doesNotHaveDuplicates()
+                    .contains(storageDir.resolve("flat/sub/some.txt").toUri());
+        }
+    }
+
+    @Test
+    void listFileReturnsIt() {
+        createFileWithMessage();
+
+        assertThat(storageService.list(fileWithMsg))
+                .extracting(it -> it.location().asURI())
+                .containsExactly(fileWithMsg.location().asURI());
+    }
+
+    @Test
+    void listShallow() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("in/deeper/and_deeper/some.txt", true);
+
+        assertThat(storageService.listShallow(
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in"))
+        ))
+                .extracting(it -> it.location().asURI())
+                .containsExactlyInAnyOrder(
+                        storageDir.toUri().resolve("in/some.txt"),
+                        storageDir.toUri().resolve("in/deeper/")
+                );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void listPageResumesWalkAfterLastFile(int shardLevels) {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().shardLevels(shardLevels).build()
+        );
+        Stream.of("in/b", "in/a/2", "in/c/x/y", "in/a-b", "in/a/1")
+                .forEach(it -> write(BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve(it))));
+        AbsoluteLocation<PrivateResource> in = BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in"));
+
+        List<List<String>> pages = new ArrayList<>();
+        String token = null;
+        do {
+            ListPage<AbsoluteLocation<ResolvedResource>> page = storageService.listPage(in, token, 2);
+            pages.add(page.getItems().stream()
+                    .map(it -> storageDir.toUri().resolve("in/").relativize(it.location().asURI()).toString())
+                    .collect(Collectors.toList()));
+            token = page.getNextToken();
+        } while (null != token);
+
+        assertThat(pages).containsExactly(
+                Arrays.asList("a/1", "a/2"),
+                Arrays.asList("a-b", "b"),
+                Arrays.asList("c/x/y")
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void listPageSelectsMoreEntriesOfDirectoryThanPageSize() {
+        for (int i = 0; i < 5; i++) {
+            Files.createDirectories(storageDir.resolve("in/empty" + i));
+        }
+        Stream.of("in/file", "in/other")
+                .forEach(it -> write(BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve(it))));
+        AbsoluteLocation<PrivateResource> in = BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in"));
+
+        ListPage<AbsoluteLocation<ResolvedResource>> first = storageService.listPage(in, null, 1);
+        ListPage<AbsoluteLocation<ResolvedResource>> second = storageService.listPage(in, first.getNextToken(), 1);
+
+        assertThat(first.getItems()).extracting(it -> it.location().asURI())
+                .containsExactly(storageDir.toUri().resolve("in/file"));
+        assertThat(second.getItems()).extracting(it -> it.location().asURI())
+                .containsExactly(storageDir.toUri().resolve("in/other"));
+        assertThat(second.getNextToken()).isNull();
+    }
+
+    @Test
+    void listShallowOnFileIsEmpty() {
+        createFileWithMessage();
+
+        assertThat(storageService.listShallow(fileWithMsg)).isEmpty();
+    }
+
     @Test
     void listOnNonExisting() {
         assertThat(storageService.list(root)).isEmpty();
@@ -171,6 +350,238 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         assertThat(Files.walk(storageDir)).containsOnly(storageDir);
     }
 
+    @Test
+    @SneakyThrows
+    void removeAllRemovesFilesAndNestedDirectories() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("other/some.txt", true);
+        createFileWithMessage("other/kept.txt", false);
+
+        storageService.removeAll(Stream.of(
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in")),
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in/deeper/some.txt")),
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("other/some.txt")),
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("missing.txt"))
+        ));
+
+        assertThat(Files.walk(storageDir)).containsOnly(
+                storageDir, storageDir.resolve("other"), storageDir.resolve("other/kept.txt")
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void overwriteWithShorterContentTruncatesFile() {
+        createFileWithMessage();
+
+        try (OutputStream os = storageService.write(fileWithMsg)) {
+            os.write("hi".getBytes());
+        }
+
+        assertThat(storageService.read(fileWithMsg)).hasContent("hi");
+    }
+
+    @Test
+    @SneakyThrows
+    void writeAndReadContentLargerThanBuffer() {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().bufferSize(1024).build()
+        );
+        byte[] content = randomBytes(10_000);
+
+        try (OutputStream os = storageService.write(fileWithMsg)) {
+            os.write(content, 0, 10);
+            os.write(content[10]);
+            os.write(content, 11, content.length - 11);
+        }
+
+        assertThat(Files.readAllBytes(storageDir.resolve(FILE))).isEqualTo(content);
+        assertThat(IOUtils.toByteArray(storageService.read(fileWithMsg))).isEqualTo(content);
+    }
+
+    @Test
+    @SneakyThrows
+    void readMemoryMappedFile() {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().mmapThreshold(1).build()
+        );
+        byte[] content = randomBytes(10_000);
+        Files.write(storageDir.resolve(FILE), content);
+
+        try (InputStream is = storageService.read(fileWithMsg)) {
+            assertThat(is.skip(100)).isEqualTo(100);
+            assertThat(IOUtils.toByteArray(is)).isEqualTo(Arrays.copyOfRange(content, 100, content.length));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void transferToSendsRemainingContent() {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().bufferSize(1024).build()
+        );
+        byte[] content = randomBytes(10_000);
+        Files.write(storageDir.resolve(FILE), content);
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (InputStream is = storageService.read(fileWithMsg)) {
+            target.write(is.read());
+            assertThat(((FileChannelInputStream) is).transferTo(target)).isEqualTo(content.length - 1);
+        }
+
+        assertThat(target.toByteArray()).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void copyAndMoveKeepContent(int shardLevels) {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().shardLevels(shardLevels).build()
+        );
+        AbsoluteLocation<PrivateResource> copied =
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("copy/some.txt"));
+        AbsoluteLocation<PrivateResource> moved =
+                BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("moved/deeper/some.txt"));
+        write(fileWithMsg);
+
+        storageService.copy(fileWithMsg, copied);
+        storageService.move(fileWithMsg, moved);
+
+        assertThat(storageService.objectExists(fileWithMsg)).isFalse();
+        assertThat(storageService.read(copied)).hasContent(MESSAGE);
+        assertThat(storageService.read(moved)).hasContent(MESSAGE);
+        assertThat(storageService.list(root))
+                .extracting(it -> it.location().asURI())
+                .containsExactlyInAnyOrder(copied.location().asURI(), moved.location().asURI());
+    }
+
+    @Test
+    @SneakyThrows
+    void shardedLayoutKeepsLocations() {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().shardLevels(2).build()
+        );
+        AbsoluteLocation<PrivateResource> nested = BasePrivateResource.forAbsolutePrivate(
+                storageDir.toUri().resolve("in/deeper/some.txt")
+        );
+        write(fileWithMsg);
+        write(nested);
+
+        assertThat(storageDir.resolve(FILE)).doesNotExist();
+        assertThat(storageService.objectExists(fileWithMsg)).isTrue();
+        assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
+        assertThat(storageService.list(root))
+                .extracting(it -> it.location().asURI())
+                .containsExactlyInAnyOrder(fileWithMsg.location().asURI(), nested.location().asURI());
+        assertThat(storageService.listShallow(root))
+                .extracting(it -> it.location().asURI())
+                .containsExactlyInAnyOrder(fileWithMsg.location().asURI(), storageDir.toUri().resolve("in/"));
+        assertThat(storageService.list(nested))
+                .extracting(it -> it.location().asURI())
+                .containsExactly(nested.location().asURI());
+
+        storageService.remove(fileWithMsg);
+        storageService.removeAll(Stream.of(nested));
+        assertThat(storageService.list(root)).isEmpty();
+    }
+
+    @Test
+    void shardedLayoutReadsFileNotMigratedYet() {
+        createFileWithMessage();
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().shardLevels(1).build()
+        );
+
+        assertThat(storageService.objectExists(fileWithMsg)).isTrue();
+        assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void writtenFileIsNotVisibleUntilClosed() {
+        createFileWithMessage();
+
+        try (OutputStream os = storageService.write(fileWithMsg)) {
+            os.write("other".getBytes());
+            os.flush();
+
+            assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
+            assertThat(storageService.list(root)).hasSize(1);
+        }
+
+        assertThat(storageService.read(fileWithMsg)).hasContent("other");
+        assertThat(storageDir.toFile().list()).containsExactly(FILE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FsyncMode.class)
+    @SneakyThrows
+    void concurrentWritesAreDurable(FsyncMode mode) {
+        storageService = new FileSystemStorageService(
+                storageDir, FileSystemStorageConfig.builder().fsyncMode(mode).build()
+        );
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                AbsoluteLocation<PrivateResource> location = BasePrivateResource.forAbsolutePrivate(
+                        storageDir.toUri().resolve("in/" + i)
+                );
+                writes.add(executor.submit(() -> write(location)));
+            }
+
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(storageService.list(root)).hasSize(32);
+        assertThat(storageDir.resolve("in").toFile().list()).hasSize(32).allMatch(it -> !it.endsWith(".tmp"));
+    }
+
+    @Test
+    void writeRecreatesDirectoryRemovedByStorage() {
+        AbsoluteLocation<PrivateResource> nested = BasePrivateResource.forAbsolutePrivate(
+                storageDir.toUri().resolve("in/deeper/some.txt")
+        );
+        write(nested);
+
+        storageService.remove(BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in/")));
+        write(nested);
+
+        assertThat(storageService.read(nested)).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeRecreatesDirectoryRemovedExternally() {
+        AbsoluteLocation<PrivateResource> nested = BasePrivateResource.forAbsolutePrivate(
+                storageDir.toUri().resolve("in/deeper/some.txt")
+        );
+        write(nested);
+
+        MoreFiles.deleteRecursively(storageDir.resolve("in"));
+        write(nested);
+
+        assertThat(storageService.read(nested)).hasContent(MESSAGE);
+    }
+
+    @SneakyThrows
+    private void write(AbsoluteLocation<PrivateResource> location) {
+        try (OutputStream os = storageService.write(location)) {
+            os.write(MESSAGE.getBytes());
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(size).nextBytes(result);
+        return result;
+    }
+
     @SneakyThrows
     private void createFileWithMessage() {
         createFileWithMessage(FILE, false);
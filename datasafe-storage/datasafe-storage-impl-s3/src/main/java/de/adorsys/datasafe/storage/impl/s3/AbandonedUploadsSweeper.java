@@ -0,0 +1,105 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aborts multipart uploads that were started more than {@code maxAge} ago and were neither completed nor
+ * aborted (i.e. the writer died), so that storage does not keep (and bill) their parts forever.
+ * With {@link S3KeyLayout} that spreads users across buckets all of its buckets are swept.
+ */
+@Slf4j
+public class AbandonedUploadsSweeper implements Runnable {
+
+    private final AmazonS3 s3;
+    private final List<String> buckets;
+    private final Duration maxAge;
+
+    public AbandonedUploadsSweeper(AmazonS3 s3, String bucketName, Duration maxAge) {
+        this.s3 = s3;
+        this.buckets = Collections.singletonList(bucketName);
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @param s3 S3 client
+     * @param bucketName Default bucket as given to {@link S3StorageService}
+     * @param layout Key layout of {@link S3StorageService}, may be null
+     * @param maxAge Uploads started earlier than this are aborted
+     */
+    public AbandonedUploadsSweeper(AmazonS3 s3, String bucketName, S3KeyLayout layout, Duration maxAge) {
+        this.s3 = s3;
+        this.buckets = null == layout ? Collections.singletonList(bucketName) : layout.allBuckets(bucketName);
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Runs sweep periodically.
+     * @param scheduler Scheduler to run sweep with
+     * @param period Delay between sweeps
+     * @return Handle to cancel sweeping
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Duration period) {
+        return scheduler.scheduleWithFixedDelay(this, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        // exception would cancel further scheduled runs
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to sweep abandoned uploads", ex);
+        }
+    }
+
+    /**
+     * @return Count of aborted uploads
+     */
+    public int sweep() {
+        Instant abandonedBefore = Instant.now().minus(maxAge);
+        int aborted = 0;
+        for (String bucketName : buckets) {
+            aborted += sweep(bucketName, abandonedBefore);
+        }
+
+        log.debug("Aborted {} abandoned uploads", aborted);
+        return aborted;
+    }
+
+    private int sweep(String bucketName, Instant abandonedBefore) {
+        int aborted = 0;
+        ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(bucketName);
+        MultipartUploadListing listing;
+        do {
+            listing = s3.listMultipartUploads(request);
+            for (MultipartUpload upload : listing.getMultipartUploads()) {
+                if (upload.getInitiated().toInstant().isBefore(abandonedBefore)) {
+                    log.debug("Abort abandoned upload of {}", Obfuscate.secure(upload.getKey()));
+                    s3.abortMultipartUpload(
+                            new AbortMultipartUploadRequest(bucketName, upload.getKey(), upload.getUploadId())
+                    );
+                    aborted++;
+                }
+            }
+
+            request.setKeyMarker(listing.getNextKeyMarker());
+            request.setUploadIdMarker(listing.getNextUploadIdMarker());
+        } while (listing.isTruncated());
+
+        return aborted;
+    }
+}
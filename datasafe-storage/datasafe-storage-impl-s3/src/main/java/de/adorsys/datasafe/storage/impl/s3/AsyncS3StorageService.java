@@ -0,0 +1,201 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.util.BinaryUtils;
+import de.adorsys.datasafe.storage.api.AsyncStorageService;
+import de.adorsys.datasafe.storage.api.ExecutorAsyncStorageService;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * S3 {@link AsyncStorageService}. AWS SDK client is blocking, so requests are executed by {@code executorService}
+ * and caller thread is released immediately. Content that fits into single part is sent using single PUT request
+ * directly from provided buffer, larger content is uploaded in parallel parts that are slices of provided buffer.
+ * Each part upload is a separate task, so no pool thread waits for other tasks of the same pool and writes
+ * can't deadlock however small the pool is.
+ */
+@Slf4j
+public class AsyncS3StorageService implements AsyncStorageService {
+
+    private final AmazonS3 s3;
+    private final ExecutorService executorService;
+    private final S3StorageConfig config;
+    private final int singlePutLimit;
+    private final S3StorageService s3Storage;
+    private final ExecutorAsyncStorageService storage;
+
+    /**
+     * @param s3 Connection to S3
+     * @param bucketName Bucket to use
+     * @param executorService Pool that executes S3 requests
+     * @param config Tuning options
+     */
+    public AsyncS3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService,
+                                 S3StorageConfig config) {
+        this.s3 = s3;
+        this.executorService = executorService;
+        this.config = config;
+        this.singlePutLimit = config.partSize(1);
+        this.s3Storage = new S3StorageService(s3, bucketName, executorService, config);
+        this.storage = new ExecutorAsyncStorageService(s3Storage, executorService);
+    }
+
+    public AsyncS3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService) {
+        this(s3, bucketName, executorService, S3StorageConfig.DEFAULT);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> objectExists(AbsoluteLocation location) {
+        return storage.objectExists(location);
+    }
+
+    @Override
+    public CompletableFuture<List<AbsoluteLocation<ResolvedResource>>> list(AbsoluteLocation location) {
+        return storage.list(location);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> read(AbsoluteLocation location) {
+        return storage.read(location);
+    }
+
+    @Override
+    public CompletableFuture<Void> write(AbsoluteLocation location, ByteBuffer content) {
+        ByteBuffer toWrite = content.slice();
+        ObjectPlacement placement = s3Storage.place(location.location().getPath().replaceFirst("^/", ""));
+        if (toWrite.remaining() > singlePutLimit) {
+            return multipartUpload(placement, toWrite);
+        }
+
+        return CompletableFuture.runAsync(() -> putObject(placement, toWrite), executorService);
+    }
+
+    /**
+     * Content is sent by multipart upload stream, whose writes are executed by the caller thread, while parts
+     * are uploaded using {@code executorService}.
+     */
+    @Override
+    public CompletableFuture<OutputStream> openWrite(AbsoluteLocation location) {
+        return CompletableFuture.completedFuture(s3Storage.write(location));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(AbsoluteLocation location) {
+        return storage.remove(location);
+    }
+
+    @SneakyThrows
+    private void putObject(ObjectPlacement placement, ByteBuffer content) {
+        log.debug("Async put of {}", Obfuscate.secure(placement.getKey()));
+
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(content.remaining());
+
+        MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+        messageDigest.update(content.duplicate());
+        objectMetadata.setContentMD5(BinaryUtils.toBase64(messageDigest.digest()));
+
+        s3.putObject(placement.getBucket(), placement.getKey(), asStream(content), objectMetadata);
+    }
+
+    private CompletableFuture<Void> multipartUpload(ObjectPlacement placement, ByteBuffer content) {
+        log.debug("Async multipart upload of {}", Obfuscate.secure(placement.getKey()));
+        return CompletableFuture
+                .supplyAsync(() -> s3.initiateMultipartUpload(
+                        new InitiateMultipartUploadRequest(placement.getBucket(), placement.getKey())
+                ).getUploadId(), executorService)
+                .thenCompose(uploadId -> uploadParts(placement, uploadId, content)
+                        .thenAcceptAsync(parts -> s3.completeMultipartUpload(new CompleteMultipartUploadRequest(
+                                placement.getBucket(), placement.getKey(), uploadId, parts
+                        )), executorService)
+                        .whenComplete((done, ex) -> {
+                            if (null != ex) {
+                                abortQuietly(placement, uploadId);
+                            }
+                        })
+                );
+    }
+
+    // Parts are uploaded by at most maxConcurrentPartsPerStream chains, each chain uploads its parts one by one
+    private CompletableFuture<List<PartETag>> uploadParts(ObjectPlacement placement, String uploadId,
+                                                          ByteBuffer content) {
+        List<ByteBuffer> parts = new ArrayList<>();
+        while (content.hasRemaining()) {
+            ByteBuffer part = content.slice();
+            part.limit(Math.min(config.partSize(parts.size() + 1), content.remaining()));
+            content.position(content.position() + part.remaining());
+            parts.add(part);
+        }
+
+        PartETag[] eTags = new PartETag[parts.size()];
+        int chains = Math.min(config.getMaxConcurrentPartsPerStream(), parts.size());
+        CompletableFuture<?>[] uploads = new CompletableFuture<?>[chains];
+        for (int chain = 0; chain < chains; chain++) {
+            CompletableFuture<Void> upload = CompletableFuture.completedFuture(null);
+            for (int index = chain; index < parts.size(); index += chains) {
+                int partIndex = index;
+                upload = upload.thenRunAsync(
+                        () -> eTags[partIndex] = uploadPart(placement, uploadId, partIndex + 1, parts.get(partIndex)),
+                        executorService
+                );
+            }
+
+            uploads[chain] = upload;
+        }
+
+        return CompletableFuture.allOf(uploads).thenApply(done -> Arrays.asList(eTags));
+    }
+
+    private PartETag uploadPart(ObjectPlacement placement, String uploadId, int partNumber, ByteBuffer part) {
+        log.trace("Async upload of part #{}", partNumber);
+        return s3.uploadPart(new UploadPartRequest()
+                .withBucketName(placement.getBucket()).withKey(placement.getKey())
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(part.remaining())
+                .withInputStream(asStream(part))
+        ).getPartETag();
+    }
+
+    private void abortQuietly(ObjectPlacement placement, String uploadId) {
+        try {
+            s3.abortMultipartUpload(
+                    new AbortMultipartUploadRequest(placement.getBucket(), placement.getKey(), uploadId)
+            );
+        } catch (RuntimeException ex) {
+            log.warn("Failed to abort multipart upload of {}", Obfuscate.secure(placement.getKey()), ex);
+        }
+    }
+
+    private static InputStream asStream(ByteBuffer content) {
+        if (content.hasArray()) {
+            return new ByteArrayInputStream(
+                    content.array(), content.arrayOffset() + content.position(), content.remaining()
+            );
+        }
+
+        byte[] copy = new byte[content.remaining()];
+        content.duplicate().get(copy);
+        return new ByteArrayInputStream(copy);
+    }
+}
@@ -14,6 +14,9 @@ public class ChunkUploadRequest {
     @ToString.Exclude
     private byte[] content;
     private int contentSize;
+    // Pool where content buffer is returned after upload, null if content is not pooled
+    @ToString.Exclude
+    private PartBufferPool bufferPool;
     private String bucketName;
     private String objectName;
     private String uploadId;
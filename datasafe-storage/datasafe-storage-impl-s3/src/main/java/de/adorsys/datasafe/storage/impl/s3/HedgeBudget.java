@@ -0,0 +1,33 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that limits rate of hedged requests.
+ */
+class HedgeBudget {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    HedgeBudget(double tokensPerSecond, int capacity) {
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.tokens = capacity;
+    }
+
+    synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+        return true;
+    }
+}
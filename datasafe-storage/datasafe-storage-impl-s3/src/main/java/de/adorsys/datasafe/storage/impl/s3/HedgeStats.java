@@ -0,0 +1,110 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import de.adorsys.datasafe.storage.api.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and hedging outcome of single request type of {@link S3StorageService}, recorded only when hedging
+ * is enabled using {@link S3StorageConfig#getHedging()}.
+ */
+public class HedgeStats {
+
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HedgingConfig config;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private final AtomicLong delayComputedAt = new AtomicLong(System.nanoTime());
+    private volatile long delayNanos;
+
+    HedgeStats(HedgingConfig config) {
+        this.config = config;
+        this.delayNanos = config.getMaxDelay().toNanos();
+    }
+
+    /**
+     * @return Amount of calls, hedged call counts once
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return Amount of hedged requests that were sent
+     */
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * @return Amount of calls where hedged request responded first
+     */
+    public long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * @return Amount of calls that were not hedged because token bucket was empty
+     */
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    /**
+     * @param percentile Percentile in range 0..100
+     * @param unit Result time unit
+     * @return Latency percentile of successful requests, including hedged ones and ones that lost
+     */
+    public long latencyPercentile(double percentile, TimeUnit unit) {
+        return unit.convert(latency.percentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    void recordRequest() {
+        requests.increment();
+    }
+
+    void recordLatency(long nanos) {
+        latency.record(nanos);
+    }
+
+    void recordHedge() {
+        hedges.increment();
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    void recordThrottled() {
+        throttled.increment();
+    }
+
+    // Percentile is computed from whole histogram, so it is refreshed periodically instead of on each request
+    long delayNanos() {
+        long now = System.nanoTime();
+        long computedAt = delayComputedAt.get();
+        if (now - computedAt >= DELAY_REFRESH_NANOS && delayComputedAt.compareAndSet(computedAt, now)) {
+            long max = config.getMaxDelay().toNanos();
+            long delay = latency.count() < config.getMinSamples() ? max : latency.percentile(config.getPercentile());
+            delayNanos = Math.max(config.getMinDelay().toNanos(), Math.min(max, delay));
+        }
+
+        return delayNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + requests()
+                + ", hedges=" + hedges()
+                + ", hedgeWins=" + hedgeWins()
+                + ", throttled=" + throttled()
+                + ", p95=" + latencyPercentile(95, TimeUnit.MICROSECONDS) + "us";
+    }
+}
@@ -0,0 +1,54 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Hedging of GET and HEAD requests of {@link S3StorageService}: when response does not arrive within latency
+ * percentile of the same request type, the same request is sent again and the first response is used.
+ * Hedges are limited by token bucket, so that they can't multiply load when whole storage is slow.
+ */
+@Value
+@Builder(toBuilder = true)
+public class HedgingConfig {
+
+    public static final HedgingConfig DEFAULT = HedgingConfig.builder().build();
+
+    /**
+     * Latency percentile after which request is hedged.
+     */
+    @Builder.Default
+    private final double percentile = 95;
+
+    /**
+     * Lower bound of hedge delay.
+     */
+    @Builder.Default
+    private final Duration minDelay = Duration.ofMillis(10);
+
+    /**
+     * Upper bound of hedge delay, it is also used until {@code minSamples} requests were measured.
+     */
+    @Builder.Default
+    private final Duration maxDelay = Duration.ofSeconds(1);
+
+    /**
+     * Amount of measured requests before percentile is used as hedge delay.
+     */
+    @Builder.Default
+    private final int minSamples = 50;
+
+    /**
+     * Rate at which hedge tokens are added to the bucket shared by all requests.
+     */
+    @Builder.Default
+    private final double hedgesPerSecond = 10;
+
+    /**
+     * Capacity of the token bucket - how many hedges can be sent at once after quiet period.
+     */
+    @Builder.Default
+    private final int maxBurst = 20;
+}
@@ -0,0 +1,69 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Objects of S3 listing, page after page. Splitting hands over the rest of current page (or the next page),
+ * so that parallel stream processes pages concurrently while following pages are fetched.
+ */
+class ListedObjects implements Spliterator<S3ObjectSummary> {
+
+    private final Spliterator<ListObjectsV2Result> pages;
+    private Spliterator<S3ObjectSummary> current = Spliterators.emptySpliterator();
+    private boolean hasMorePages = true;
+
+    ListedObjects(Spliterator<ListObjectsV2Result> pages) {
+        this.pages = pages;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super S3ObjectSummary> action) {
+        do {
+            if (current.tryAdvance(action)) {
+                return true;
+            }
+        } while (nextPage());
+
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super S3ObjectSummary> action) {
+        do {
+            current.forEachRemaining(action);
+        } while (nextPage());
+    }
+
+    @Override
+    public Spliterator<S3ObjectSummary> trySplit() {
+        while (0 == current.estimateSize()) {
+            if (!nextPage()) {
+                return null;
+            }
+        }
+
+        Spliterator<S3ObjectSummary> page = current;
+        current = Spliterators.emptySpliterator();
+        return page;
+    }
+
+    @Override
+    public long estimateSize() {
+        return hasMorePages ? Long.MAX_VALUE : current.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    private boolean nextPage() {
+        hasMorePages = hasMorePages && pages.tryAdvance(page -> current = page.getObjectSummaries().spliterator());
+        return hasMorePages;
+    }
+}
@@ -0,0 +1,80 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import lombok.SneakyThrows;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Lazily fetches pages of S3 listing. Without executor next page is requested only when previous one was consumed,
+ * with executor first page is requested right away and next page is requested in background as soon as previous
+ * one arrives, so that the page is processed while the next one is on its way.
+ */
+class ListingPages extends Spliterators.AbstractSpliterator<ListObjectsV2Result> {
+
+    private final AmazonS3 s3;
+    private final ListObjectsV2Request request;
+    private final ExecutorService prefetchExecutor;
+    private boolean hasMore = true;
+    private Future<ListObjectsV2Result> prefetched;
+
+    ListingPages(AmazonS3 s3, ListObjectsV2Request request) {
+        this(s3, request, null);
+    }
+
+    ListingPages(AmazonS3 s3, ListObjectsV2Request request, ExecutorService prefetchExecutor) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.s3 = s3;
+        this.request = request;
+        this.prefetchExecutor = prefetchExecutor;
+        prefetch();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ListObjectsV2Result> action) {
+        if (!hasMore) {
+            return false;
+        }
+
+        ListObjectsV2Result page = null == prefetched ? s3.listObjectsV2(request) : await(prefetched);
+        prefetched = null;
+        hasMore = page.isTruncated();
+        request.setContinuationToken(page.getNextContinuationToken());
+        if (hasMore) {
+            prefetch();
+        }
+
+        action.accept(page);
+        return true;
+    }
+
+    // Pool that is saturated leaves the page to be fetched when it is needed
+    private void prefetch() {
+        if (null == prefetchExecutor) {
+            return;
+        }
+
+        try {
+            prefetched = prefetchExecutor.submit(() -> s3.listObjectsV2(request));
+        } catch (RejectedExecutionException ex) {
+            prefetched = null;
+        }
+    }
+
+    @SneakyThrows
+    private static ListObjectsV2Result await(Future<ListObjectsV2Result> page) {
+        try {
+            return page.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+}
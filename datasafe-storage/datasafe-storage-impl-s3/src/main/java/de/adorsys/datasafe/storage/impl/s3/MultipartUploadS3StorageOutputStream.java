@@ -24,6 +24,7 @@ package de.adorsys.datasafe.storage.impl.s3;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
 import com.amazonaws.util.BinaryUtils;
+import de.adorsys.datasafe.storage.api.AbortableStream;
 import de.adorsys.datasafe.types.api.resource.ResourceLocation;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
 import lombok.SneakyThrows;
@@ -31,8 +32,8 @@ import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.util.ArrayList;
@@ -41,9 +42,16 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Slf4j
-public class MultipartUploadS3StorageOutputStream extends OutputStream {
+public class MultipartUploadS3StorageOutputStream extends OutputStream implements AbortableStream {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    // S3 limit of parts count in single multipart upload
+    private static final int MAX_PARTS = 10_000;
 
     private String bucketName;
 
@@ -51,58 +59,92 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     private AmazonS3 amazonS3;
 
-    // The minimum size for a multi part request is 5 MB, hence the buffer size of 5 MB
-    private static final int BUFFER_SIZE = 1024 * 1024 * 5;
+    // The minimum size for a multi part request is 5 MB, hence the default size of the first part is 5 MB
+    static final int BUFFER_SIZE = 1024 * 1024 * 5;
 
     private final CompletionService<UploadPartResult> completionService;
 
-    private ByteArrayOutputStream currentOutputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final PartBufferPool bufferPool;
+
+    // Part sizes grow as stream gets longer
+    private final S3StorageConfig config;
+
+    // Limits parts of this stream that are being uploaded, so that it can't occupy whole shared executor
+    private final Semaphore partsInFlight;
+
+    // Part buffer that is being filled, it is taken from pool on first write to it
+    private byte[] currentBuffer;
+
+    private int currentSize;
+
+    private boolean closed;
 
     private InitiateMultipartUploadResult multiPartUploadResult;
 
     private int partCounter = 1;
 
     MultipartUploadS3StorageOutputStream(String bucketName, ResourceLocation resource, AmazonS3 amazonS3,
-                                                ExecutorService executorService) {
+                                         ExecutorService executorService, S3StorageConfig config) {
+        this(bucketName, resource.location().getPath().replaceFirst("^/", ""), amazonS3, executorService, config);
+    }
+
+    MultipartUploadS3StorageOutputStream(String bucketName, String objectName, AmazonS3 amazonS3,
+                                         ExecutorService executorService, S3StorageConfig config) {
         this.bucketName = bucketName;
-        this.objectName = resource.location().getPath().replaceFirst("^/", "");
+        this.objectName = objectName;
         this.amazonS3 = amazonS3;
         this.completionService = new ExecutorCompletionService<>(executorService);
+        this.bufferPool = config.getPartBufferPool();
+        this.config = config;
+        this.partsInFlight = new Semaphore(config.getMaxConcurrentPartsPerStream());
 
         log.debug("Write to bucket: {} with name: {}", Obfuscate.secure(bucketName), Obfuscate.secure(objectName));
     }
 
     @Override
     @Synchronized
-    public void write(int b) {
-        currentOutputStream.write(b);
+    public void write(int b) throws IOException {
+        ensureOpen();
+        acquireBufferIfNeeded();
+        currentBuffer[currentSize++] = (byte) b;
+        submitCurrentPartIfFull();
+    }
 
-        if (currentOutputStream.size() == BUFFER_SIZE) {
-            initiateMultiPartIfNeeded();
-            completionService.submit(new UploadChunkResultCallable(
-                    ChunkUploadRequest
-                            .builder()
-                            .amazonS3(amazonS3)
-                            .content(currentOutputStream.toByteArray())
-                            .contentSize(currentOutputStream.size())
-                            .bucketName(bucketName)
-                            .objectName(objectName)
-                            .uploadId(multiPartUploadResult.getUploadId())
-                            .chunkNumberCounter(partCounter++)
-                            .lastChunk(false)
-                            .build()
-            ));
-            currentOutputStream.reset();
+    /**
+     * Bulk write that fills part buffers using array copies, so that lock and buffer checks are done per
+     * {@code bytes} chunk and not per each byte.
+     */
+    @Override
+    @Synchronized
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureOpen();
+
+        int position = off;
+        int remaining = len;
+        while (remaining > 0) {
+            acquireBufferIfNeeded();
+            int toCopy = Math.min(remaining, currentBuffer.length - currentSize);
+            System.arraycopy(bytes, position, currentBuffer, currentSize, toCopy);
+            currentSize += toCopy;
+            position += toCopy;
+            remaining -= toCopy;
+            submitCurrentPartIfFull();
         }
     }
 
     @Override
     @Synchronized
     public void close() throws IOException {
-        if (currentOutputStream == null) {
+        if (closed) {
             return;
         }
 
+        closed = true;
+
         if (isMultiPartUpload()) {
             finishMultiPartUpload();
         } else {
@@ -110,48 +152,143 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
         }
     }
 
-    private boolean isMultiPartUpload() {
-        return multiPartUploadResult != null;
+    /**
+     * Discards written content: waits for parts that are being uploaded and aborts multipart upload,
+     * so that object keeps its previous content.
+     */
+    @Override
+    @Synchronized
+    public void abort() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        releaseCurrentBuffer();
+        if (!isMultiPartUpload()) {
+            return;
+        }
+
+        try {
+            for (int i = 1; i < partCounter; i++) {
+                awaitQuietly(completionService.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            abortMultiPartUpload();
+        }
     }
 
-    @SneakyThrows
-    private void finishSimpleUpload() {
-        ObjectMetadata objectMetadata = new ObjectMetadata();
-        objectMetadata.setContentLength(currentOutputStream.size());
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
 
-        byte[] content = currentOutputStream.toByteArray();
+    private void submitCurrentPartIfFull() throws IOException {
+        if (currentSize == currentBuffer.length) {
+            initiateMultiPartIfNeeded();
+            submitCurrentPart(false);
+        }
+    }
 
-        MessageDigest messageDigest = MessageDigest.getInstance("MD5");
-        String md5Digest = BinaryUtils.toBase64(messageDigest.digest(content));
-        objectMetadata.setContentMD5(md5Digest);
+    private boolean isMultiPartUpload() {
+        return multiPartUploadResult != null;
+    }
 
-        amazonS3.putObject(
-                bucketName,
-                objectName,
-                new ByteArrayInputStream(content),
-                objectMetadata);
+    // Blocks when pool memory budget is exhausted, so that writer waits until some parts are uploaded
+    private void acquireBufferIfNeeded() throws IOException {
+        if (null != currentBuffer) {
+            return;
+        }
 
-        // Release the memory
-        currentOutputStream = null;
+        if (partCounter > MAX_PARTS) {
+            throw new IOException("Upload exceeds " + MAX_PARTS + " parts, increase maximal part size or its growth");
+        }
 
-        log.debug("Finished simple upload");
+        try {
+            currentBuffer = bufferPool.acquire(config.partSize(partCounter));
+            currentSize = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for part buffer");
+        }
     }
 
-    private void finishMultiPartUpload() throws IOException {
-        completionService.submit(
-                new UploadChunkResultCallable(ChunkUploadRequest.builder()
+    // Buffer ownership goes to upload task, which returns it to the pool when part is sent
+    private void submitCurrentPart(boolean last) throws IOException {
+        boolean pooled = null != currentBuffer;
+        UploadChunkResultCallable upload = new UploadChunkResultCallable(
+                ChunkUploadRequest
+                        .builder()
                         .amazonS3(amazonS3)
-                        .content(currentOutputStream.toByteArray())
-                        .contentSize(currentOutputStream.size())
+                        .content(pooled ? currentBuffer : EMPTY)
+                        .contentSize(currentSize)
+                        .bufferPool(pooled ? bufferPool : null)
                         .bucketName(bucketName)
                         .objectName(objectName)
                         .uploadId(multiPartUploadResult.getUploadId())
-                        .chunkNumberCounter(partCounter)
-                        .lastChunk(true)
+                        .chunkNumberCounter(partCounter++)
+                        .lastChunk(last)
                         .build()
-                )
         );
 
+        awaitPartSlot();
+        completionService.submit(() -> {
+            try {
+                return upload.call();
+            } finally {
+                partsInFlight.release();
+            }
+        });
+
+        currentBuffer = null;
+        currentSize = 0;
+    }
+
+    private void awaitPartSlot() throws IOException {
+        try {
+            partsInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for part upload slot");
+        }
+    }
+
+    @SneakyThrows
+    private void finishSimpleUpload() {
+        byte[] content = null == currentBuffer ? EMPTY : currentBuffer;
+
+        try {
+            ObjectMetadata objectMetadata = new ObjectMetadata();
+            objectMetadata.setContentLength(currentSize);
+
+            MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+            messageDigest.update(content, 0, currentSize);
+            String md5Digest = BinaryUtils.toBase64(messageDigest.digest());
+            objectMetadata.setContentMD5(md5Digest);
+
+            amazonS3.putObject(
+                    bucketName,
+                    objectName,
+                    new ByteArrayInputStream(content, 0, currentSize),
+                    objectMetadata);
+        } finally {
+            // Release the memory
+            releaseCurrentBuffer();
+        }
+
+        log.debug("Finished simple upload");
+    }
+
+    private void finishMultiPartUpload() throws IOException {
+        // multipart upload starts with full part, so content that ends at part boundary needs no empty last
+        // part, which would also exceed part limit if content fills all of them
+        if (0 != currentSize) {
+            submitCurrentPart(true);
+        }
+
         try {
             List<PartETag> partETags = getMultiPartsUploadResults();
 
@@ -175,8 +312,13 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
             log.error(e.getMessage(), e);
             abortMultiPartUpload();
             Thread.currentThread().interrupt();
-        } finally {
-            currentOutputStream = null;
+        }
+    }
+
+    private void releaseCurrentBuffer() {
+        if (null != currentBuffer) {
+            bufferPool.release(currentBuffer);
+            currentBuffer = null;
         }
     }
 
@@ -200,14 +342,33 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
         }
     }
 
+    private static void awaitQuietly(Future<UploadPartResult> part) throws InterruptedException {
+        try {
+            part.get();
+        } catch (ExecutionException ex) {
+            // upload is aborted anyway
+        }
+    }
+
+    // Waits for all parts even if some failed, so that no part is uploaded after abort
     private List<PartETag> getMultiPartsUploadResults() throws ExecutionException, InterruptedException {
-        List<PartETag> result = new ArrayList<>(partCounter);
-        for (int i = 0; i < partCounter; i++) {
-            UploadPartResult partResult = completionService.take().get();
-            result.add(partResult.getPartETag());
+        List<PartETag> result = new ArrayList<>(partCounter - 1);
+        ExecutionException failure = null;
+        for (int i = 1; i < partCounter; i++) {
+            try {
+                UploadPartResult partResult = completionService.take().get();
+                result.add(partResult.getPartETag());
+            } catch (ExecutionException ex) {
+                failure = null == failure ? ex : failure;
+            }
 
             log.debug("Get upload part #{} from {}", i, partCounter);
         }
+
+        if (null != failure) {
+            throw failure;
+        }
+
         return result;
     }
 
@@ -0,0 +1,13 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Value;
+
+/**
+ * Bucket and physical key of object or listing prefix.
+ */
+@Value
+class ObjectPlacement {
+
+    private final String bucket;
+    private final String key;
+}
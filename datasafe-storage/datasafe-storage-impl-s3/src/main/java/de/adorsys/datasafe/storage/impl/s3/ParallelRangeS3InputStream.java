@@ -0,0 +1,187 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.util.IOUtils;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads S3 object using concurrent byte-range GET requests. First range is streamed directly from the initial
+ * request, while following ranges are fetched using {@code executorService} and are consumed in order.
+ * Only {@code prefetchRanges} ranges can be in-flight or buffered at a time, so that memory used by the stream
+ * is bounded by {@code prefetchRanges * rangeSize}.
+ */
+@Slf4j
+class ParallelRangeS3InputStream extends InputStream {
+
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private final String objectName;
+    private final ExecutorService executorService;
+    private final int rangeSize;
+    private final int prefetchRanges;
+
+    private final Deque<Future<byte[]>> prefetched = new ArrayDeque<>();
+
+    private String eTag;
+    private long objectSize;
+    private long nextRangeStart;
+    private InputStream current;
+    private boolean closed;
+
+    ParallelRangeS3InputStream(AmazonS3 s3, String bucketName, String objectName, ExecutorService executorService,
+                               int rangeSize, int prefetchRanges) {
+        this.s3 = s3;
+        this.bucketName = bucketName;
+        this.objectName = objectName;
+        this.executorService = executorService;
+        this.rangeSize = rangeSize;
+        this.prefetchRanges = prefetchRanges;
+
+        openFirstRange();
+        fillWindow();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return -1 == read ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+
+        if (0 == len) {
+            return 0;
+        }
+
+        while (null != current) {
+            int read = current.read(bytes, off, len);
+            if (-1 != read) {
+                return read;
+            }
+
+            nextRange();
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return null == current ? 0 : current.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        prefetched.forEach(it -> it.cancel(true));
+        prefetched.clear();
+
+        if (null != current) {
+            current.close();
+            current = null;
+        }
+    }
+
+    private void openFirstRange() {
+        S3Object first;
+        try {
+            first = s3.getObject(new GetObjectRequest(bucketName, objectName).withRange(0, rangeSize - 1L));
+        } catch (AmazonS3Exception ex) {
+            if (RANGE_NOT_SATISFIABLE != ex.getStatusCode()) {
+                throw ex;
+            }
+
+            // Empty object can't satisfy any range
+            first = s3.getObject(new GetObjectRequest(bucketName, objectName));
+        }
+
+        this.current = first.getObjectContent();
+        this.eTag = first.getObjectMetadata().getETag();
+        // If storage ignores range header whole object is sent, so there is nothing left to prefetch
+        this.nextRangeStart = first.getObjectMetadata().getContentLength();
+        this.objectSize = first.getObjectMetadata().getInstanceLength();
+
+        log.debug("Parallel read of {} with size {}", Obfuscate.secure(objectName), objectSize);
+    }
+
+    private void fillWindow() {
+        while (prefetched.size() < prefetchRanges && nextRangeStart < objectSize) {
+            long start = nextRangeStart;
+            long end = Math.min(start + rangeSize, objectSize) - 1;
+            prefetched.addLast(executorService.submit(() -> fetchRange(start, end)));
+            nextRangeStart = end + 1;
+        }
+    }
+
+    private void nextRange() throws IOException {
+        current.close();
+        current = null;
+
+        Future<byte[]> next = prefetched.pollFirst();
+        if (null == next) {
+            return;
+        }
+
+        current = new ByteArrayInputStream(await(next));
+        fillWindow();
+    }
+
+    private byte[] fetchRange(long start, long end) throws IOException {
+        log.trace("Fetch range {}-{} of {}", start, end, Obfuscate.secure(objectName));
+        GetObjectRequest request = new GetObjectRequest(bucketName, objectName).withRange(start, end);
+        if (null != eTag) {
+            request.withMatchingETagConstraint(eTag);
+        }
+
+        S3Object range = s3.getObject(request);
+        // AmazonS3 returns null if ETag constraint was not met
+        if (null == range) {
+            throw new IOException("Object was modified while reading " + Obfuscate.secure(objectName));
+        }
+
+        try (InputStream is = range.getObjectContent()) {
+            byte[] content = IOUtils.toByteArray(is);
+            if (content.length != end - start + 1) {
+                throw new IOException("Unexpected range size " + content.length + " for " + start + "-" + end);
+            }
+
+            return content;
+        }
+    }
+
+    private static byte[] await(Future<byte[]> range) throws IOException {
+        try {
+            return range.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for range");
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to read range", ex.getCause());
+        }
+    }
+}
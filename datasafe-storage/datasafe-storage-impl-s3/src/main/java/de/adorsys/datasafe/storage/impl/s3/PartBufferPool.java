@@ -0,0 +1,169 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Bounded pool of multipart upload part buffers that is shared between upload streams. Total size of buffers
+ * that are in use (being filled or uploaded) or kept for reuse never exceeds {@code memoryBudget}, so requesting
+ * buffer blocks the writer until some part upload completes and returns its buffer to the pool.
+ * Buffers are reused as-is, so that part content is handed to upload request without copying.
+ * Buffer that was never released (i.e. stream was abandoned without being closed) is returned to the budget
+ * once it is garbage collected, so that abandoned streams can't exhaust budget for good.
+ */
+@Slf4j
+public class PartBufferPool {
+
+    private static final long DEFAULT_MAX_BUDGET = 512L * 1024 * 1024;
+
+    // Waiting writer wakes up this often to reclaim buffers of abandoned streams
+    private static final long RECLAIM_INTERVAL_MS = 100;
+
+    /**
+     * JVM-wide pool that can use up to quarter of heap, but not more than 512 MB.
+     */
+    public static final PartBufferPool DEFAULT = new PartBufferPool(
+            Math.min(Runtime.getRuntime().maxMemory() / 4, DEFAULT_MAX_BUDGET)
+    );
+
+    @Getter
+    private final long memoryBudget;
+
+    private final Map<Integer, Deque<byte[]>> idleBySize = new HashMap<>();
+
+    // Arrays have identity equality, so weak map finds lease of buffer without keeping buffer reachable
+    private final Map<byte[], BufferLease> leaseByBuffer = new WeakHashMap<>();
+    // Keeps leases reachable until their buffer is collected, otherwise they would not be enqueued
+    private final Set<BufferLease> leases = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ReferenceQueue<byte[]> abandoned = new ReferenceQueue<>();
+
+    private long allocated;
+
+    /**
+     * @param memoryBudget Maximum amount of bytes that buffers from this pool can occupy
+     */
+    public PartBufferPool(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Provides buffer of exactly {@code size} bytes, blocks if memory budget is exhausted.
+     * @param size Buffer size
+     * @return Buffer that should be returned using {@link PartBufferPool#release(byte[])}
+     * @throws InterruptedException if interrupted while waiting for buffer
+     */
+    public synchronized byte[] acquire(int size) throws InterruptedException {
+        if (size > memoryBudget) {
+            throw new IllegalArgumentException("Requested buffer " + size + " exceeds memory budget " + memoryBudget);
+        }
+
+        while (true) {
+            reclaimAbandoned();
+
+            Deque<byte[]> idle = idleBySize.get(size);
+            if (null != idle && !idle.isEmpty()) {
+                return lease(idle.pollFirst());
+            }
+
+            if (allocated + size > memoryBudget) {
+                evictIdle(allocated + size - memoryBudget);
+            }
+
+            if (allocated + size <= memoryBudget) {
+                allocated += size;
+                return lease(new byte[size]);
+            }
+
+            log.trace("Part buffer memory budget exhausted, waiting for buffer of {} bytes", size);
+            wait(RECLAIM_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Returns buffer to the pool, so that it can be reused.
+     * @param buffer Buffer obtained using {@link PartBufferPool#acquire(int)}
+     */
+    public synchronized void release(byte[] buffer) {
+        BufferLease lease = leaseByBuffer.remove(buffer);
+        if (null != lease) {
+            leases.remove(lease);
+            lease.clear();
+        }
+
+        idleBySize.computeIfAbsent(buffer.length, size -> new ArrayDeque<>()).addFirst(buffer);
+        notifyAll();
+    }
+
+    /**
+     * @return Amount of bytes currently occupied by buffers, both in-use and idle.
+     */
+    public synchronized long allocated() {
+        reclaimAbandoned();
+        return allocated;
+    }
+
+    private byte[] lease(byte[] buffer) {
+        BufferLease lease = new BufferLease(buffer, abandoned);
+        leaseByBuffer.put(buffer, lease);
+        leases.add(lease);
+        return buffer;
+    }
+
+    private void reclaimAbandoned() {
+        Reference<? extends byte[]> collected;
+        while (null != (collected = abandoned.poll())) {
+            BufferLease lease = (BufferLease) collected;
+            if (leases.remove(lease)) {
+                log.warn("Part buffer of {} bytes was not released, upload stream was probably not closed",
+                        lease.size);
+                allocated -= lease.size;
+                notifyAll();
+            }
+        }
+    }
+
+    // Drops idle buffers of other sizes, so that their memory can be used for buffers of requested size
+    private void evictIdle(long bytesNeeded) {
+        long evicted = 0;
+        Iterator<Deque<byte[]>> bySize = idleBySize.values().iterator();
+        while (bySize.hasNext() && evicted < bytesNeeded) {
+            Deque<byte[]> idle = bySize.next();
+            while (!idle.isEmpty() && evicted < bytesNeeded) {
+                evicted += idle.pollFirst().length;
+            }
+
+            if (idle.isEmpty()) {
+                bySize.remove();
+            }
+        }
+
+        allocated -= evicted;
+    }
+
+    private static class BufferLease extends PhantomReference<byte[]> {
+
+        private final int size;
+
+        BufferLease(byte[] buffer, ReferenceQueue<byte[]> queue) {
+            super(buffer, queue);
+            this.size = buffer.length;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executes request on {@code executorService} and, if it does not respond within hedge delay, sends it once more
+ * when {@link HedgeBudget} allows. The first successful response is returned and the other one is discarded,
+ * request fails only when all sent requests failed.
+ */
+class RequestHedger {
+
+    private final ExecutorService executorService;
+    private final HedgeBudget budget;
+
+    @Getter
+    private final HedgeStats stats;
+
+    RequestHedger(ExecutorService executorService, HedgeBudget budget, HedgingConfig config) {
+        this.executorService = executorService;
+        this.budget = budget;
+        this.stats = new HedgeStats(config);
+    }
+
+    /**
+     * @param request Request to execute, must be safe to execute twice
+     * @param discard Releases response that lost
+     */
+    @SneakyThrows
+    <T> T call(Callable<T> request, Consumer<T> discard) {
+        stats.recordRequest();
+        Attempts<T> attempts = new Attempts<>(request, discard);
+        try {
+            attempts.start(false);
+        } catch (RejectedExecutionException ex) {
+            // pool is saturated, request is not delayed by waiting for it
+            return request.call();
+        }
+
+        try {
+            try {
+                return attempts.result.get(stats.delayNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                attempts.hedge();
+                return attempts.result.get();
+            }
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        } catch (InterruptedException ex) {
+            // late response is discarded by the attempt that fails to complete result
+            attempts.result.cancel(false);
+            throw ex;
+        }
+    }
+
+    private class Attempts<T> {
+
+        private final Callable<T> request;
+        private final Consumer<T> discard;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean responded = new AtomicBoolean();
+
+        Attempts(Callable<T> request, Consumer<T> discard) {
+            this.request = request;
+            this.discard = discard;
+        }
+
+        void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+
+            if (!budget.tryAcquire()) {
+                stats.recordThrottled();
+                return;
+            }
+
+            stats.recordHedge();
+            try {
+                start(true);
+            } catch (RejectedExecutionException ex) {
+                // the first request is still running
+            }
+        }
+
+        void start(boolean isHedge) {
+            pending.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                CompletableFuture.supplyAsync(this::execute, executorService)
+                        .whenComplete((response, ex) -> completed(isHedge, start, response, ex));
+            } catch (RejectedExecutionException ex) {
+                pending.decrementAndGet();
+                throw ex;
+            }
+        }
+
+        @SneakyThrows
+        private T execute() {
+            return request.call();
+        }
+
+        private void completed(boolean isHedge, long start, T response, Throwable ex) {
+            pending.decrementAndGet();
+            if (null == ex) {
+                stats.recordLatency(System.nanoTime() - start);
+                // win is recorded before caller is released, so that it is visible once call returns
+                boolean first = responded.compareAndSet(false, true);
+                if (first && isHedge) {
+                    stats.recordHedgeWin();
+                }
+
+                if (!first || !result.complete(response)) {
+                    discard.accept(response);
+                }
+                return;
+            }
+
+            if (0 == pending.get()) {
+                result.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Physical layout of S3 keys that spreads load over S3 partitions: each key gets hash shard prefix
+ * ({@code alice/private/files/doc} is stored as {@code 0a/alice/private/files/doc}) and users can be
+ * spread across several buckets, all keys of single user (first {@code tenantDepth} key segments) are in the same
+ * bucket. Users are identified by the first key segment if DFS system root is bucket root, as
+ * {@code DefaultDFSConfig} places user directories right under system root; if system root is deeper
+ * (i.e. {@code datasafe/system/alice/...}), {@code tenantDepth} must include its segments, otherwise all users
+ * are placed into the same bucket. Layout is invisible to callers - locations keep their logical keys and
+ * listing fans out to all shard prefixes (and buckets, if the prefix does not identify single user). Layout must
+ * not change once data is written.
+ */
+@Value
+@Builder(toBuilder = true)
+public class S3KeyLayout {
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final String DELIMITER = "/";
+
+    /**
+     * Amount of hash shard prefixes, 0 disables shard prefix.
+     */
+    @Builder.Default
+    private final int shards = 16;
+
+    /**
+     * Buckets to spread users across, bucket given to {@link S3StorageService} is used if empty.
+     */
+    @Singular
+    private final List<String> buckets;
+
+    /**
+     * Amount of leading key segments that identify user, i.e. 1 for {@code alice/private/...} keys and 3 for
+     * {@code datasafe/system/alice/private/...} keys.
+     */
+    @Builder.Default
+    private final int tenantDepth = 1;
+
+    ObjectPlacement place(String defaultBucket, String key) {
+        return new ObjectPlacement(bucket(defaultBucket, tenant(key)), shardPrefix(key) + key);
+    }
+
+    /**
+     * @return Bucket and physical key prefix pairs that together hold all keys starting with {@code prefix}
+     */
+    List<ObjectPlacement> listing(String defaultBucket, String prefix) {
+        List<String> candidateBuckets = buckets.isEmpty()
+                ? Collections.singletonList(defaultBucket)
+                : tenantOfPrefix(prefix)
+                        .map(it -> Collections.singletonList(bucket(defaultBucket, it)))
+                        .orElse(buckets);
+
+        List<ObjectPlacement> result = new ArrayList<>();
+        for (String bucket : candidateBuckets) {
+            if (0 == shards) {
+                result.add(new ObjectPlacement(bucket, prefix));
+                continue;
+            }
+
+            for (int shard = 0; shard < shards; shard++) {
+                result.add(new ObjectPlacement(bucket, shardName(shard) + DELIMITER + prefix));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return All buckets that keys can be placed into
+     */
+    List<String> allBuckets(String defaultBucket) {
+        return buckets.isEmpty() ? Collections.singletonList(defaultBucket) : buckets;
+    }
+
+    String logicalKey(String physicalKey) {
+        if (0 == shards) {
+            return physicalKey;
+        }
+
+        return physicalKey.substring(physicalKey.indexOf(DELIMITER) + 1);
+    }
+
+    private String bucket(String defaultBucket, String tenant) {
+        if (buckets.isEmpty()) {
+            return defaultBucket;
+        }
+
+        return buckets.get(Integer.remainderUnsigned(hash(tenant), buckets.size()));
+    }
+
+    private String shardPrefix(String key) {
+        if (0 == shards) {
+            return "";
+        }
+
+        return shardName(Integer.remainderUnsigned(hash(key), shards)) + DELIMITER;
+    }
+
+    private String shardName(int shard) {
+        int width = Integer.toHexString(Math.max(1, shards - 1)).length();
+        String name = Integer.toHexString(shard);
+        StringBuilder padded = new StringBuilder(width);
+        for (int i = name.length(); i < width; i++) {
+            padded.append('0');
+        }
+        return padded.append(name).toString();
+    }
+
+    private String tenant(String key) {
+        return tenantOfPrefix(key).orElse(key);
+    }
+
+    // Tenant is known only if prefix contains all of its segments
+    private Optional<String> tenantOfPrefix(String prefix) {
+        int end = -1;
+        for (int segment = 0; segment < tenantDepth; segment++) {
+            end = prefix.indexOf(DELIMITER, end + 1);
+            if (end < 0) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(prefix.substring(0, end));
+    }
+
+    // FNV-1a, so that placement does not depend on JVM
+    private static int hash(String value) {
+        int hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,124 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Tuning options of {@link S3StorageService}. Default values keep the behavior of plain
+ * {@link S3StorageService#S3StorageService(com.amazonaws.services.s3.AmazonS3, String,
+ * java.util.concurrent.ExecutorService)}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class S3StorageConfig {
+
+    public static final S3StorageConfig DEFAULT = S3StorageConfig.builder().build();
+
+    private static final int MB = 1024 * 1024;
+
+    /**
+     * Read objects using concurrent byte-range GET requests instead of single GET request.
+     */
+    @Builder.Default
+    private final boolean parallelRead = false;
+
+    /**
+     * Size of single byte-range GET request in bytes (parallel read only).
+     */
+    @Builder.Default
+    private final int readRangeSize = 8 * MB;
+
+    /**
+     * How many byte-ranges can be fetched ahead of the one being read (parallel read only), each stream buffers
+     * at most {@code readRangeSize * readPrefetchRanges} bytes.
+     */
+    @Builder.Default
+    private final int readPrefetchRanges = 4;
+
+    /**
+     * Pool of multipart upload part buffers, its memory budget limits how much memory all upload streams that
+     * share it can use, writers block when the budget is exhausted.
+     */
+    @Builder.Default
+    private final PartBufferPool partBufferPool = PartBufferPool.DEFAULT;
+
+    /**
+     * Size of the first multipart upload part in bytes, content smaller than it is sent using single PUT request.
+     * S3 requires all parts except the last one to be at least 5 MB.
+     */
+    @Builder.Default
+    private final int minPartSize = 5 * MB;
+
+    /**
+     * Part size never grows beyond this value, nor beyond memory budget of {@code partBufferPool}.
+     */
+    @Builder.Default
+    private final int maxPartSize = 128 * MB;
+
+    /**
+     * Part size is multiplied by this factor each {@code partsPerGrowthStep} parts, so that long uploads use
+     * larger parts and can exceed 10000 * {@code minPartSize} bytes (S3 allows at most 10000 parts).
+     * Use 1 to keep part size constant.
+     */
+    @Builder.Default
+    private final double partSizeGrowthFactor = 2.0;
+
+    /**
+     * How many parts are uploaded before part size grows.
+     */
+    @Builder.Default
+    private final int partsPerGrowthStep = 100;
+
+    /**
+     * How many parts of single upload stream can be sent concurrently, writer blocks when this limit is reached,
+     * so that one large upload can't occupy whole executor.
+     */
+    @Builder.Default
+    private final int maxConcurrentPartsPerStream = 8;
+
+    /**
+     * How many multi-object delete requests (up to 1000 keys each) can be executed concurrently by
+     * {@link S3StorageService#removeAll(java.util.stream.Stream)}.
+     */
+    @Builder.Default
+    private final int removeBatchesInFlight = 4;
+
+    /**
+     * Objects larger than this are copied by {@link S3StorageService#copy} using concurrent multipart copy
+     * requests, smaller ones using single copy request. S3 copies at most 5 GB using single request.
+     */
+    @Builder.Default
+    private final long multipartCopyThreshold = 512L * MB;
+
+    /**
+     * Size of single multipart copy part in bytes, grows if object would have more than 10000 parts.
+     */
+    @Builder.Default
+    private final long copyPartSize = 128L * MB;
+
+    /**
+     * Hedges GET requests of {@link S3StorageService#read} and HEAD requests of
+     * {@link S3StorageService#objectExists} that are slower than usual, requests are then executed using
+     * {@code executorService}. {@code null} disables hedging.
+     */
+    private final HedgingConfig hedging;
+
+    /**
+     * Adds hash shard prefix to object keys and spreads users across buckets, so that single busy user does not
+     * hit request rate limit of S3 prefix. {@code null} keeps keys as they are.
+     */
+    private final S3KeyLayout keyLayout;
+
+    /**
+     * @param partNumber Multipart upload part number, starting from 1
+     * @return Size of given part according to part size growth settings
+     */
+    int partSize(int partNumber) {
+        long size = minPartSize;
+        for (int step = (partNumber - 1) / partsPerGrowthStep; step > 0 && size < maxPartSize; step--) {
+            size = (long) Math.ceil(size * partSizeGrowthFactor);
+        }
+
+        return (int) Math.min(Math.min(size, maxPartSize), partBufferPool.getMemoryBudget());
+    }
+}
@@ -1,19 +1,57 @@
 package de.adorsys.datasafe.storage.impl.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.iterable.S3Objects;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.actions.PagedListing;
+import de.adorsys.datasafe.types.api.actions.ListPage;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -23,9 +61,21 @@ import java.util.stream.StreamSupport;
 @Slf4j
 public class S3StorageService implements StorageService {
 
+    private static final int NOT_FOUND = 404;
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final int MAX_KEYS_PER_LIST = 1000;
+    private static final int MAX_PARTS = 10000;
+    private static final String DELIMITER = "/";
+    // sorts after any key within directory, so that listing that starts after it skips the directory
+    private static final String DIRECTORY_END = new String(Character.toChars(Character.MAX_CODE_POINT));
+
     private final AmazonS3 s3;
     private final String bucketName;
     private final ExecutorService executorService;
+    private final S3StorageConfig config;
+    private final RequestHedger readHedger;
+    private final RequestHedger existsHedger;
+    private final S3KeyLayout layout;
 
     /**
      * @param s3 Connection to S3
@@ -34,9 +84,41 @@ public class S3StorageService implements StorageService {
      */
     @Inject
     public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService) {
+        this(s3, bucketName, executorService, S3StorageConfig.DEFAULT);
+    }
+
+    /**
+     * @param s3 Connection to S3
+     * @param bucketName Bucket to use
+     * @param executorService Multipart sending and parallel reading threadpool
+     * @param config Tuning options
+     */
+    public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService,
+                            S3StorageConfig config) {
         this.s3 = s3;
         this.bucketName = bucketName;
         this.executorService = executorService;
+        this.config = config;
+        this.layout = config.getKeyLayout();
+
+        HedgingConfig hedging = null == config.getHedging() ? HedgingConfig.DEFAULT : config.getHedging();
+        HedgeBudget budget = new HedgeBudget(hedging.getHedgesPerSecond(), hedging.getMaxBurst());
+        this.readHedger = new RequestHedger(executorService, budget, hedging);
+        this.existsHedger = new RequestHedger(executorService, budget, hedging);
+    }
+
+    /**
+     * @return Hedging of GET requests used by {@link S3StorageService#read(AbsoluteLocation)}
+     */
+    public HedgeStats readHedgeStats() {
+        return readHedger.getStats();
+    }
+
+    /**
+     * @return Hedging of HEAD requests used by {@link S3StorageService#objectExists(AbsoluteLocation)}
+     */
+    public HedgeStats existsHedgeStats() {
+        return existsHedger.getStats();
     }
 
     /**
@@ -47,55 +129,477 @@ public class S3StorageService implements StorageService {
         log.debug("List at {}", Obfuscate.secure(location));
         String prefix = location.location().getPath().replaceFirst("^/", "");
 
-        S3Objects s3ObjectSummaries = S3Objects.withPrefix(s3, bucketName, prefix);
-        Stream<S3ObjectSummary> objectStream = StreamSupport.stream(s3ObjectSummaries.spliterator(), false);
-        return objectStream
-                .map(os -> new AbsoluteLocation<>(
-                        new BaseResolvedResource(
-                                createResource(location, os, prefix.length()),
-                                os.getLastModified().toInstant()
-                        ))
-                );
+        return objectSummaries(prefix).map(os -> resolved(location, os, prefix.length()));
+    }
+
+    /**
+     * Lists single level within bucket using '/' delimiter, common prefixes are returned as directories.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        log.debug("List shallow at {}", Obfuscate.secure(location));
+        String prefix = location.location().getPath().replaceFirst("^/", "");
+        String dirPrefix = prefix.isEmpty() || prefix.endsWith(DELIMITER) ? prefix : prefix + DELIMITER;
+
+        // the same directory can be present in several shards
+        Set<String> seenDirs = new HashSet<>();
+        return listingPlacements(dirPrefix).stream()
+                .flatMap(placement -> StreamSupport.stream(new ListingPages(s3, new ListObjectsV2Request()
+                        .withBucketName(placement.getBucket())
+                        .withPrefix(placement.getKey())
+                        .withDelimiter(DELIMITER), executorService), false)
+                )
+                .flatMap(page -> Stream.concat(
+                        page.getObjectSummaries().stream()
+                                .filter(os -> !logicalKey(os.getKey()).equals(dirPrefix))
+                                .map(os -> resolved(location, os, prefix.length())),
+                        page.getCommonPrefixes().stream()
+                                .map(this::logicalKey)
+                                .filter(seenDirs::add)
+                                .map(dir -> new AbsoluteLocation<ResolvedResource>(
+                                        new BaseResolvedResource(createResource(location, dir, prefix.length()), null)
+                                ))
+                ));
+    }
+
+    /**
+     * Lists single page that starts after the key of the last entry of previous page (S3 StartAfter), so the
+     * token stays valid across shards. Shard listings are fetched in parallel and merged by logical key.
+     */
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        log.debug("List page at {}", Obfuscate.secure(location));
+        PagedListing.validatePageSize(pageSize);
+        String prefix = location.location().getPath().replaceFirst("^/", "");
+        String afterKey = PagedListing.afterKey(continuationToken);
+
+        List<ShardObjects> shards = fanOut(listingPlacements(prefix), it -> objectsAfter(it, afterKey, pageSize));
+
+        List<S3ObjectSummary> merged = shards.stream()
+                .flatMap(it -> it.getObjects().stream())
+                .sorted(Comparator.comparing(os -> logicalKey(os.getKey())))
+                .collect(Collectors.toList());
+        List<S3ObjectSummary> page = merged.subList(0, Math.min(pageSize, merged.size()));
+        boolean hasNext = merged.size() > pageSize || shards.stream().anyMatch(ShardObjects::isTruncated);
+
+        return new ListPage<>(
+                page.stream().map(os -> resolved(location, os, prefix.length())).collect(Collectors.toList()),
+                hasNext && !page.isEmpty()
+                        ? PagedListing.token(logicalKey(page.get(page.size() - 1).getKey()).substring(prefix.length()))
+                        : null
+        );
+    }
+
+    /**
+     * Lists single page of single level using '/' delimiter, that starts after the file or directory of the last
+     * entry of previous page (S3 StartAfter), like {@link S3StorageService#listPage(AbsoluteLocation, String, int)}.
+     */
+    @Override
+    public ListPage<AbsoluteLocation<ResolvedResource>> listShallowPage(
+            AbsoluteLocation location, String continuationToken, int pageSize) {
+        log.debug("List shallow page at {}", Obfuscate.secure(location));
+        PagedListing.validatePageSize(pageSize);
+        String prefix = location.location().getPath().replaceFirst("^/", "");
+        String dirPrefix = prefix.isEmpty() || prefix.endsWith(DELIMITER) ? prefix : prefix + DELIMITER;
+        String afterKey = PagedListing.afterKey(continuationToken);
+
+        List<ShardEntries> shards = fanOut(
+                listingPlacements(dirPrefix),
+                it -> entriesAfter(it, location, dirPrefix, prefix.length(), afterKey, pageSize)
+        );
+
+        // the same directory can be present in several shards
+        NavigableMap<String, AbsoluteLocation<ResolvedResource>> merged = new TreeMap<>();
+        shards.forEach(it -> merged.putAll(it.getEntries()));
+        List<Map.Entry<String, AbsoluteLocation<ResolvedResource>>> page = merged.entrySet().stream()
+                .limit(pageSize)
+                .collect(Collectors.toList());
+        boolean hasNext = merged.size() > pageSize || shards.stream().anyMatch(ShardEntries::isTruncated);
+
+        return new ListPage<>(
+                page.stream().map(Map.Entry::getValue).collect(Collectors.toList()),
+                hasNext && !page.isEmpty() ? PagedListing.token(page.get(page.size() - 1).getKey()) : null
+        );
     }
 
     @Override
     public InputStream read(AbsoluteLocation location) {
-        String key = location.location().getPath().replaceFirst("^/", "");
-        log.debug("Read from {}", Obfuscate.secure(key));
-        GetObjectRequest getObjectRequest = new GetObjectRequest(bucketName, key);
-        S3Object fullObject = s3.getObject(getObjectRequest);
+        ObjectPlacement placement = place(location.location().getPath().replaceFirst("^/", ""));
+        log.debug("Read from {}", Obfuscate.secure(placement.getKey()));
+        if (config.isParallelRead()) {
+            return hedged(readHedger, () -> new ParallelRangeS3InputStream(
+                    s3, placement.getBucket(), placement.getKey(), executorService, config.getReadRangeSize(),
+                    config.getReadPrefetchRanges()
+            ), S3StorageService::closeQuietly);
+        }
+
+        GetObjectRequest getObjectRequest = new GetObjectRequest(placement.getBucket(), placement.getKey());
+        S3Object fullObject = hedged(readHedger, () -> s3.getObject(getObjectRequest), S3StorageService::abort);
         return fullObject.getObjectContent();
     }
 
     @Override
     public OutputStream write(AbsoluteLocation location) {
         log.debug("Write data by path: {}", Obfuscate.secure(location.location()));
-        return new MultipartUploadS3StorageOutputStream(bucketName, location.getResource(), s3, executorService);
+        ObjectPlacement placement = place(location.location().getPath().replaceFirst("^/", ""));
+        return new MultipartUploadS3StorageOutputStream(
+                placement.getBucket(), placement.getKey(), s3, executorService, config
+        );
     }
 
     @Override
     public void remove(AbsoluteLocation location) {
-        String path = location.location().getPath();
-        String key = path.replaceFirst("^/", "").replaceFirst("/$", "");
-        log.debug("Remove path {}", Obfuscate.secure(key));
-        s3.deleteObject(bucketName, key);
+        ObjectPlacement placement = place(removalKey(location));
+        log.debug("Remove path {}", Obfuscate.secure(placement.getKey()));
+        s3.deleteObject(placement.getBucket(), placement.getKey());
+    }
+
+    /**
+     * Removes objects using multi-object delete requests of up to 1000 keys of the same bucket, which are sent
+     * in parallel.
+     */
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        Map<String, List<KeyVersion>> batches = new LinkedHashMap<>();
+
+        try {
+            Iterator<? extends AbsoluteLocation> iterator = locations.iterator();
+            while (iterator.hasNext()) {
+                ObjectPlacement placement = place(removalKey(iterator.next()));
+                List<KeyVersion> batch = batches.computeIfAbsent(
+                        placement.getBucket(), id -> new ArrayList<>(MAX_KEYS_PER_DELETE)
+                );
+                batch.add(new KeyVersion(placement.getKey()));
+                if (batch.size() == MAX_KEYS_PER_DELETE) {
+                    submitRemoval(placement.getBucket(), batch, inFlight);
+                    batches.remove(placement.getBucket());
+                }
+            }
+
+            batches.forEach((bucket, batch) -> submitRemoval(bucket, batch, inFlight));
+
+            while (!inFlight.isEmpty()) {
+                await(inFlight.pollFirst());
+            }
+        } finally {
+            inFlight.forEach(it -> it.cancel(true));
+        }
+    }
+
+    /**
+     * Copies object within S3 without transferring its content through the client, objects larger than
+     * {@link S3StorageConfig#getMultipartCopyThreshold()} are copied by parts concurrently.
+     */
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        ObjectPlacement from = place(removalKey(source));
+        ObjectPlacement to = place(removalKey(target));
+        log.debug("Copy {} to {}", Obfuscate.secure(from.getKey()), Obfuscate.secure(to.getKey()));
+
+        long size = s3.getObjectMetadata(from.getBucket(), from.getKey()).getContentLength();
+        if (size <= config.getMultipartCopyThreshold()) {
+            s3.copyObject(from.getBucket(), from.getKey(), to.getBucket(), to.getKey());
+            return;
+        }
+
+        multipartCopy(from, to, size);
+    }
+
+    /**
+     * S3 has no rename, so object is copied server-side and source is removed after that.
+     */
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        ObjectPlacement from = place(removalKey(source));
+        if (from.equals(place(removalKey(target)))) {
+            return;
+        }
+
+        copy(source, target);
+        s3.deleteObject(from.getBucket(), from.getKey());
     }
 
     @Override
     public boolean objectExists(AbsoluteLocation location) {
         String path = location.location().getPath();
         String key = path.replaceFirst("^/", "").replaceFirst("/$", "");
-        boolean pathExists = s3.doesObjectExist(bucketName, key);
+        ObjectPlacement placement = place(key);
+        boolean pathExists = hedged(
+                existsHedger, () -> s3.doesObjectExist(placement.getBucket(), placement.getKey()), it -> { }
+        );
         log.debug("Path {} exists {}", Obfuscate.secure(key), pathExists);
         return pathExists;
     }
 
+    /**
+     * Reads metadata using single HEAD request, which is hedged like {@link #objectExists}.
+     */
+    @Override
+    public Optional<AbsoluteLocation<ResolvedResource>> metadata(AbsoluteLocation location) {
+        ObjectPlacement placement = place(location.location().getPath().replaceFirst("^/", ""));
+        ObjectMetadata metadata;
+        try {
+            metadata = hedged(
+                    existsHedger, () -> s3.getObjectMetadata(placement.getBucket(), placement.getKey()), it -> { }
+            );
+        } catch (AmazonS3Exception ex) {
+            if (NOT_FOUND == ex.getStatusCode()) {
+                return Optional.empty();
+            }
+
+            throw ex;
+        }
+
+        return Optional.of(new AbsoluteLocation<>(
+                new BaseResolvedResource(
+                        BasePrivateResource.forPrivate(location.location()),
+                        metadata.getLastModified().toInstant(),
+                        metadata.getContentLength(),
+                        metadata.getETag(),
+                        metadata.getStorageClass()
+                )
+        ));
+    }
+
+    /**
+     * @param key Logical object key
+     * @return Bucket and key where object is stored according to {@link S3StorageConfig#getKeyLayout()}
+     */
+    ObjectPlacement place(String key) {
+        if (null == layout) {
+            return new ObjectPlacement(bucketName, key);
+        }
+
+        return layout.place(bucketName, key);
+    }
+
+    private List<ObjectPlacement> listingPlacements(String prefix) {
+        if (null == layout) {
+            return Collections.singletonList(new ObjectPlacement(bucketName, prefix));
+        }
+
+        return layout.listing(bucketName, prefix);
+    }
+
+    private String logicalKey(String physicalKey) {
+        return null == layout ? physicalKey : layout.logicalKey(physicalKey);
+    }
+
+    // Listings of shard prefixes are sorted, so they are merged by logical key, pages of each listing are
+    // prefetched in background starting with the first one
+    private Stream<S3ObjectSummary> objectSummaries(String prefix) {
+        List<Spliterator<S3ObjectSummary>> listings = listingPlacements(prefix).stream()
+                .map(it -> new ListedObjects(new ListingPages(s3, new ListObjectsV2Request()
+                        .withBucketName(it.getBucket())
+                        .withPrefix(it.getKey()), executorService))
+                )
+                .collect(Collectors.toList());
+        if (1 == listings.size()) {
+            return StreamSupport.stream(listings.get(0), false);
+        }
+
+        Iterator<S3ObjectSummary> merged = new SortedMergeIterator<>(
+                listings.stream().map(Spliterators::iterator).collect(Collectors.toList()),
+                Comparator.comparing(os -> logicalKey(os.getKey()))
+        );
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+    }
+
+    // Up to limit objects of single placement after afterKey, bigger limit is served using S3 continuation token
+    private ShardObjects objectsAfter(ObjectPlacement placement, String afterKey, int limit) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(placement.getBucket())
+                .withPrefix(placement.getKey())
+                .withMaxKeys(Math.min(limit, MAX_KEYS_PER_LIST));
+        if (null != afterKey) {
+            request.setStartAfter(placement.getKey() + afterKey);
+        }
+
+        List<S3ObjectSummary> objects = new ArrayList<>();
+        boolean truncated = false;
+        Iterator<ListObjectsV2Result> pages = Spliterators.iterator(new ListingPages(s3, request));
+        while (objects.size() < limit && pages.hasNext()) {
+            ListObjectsV2Result page = pages.next();
+            objects.addAll(page.getObjectSummaries());
+            truncated = page.isTruncated();
+            request.setMaxKeys(Math.min(limit - objects.size(), MAX_KEYS_PER_LIST));
+        }
+
+        return new ShardObjects(objects, truncated);
+    }
+
+    // Up to limit files and directories of single placement after afterKey keyed relative to dirPrefix,
+    // directory keys end with '/'
+    private ShardEntries entriesAfter(ObjectPlacement placement, AbsoluteLocation location, String dirPrefix,
+                                      int prefixLen, String afterKey, int limit) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(placement.getBucket())
+                .withPrefix(placement.getKey())
+                .withDelimiter(DELIMITER)
+                .withMaxKeys(Math.min(limit, MAX_KEYS_PER_LIST));
+        if (null != afterKey) {
+            request.setStartAfter(
+                    placement.getKey() + (afterKey.endsWith(DELIMITER) ? afterKey + DIRECTORY_END : afterKey)
+            );
+        }
+
+        NavigableMap<String, AbsoluteLocation<ResolvedResource>> entries = new TreeMap<>();
+        boolean truncated = false;
+        Iterator<ListObjectsV2Result> pages = Spliterators.iterator(new ListingPages(s3, request));
+        while (entries.size() < limit && pages.hasNext()) {
+            ListObjectsV2Result page = pages.next();
+            page.getObjectSummaries().stream()
+                    .filter(os -> !logicalKey(os.getKey()).equals(dirPrefix))
+                    .forEach(os -> entries.put(
+                            logicalKey(os.getKey()).substring(dirPrefix.length()), resolved(location, os, prefixLen)
+                    ));
+            page.getCommonPrefixes().stream()
+                    .map(this::logicalKey)
+                    .forEach(dir -> entries.put(dir.substring(dirPrefix.length()), new AbsoluteLocation<>(
+                            new BaseResolvedResource(createResource(location, dir, prefixLen), null)
+                    )));
+            truncated = page.isTruncated();
+            request.setMaxKeys(Math.min(limit - entries.size(), MAX_KEYS_PER_LIST));
+        }
+
+        return new ShardEntries(entries, truncated);
+    }
+
+    // Single placement is listed on the calling thread, several ones in parallel
+    private <T> List<T> fanOut(List<ObjectPlacement> placements, Function<ObjectPlacement, T> listing) {
+        if (1 == placements.size()) {
+            return Collections.singletonList(listing.apply(placements.get(0)));
+        }
+
+        return placements.stream()
+                .map(it -> executorService.submit(() -> listing.apply(it)))
+                .collect(Collectors.toList())
+                .stream()
+                .map(S3StorageService::await)
+                .collect(Collectors.toList());
+    }
+
+    // Part size grows so that object fits into 10000 parts S3 allows
+    private void multipartCopy(ObjectPlacement from, ObjectPlacement to, long size) {
+        long partSize = Math.max(config.getCopyPartSize(), (size + MAX_PARTS - 1) / MAX_PARTS);
+        String uploadId = s3.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(to.getBucket(), to.getKey())
+        ).getUploadId();
+
+        List<Future<PartETag>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                CopyPartRequest request = new CopyPartRequest()
+                        .withSourceBucketName(from.getBucket())
+                        .withSourceKey(from.getKey())
+                        .withDestinationBucketName(to.getBucket())
+                        .withDestinationKey(to.getKey())
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withFirstByte(offset)
+                        .withLastByte(Math.min(offset + partSize, size) - 1);
+                parts.add(executorService.submit(() -> s3.copyPart(request).getPartETag()));
+            }
+
+            List<PartETag> eTags = parts.stream().map(S3StorageService::await).collect(Collectors.toList());
+            s3.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(to.getBucket(), to.getKey(), uploadId, eTags)
+            );
+        } catch (Exception ex) {
+            parts.forEach(it -> it.cancel(true));
+            s3.abortMultipartUpload(new AbortMultipartUploadRequest(to.getBucket(), to.getKey(), uploadId));
+            throw ex;
+        }
+    }
+
+    private void submitRemoval(String bucket, List<KeyVersion> keys, Deque<Future<?>> inFlight) {
+        while (inFlight.size() >= config.getRemoveBatchesInFlight()) {
+            await(inFlight.pollFirst());
+        }
+
+        log.debug("Remove {} objects", keys.size());
+        inFlight.addLast(executorService.submit(
+                () -> s3.deleteObjects(new DeleteObjectsRequest(bucket).withKeys(keys).withQuiet(true))
+        ));
+    }
+
+    // Rethrows original exception, i.e. MultiObjectDeleteException, instead of ExecutionException wrapper
+    @SneakyThrows
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @SneakyThrows
+    private <T> T hedged(RequestHedger hedger, Callable<T> request, Consumer<T> discard) {
+        if (null == config.getHedging()) {
+            return request.call();
+        }
+
+        return hedger.call(request, discard);
+    }
+
+    // Closing would read the rest of the object to reuse connection
+    private static void abort(S3Object object) {
+        object.getObjectContent().abort();
+        closeQuietly(object);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            log.debug("Failed closing response that lost hedge race", ex);
+        }
+    }
+
+    private static String removalKey(AbsoluteLocation location) {
+        return location.location().getPath().replaceFirst("^/", "").replaceFirst("/$", "");
+    }
+
+    // Listing provides size, ETag and storage class along with modification date, so they are kept
+    private AbsoluteLocation<ResolvedResource> resolved(AbsoluteLocation root, S3ObjectSummary os, int prefixLen) {
+        return new AbsoluteLocation<>(
+                new BaseResolvedResource(
+                        createResource(root, os, prefixLen),
+                        os.getLastModified().toInstant(),
+                        os.getSize(),
+                        os.getETag(),
+                        os.getStorageClass()
+                )
+        );
+    }
+
     private PrivateResource createResource(AbsoluteLocation root, S3ObjectSummary os, int prefixLen) {
-        String relUrl = os.getKey().substring(prefixLen).replaceFirst("^/", "");
+        return createResource(root, logicalKey(os.getKey()), prefixLen);
+    }
+
+    private PrivateResource createResource(AbsoluteLocation root, String key, int prefixLen) {
+        String relUrl = key.substring(prefixLen).replaceFirst("^/", "");
         if ("".equals(relUrl)) {
             return BasePrivateResource.forPrivate(root.location());
         }
 
         return BasePrivateResource.forPrivate(relUrl).resolveFrom(root);
     }
+
+    @Value
+    private static class ShardObjects {
+
+        private final List<S3ObjectSummary> objects;
+        private final boolean truncated;
+    }
+
+    @Value
+    private static class ShardEntries {
+
+        private final NavigableMap<String, AbsoluteLocation<ResolvedResource>> entries;
+        private final boolean truncated;
+    }
 }
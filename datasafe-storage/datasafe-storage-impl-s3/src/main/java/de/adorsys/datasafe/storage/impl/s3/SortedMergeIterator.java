@@ -0,0 +1,53 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges iterators that are sorted by {@code order} into single sorted iterator, reading each source lazily.
+ */
+class SortedMergeIterator<T> implements Iterator<T> {
+
+    private final PriorityQueue<Head<T>> heads;
+
+    SortedMergeIterator(List<? extends Iterator<T>> sources, Comparator<? super T> order) {
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> order.compare(a.value, b.value));
+        sources.forEach(this::advance);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (null == head) {
+            throw new NoSuchElementException();
+        }
+
+        advance(head.source);
+        return head.value;
+    }
+
+    private void advance(Iterator<T> source) {
+        if (source.hasNext()) {
+            heads.add(new Head<>(source.next(), source));
+        }
+    }
+
+    private static class Head<T> {
+
+        private final T value;
+        private final Iterator<T> source;
+
+        Head(T value, Iterator<T> source) {
+            this.value = value;
+            this.source = source;
+        }
+    }
+}
@@ -46,6 +46,8 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
 
     private final String chunkId;
 
+    private final PartBufferPool bufferPool;
+
     private byte[] content;
 
     UploadChunkResultCallable(ChunkUploadRequest request) {
@@ -57,6 +59,7 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
         this.bucketName = request.getBucketName();
         this.fileName = request.getObjectName();
         this.chunkId = request.getUploadId();
+        this.bufferPool = request.getBufferPool();
 
         log.debug("Chunk upload request: {}", request.toString());
     }
@@ -68,7 +71,7 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
             return amazonS3.uploadPart(new UploadPartRequest()
                     .withBucketName(bucketName).withKey(fileName)
                     .withUploadId(chunkId)
-                    .withInputStream(new ByteArrayInputStream(content))
+                    .withInputStream(new ByteArrayInputStream(content, 0, contentLength))
                     .withPartNumber(partNumber).withLastPart(last)
                     .withPartSize(contentLength)
             );
@@ -76,6 +79,9 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
             // Release the memory, as the callable may still live inside the
             // CompletionService which would cause
             // an exhaustive memory usage
+            if (null != bufferPool) {
+                bufferPool.release(content);
+            }
             content = null;
         }
     }
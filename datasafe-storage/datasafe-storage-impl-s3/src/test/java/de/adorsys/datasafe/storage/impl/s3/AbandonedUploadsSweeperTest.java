@@ -0,0 +1,83 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AbandonedUploadsSweeperTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Mock
+    private AmazonS3 s3;
+
+    @Test
+    void abortsOnlyOldUploadsAcrossPages() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(s3.listMultipartUploads(any(ListMultipartUploadsRequest.class))).thenAnswer(inv -> {
+            ListMultipartUploadsRequest request = inv.getArgument(0);
+            return null == request.getKeyMarker()
+                    ? listing("next", upload("old", "old-upload", old))
+                    : listing(null, upload("fresh", "fresh-upload", Instant.now()));
+        });
+
+        int aborted = new AbandonedUploadsSweeper(s3, BUCKET, Duration.ofDays(1)).sweep();
+
+        assertThat(aborted).isEqualTo(1);
+        ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3).abortMultipartUpload(abort.capture());
+        assertThat(abort.getValue().getUploadId()).isEqualTo("old-upload");
+    }
+
+    @Test
+    void sweepsAllBucketsOfKeyLayout() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(s3.listMultipartUploads(any(ListMultipartUploadsRequest.class))).thenAnswer(inv -> {
+            ListMultipartUploadsRequest request = inv.getArgument(0);
+            return listing(null, upload("old", request.getBucketName() + "-upload", old));
+        });
+        S3KeyLayout layout = S3KeyLayout.builder().bucket("b1").bucket("b2").build();
+
+        int aborted = new AbandonedUploadsSweeper(s3, BUCKET, layout, Duration.ofDays(1)).sweep();
+
+        assertThat(aborted).isEqualTo(2);
+        ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3, times(2)).abortMultipartUpload(abort.capture());
+        assertThat(abort.getAllValues())
+                .extracting(AbortMultipartUploadRequest::getBucketName, AbortMultipartUploadRequest::getUploadId)
+                .containsExactly(tuple("b1", "b1-upload"), tuple("b2", "b2-upload"));
+    }
+
+    private static MultipartUploadListing listing(String nextKeyMarker, MultipartUpload upload) {
+        MultipartUploadListing listing = new MultipartUploadListing();
+        listing.setTruncated(null != nextKeyMarker);
+        listing.setNextKeyMarker(nextKeyMarker);
+        listing.getMultipartUploads().add(upload);
+        return listing;
+    }
+
+    private static MultipartUpload upload(String key, String uploadId, Instant initiated) {
+        MultipartUpload upload = new MultipartUpload();
+        upload.setKey(key);
+        upload.setUploadId(uploadId);
+        upload.setInitiated(Date.from(initiated));
+        return upload;
+    }
+}
@@ -0,0 +1,98 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncS3StorageServiceTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void smallContentIsSentUsingSinglePut() {
+        AsyncS3StorageService tested = new AsyncS3StorageService(s3, BUCKET, executor);
+        ArgumentCaptor<ObjectMetadata> metadata = ArgumentCaptor.forClass(ObjectMetadata.class);
+
+        tested.write(location("folder/file"), ByteBuffer.wrap("hello".getBytes())).get();
+
+        verify(s3).putObject(eq(BUCKET), eq("folder/file"), any(InputStream.class), metadata.capture());
+        assertThat(metadata.getValue().getContentLength()).isEqualTo(5L);
+        assertThat(metadata.getValue().getContentMD5()).isNotBlank();
+    }
+
+    @Test
+    @SneakyThrows
+    void largeContentIsUploadedByPartsUsingSingleThreadPool() {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId("upload");
+        when(s3.initiateMultipartUpload(any())).thenReturn(initiated);
+        when(s3.uploadPart(any())).thenAnswer(inv -> {
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(inv.getArgument(0, UploadPartRequest.class).getPartNumber());
+            result.setETag("etag");
+            return result;
+        });
+        ArgumentCaptor<CompleteMultipartUploadRequest> completed =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        AsyncS3StorageService tested = new AsyncS3StorageService(s3, BUCKET, singleThread);
+
+        try {
+            tested.write(location("file"), ByteBuffer.allocate(2 * MultipartUploadS3StorageOutputStream.BUFFER_SIZE + 1))
+                    .get(10, TimeUnit.SECONDS);
+        } finally {
+            singleThread.shutdownNow();
+        }
+
+        verify(s3).completeMultipartUpload(completed.capture());
+        assertThat(completed.getValue().getPartETags()).extracting(PartETag::getPartNumber).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    @SneakyThrows
+    void objectExistsIsExecutedInPool() {
+        when(s3.doesObjectExist(BUCKET, "file")).thenAnswer(inv -> Thread.currentThread().getName().contains("pool"));
+        AsyncS3StorageService tested = new AsyncS3StorageService(s3, BUCKET, executor);
+
+        assertThat(tested.objectExists(location("file")).get()).isTrue();
+    }
+
+    private static AbsoluteLocation location(String path) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://" + BUCKET + "/" + path));
+    }
+}
@@ -0,0 +1,287 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.amazonaws.util.BinaryUtils;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.testcontainers.shaded.com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.adorsys.datasafe.storage.impl.s3.MultipartUploadS3StorageOutputStream.BUFFER_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MultipartUploadS3StorageOutputStreamTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "some/file.txt";
+
+    private final Map<Integer, byte[]> uploadedParts = new TreeMap<>();
+    private final List<Integer> uploadedPartNumbers = new ArrayList<>();
+    private volatile int failPart = -1;
+    private final AtomicInteger partsInFlight = new AtomicInteger();
+    private final AtomicInteger maxPartsInFlight = new AtomicInteger();
+    private volatile long partUploadMillis;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Mock
+    private AmazonS3 s3;
+
+    @BeforeEach
+    void init() {
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setBucketName(BUCKET);
+        initiated.setKey(KEY);
+        initiated.setUploadId("upload");
+        when(s3.initiateMultipartUpload(any())).thenReturn(initiated);
+        when(s3.uploadPart(any())).thenAnswer(inv -> uploadPart(inv.getArgument(0)));
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void smallContentUsesSimpleUpload() {
+        PartBufferPool pool = new PartBufferPool(BUFFER_SIZE);
+        byte[] content = randomBytes(100);
+
+        write(content, pool);
+
+        ArgumentCaptor<InputStream> uploaded = ArgumentCaptor.forClass(InputStream.class);
+        verify(s3).putObject(eq(BUCKET), eq(KEY), uploaded.capture(), any(ObjectMetadata.class));
+        assertThat(ByteStreams.toByteArray(uploaded.getValue())).isEqualTo(content);
+        assertThat(pool.allocated()).isEqualTo(BUFFER_SIZE);
+    }
+
+    @Test
+    @SneakyThrows
+    void multipartUploadWithinMemoryBudget() {
+        // budget allows only two parts in memory, writer has to wait for uploads to finish
+        PartBufferPool pool = new PartBufferPool(2L * BUFFER_SIZE);
+        byte[] content = randomBytes(5 * BUFFER_SIZE + 123);
+
+        write(content, pool);
+
+        verify(s3).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertThat(joinParts()).isEqualTo(content);
+        assertThat(pool.allocated()).isLessThanOrEqualTo(2L * BUFFER_SIZE);
+    }
+
+    @Test
+    @SneakyThrows
+    void bulkWriteCrossingPartBoundaries() {
+        PartBufferPool pool = new PartBufferPool(3L * BUFFER_SIZE);
+        byte[] content = randomBytes(3 * BUFFER_SIZE + 17);
+
+        try (OutputStream os = stream(pool)) {
+            int chunk = 1024 * 1024 + 7;
+            for (int pos = 0; pos < content.length; pos += chunk) {
+                os.write(content, pos, Math.min(chunk, content.length - pos));
+            }
+        }
+
+        assertThat(joinParts()).isEqualTo(content);
+        assertThat(uploadedParts).hasSize(4);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeAfterCloseFails() {
+        OutputStream os = stream(new PartBufferPool(BUFFER_SIZE));
+        os.close();
+
+        assertThatThrownBy(() -> os.write(new byte[] {1, 2})).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void failedUploadIsAbortedOnceAllPartsFinish() {
+        failPart = 2;
+
+        assertThatThrownBy(() -> write(randomBytes(3 * BUFFER_SIZE + 1), new PartBufferPool(3L * BUFFER_SIZE)))
+                .isInstanceOf(IOException.class);
+
+        verify(s3).abortMultipartUpload(any());
+        verify(s3, never()).completeMultipartUpload(any());
+        assertThat(uploadedPartNumbers).containsExactlyInAnyOrder(1, 3, 4);
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedStreamAbortsUploadOnceAllPartsFinish() {
+        PartBufferPool pool = new PartBufferPool(3L * BUFFER_SIZE);
+        MultipartUploadS3StorageOutputStream os = (MultipartUploadS3StorageOutputStream) stream(pool);
+        os.write(randomBytes(2 * BUFFER_SIZE + 1));
+
+        os.abort();
+        os.close();
+
+        verify(s3).abortMultipartUpload(any());
+        verify(s3, never()).completeMultipartUpload(any());
+        assertThat(uploadedPartNumbers).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    @SneakyThrows
+    void partSizeGrowsUpToMaximum() {
+        S3StorageConfig config = S3StorageConfig.builder()
+                .partBufferPool(new PartBufferPool(BUFFER_SIZE))
+                .minPartSize(1024)
+                .maxPartSize(4096)
+                .partSizeGrowthFactor(2)
+                .partsPerGrowthStep(2)
+                .build();
+        byte[] content = randomBytes(2 * 1024 + 2 * 2048 + 2 * 4096 + 10);
+
+        try (OutputStream os = stream(config)) {
+            os.write(content);
+        }
+
+        assertThat(uploadedParts.values()).extracting(part -> part.length)
+                .containsExactly(1024, 1024, 2048, 2048, 4096, 4096, 10);
+        assertThat(joinParts()).isEqualTo(content);
+        assertThat(config.partSize(10_000)).isEqualTo(4096);
+    }
+
+    @Test
+    @SneakyThrows
+    void contentFillingAllPartsIsUploadedWithoutEmptyLastPart() {
+        S3StorageConfig config = S3StorageConfig.builder()
+                .partBufferPool(new PartBufferPool(BUFFER_SIZE))
+                .minPartSize(1024)
+                .partSizeGrowthFactor(1)
+                .build();
+        byte[] content = randomBytes(10_000 * 1024);
+
+        try (OutputStream os = stream(config)) {
+            os.write(content);
+        }
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> completed =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(completed.capture());
+        assertThat(completed.getValue().getPartETags()).hasSize(10_000);
+        assertThat(uploadedParts.keySet()).hasSize(10_000).allMatch(part -> part <= 10_000);
+        assertThat(joinParts()).isEqualTo(content);
+    }
+
+    @Test
+    @SneakyThrows
+    void partSizeIsLimitedByMemoryBudget() {
+        S3StorageConfig config = S3StorageConfig.builder()
+                .partBufferPool(new PartBufferPool(3000))
+                .minPartSize(1024)
+                .maxPartSize(4096)
+                .partsPerGrowthStep(1)
+                .build();
+
+        assertThat(config.partSize(1)).isEqualTo(1024);
+        assertThat(config.partSize(2)).isEqualTo(2048);
+        assertThat(config.partSize(3)).isEqualTo(3000);
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentPartsOfStreamAreLimited() {
+        partUploadMillis = 20;
+        S3StorageConfig config = S3StorageConfig.builder()
+                .partBufferPool(new PartBufferPool(BUFFER_SIZE))
+                .minPartSize(1024)
+                .partSizeGrowthFactor(1)
+                .maxConcurrentPartsPerStream(2)
+                .build();
+        byte[] content = randomBytes(10 * 1024);
+
+        try (OutputStream os = stream(config)) {
+            os.write(content);
+        }
+
+        assertThat(joinParts()).isEqualTo(content);
+        assertThat(maxPartsInFlight.get()).isEqualTo(2);
+    }
+
+    private OutputStream stream(PartBufferPool pool) {
+        return stream(S3StorageConfig.builder().partBufferPool(pool).build());
+    }
+
+    private OutputStream stream(S3StorageConfig config) {
+        return new MultipartUploadS3StorageOutputStream(
+                BUCKET, BasePrivateResource.forPrivate("s3://" + BUCKET + "/" + KEY), s3, executor, config);
+    }
+
+    @SneakyThrows
+    private void write(byte[] content, PartBufferPool pool) {
+        try (OutputStream os = stream(pool)) {
+            for (byte b : content) {
+                os.write(b);
+            }
+        }
+    }
+
+    @SneakyThrows
+    private UploadPartResult uploadPart(UploadPartRequest request) {
+        byte[] part = ByteStreams.toByteArray(request.getInputStream());
+        assertThat(part).hasSize((int) request.getPartSize());
+        if (request.getPartNumber() == failPart) {
+            throw new AmazonS3Exception("Part failed");
+        }
+
+        int inFlight = partsInFlight.incrementAndGet();
+        maxPartsInFlight.accumulateAndGet(inFlight, Math::max);
+        Thread.sleep(partUploadMillis);
+        partsInFlight.decrementAndGet();
+
+        synchronized (uploadedParts) {
+            uploadedParts.put(request.getPartNumber(), part);
+            uploadedPartNumbers.add(request.getPartNumber());
+        }
+
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag(BinaryUtils.toHex(MessageDigest.getInstance("MD5").digest(part)));
+        return result;
+    }
+
+    @SneakyThrows
+    private byte[] joinParts() {
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] part : uploadedParts.values()) {
+            joined.write(part);
+        }
+        return joined.toByteArray();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(size).nextBytes(result);
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.testcontainers.shaded.com.google.common.io.ByteStreams;
+
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures encrypt-and-upload bottleneck of {@link MultipartUploadS3StorageOutputStream} - how many bytes per second
+ * it can accept when data is written byte-by-byte (path used before bulk write existed) and in chunks,
+ * as it is done by CMS encryption streams. Storage is mocked, so only stream overhead is measured.
+ */
+@Slf4j
+class MultipartUploadWritePerformance extends BaseMockitoTest {
+
+    private static final int MB = 1024 * 1024;
+    private static final int CHUNK = 8192;
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(4);
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterAll
+    static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    @SneakyThrows
+    @ParameterizedTest(name = "{0} Mb, per-byte: {1}")
+    @MethodSource("sizesAndModes")
+    @EnabledIfEnvironmentVariable(named = "S3_WRITE_PERFORMANCE_TEST", matches = "true")
+    void writeThroughput(int sizeMb, boolean perByte) {
+        mockStorage();
+        byte[] chunk = new byte[CHUNK];
+        long size = (long) sizeMb * MB;
+
+        long start = System.nanoTime();
+        try (OutputStream os = new MultipartUploadS3StorageOutputStream(
+                "bucket", BasePrivateResource.forPrivate("s3://bucket/file"), s3, EXECUTOR,
+                S3StorageConfig.builder().partBufferPool(new PartBufferPool(64L * MB)).build())) {
+            for (long written = 0; written < size; written += CHUNK) {
+                if (perByte) {
+                    for (byte b : chunk) {
+                        os.write(b);
+                    }
+                } else {
+                    os.write(chunk, 0, CHUNK);
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        log.info("Size {} Mb, per-byte {}: {} Mb/s", sizeMb, perByte, size * 1e9 / elapsedNanos / MB);
+    }
+
+    private static Stream<Arguments> sizesAndModes() {
+        return Stream.of(1, 50, 1024).flatMap(size -> Stream.of(Arguments.of(size, true), Arguments.of(size, false)));
+    }
+
+    private void mockStorage() {
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId("upload");
+        when(s3.initiateMultipartUpload(any())).thenReturn(initiated);
+        when(s3.uploadPart(any())).thenAnswer(inv -> {
+            UploadPartRequest request = inv.getArgument(0);
+            ByteStreams.copy(request.getInputStream(), ByteStreams.nullOutputStream());
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag");
+            return result;
+        });
+    }
+}
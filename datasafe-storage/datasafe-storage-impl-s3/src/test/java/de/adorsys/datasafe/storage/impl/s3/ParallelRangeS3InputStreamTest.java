@@ -0,0 +1,151 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.testcontainers.shaded.com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParallelRangeS3InputStreamTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "key";
+    private static final int RANGE_SIZE = 10;
+    private static final int PREFETCH = 2;
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @SneakyThrows
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 9, 10, 11, 20, 95, 1000})
+    void readReassemblesRangesInOrder(int size) {
+        byte[] content = randomBytes(size);
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> rangeOf(content, inv.getArgument(0)));
+
+        try (InputStream is = stream()) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readWhenStorageIgnoresRange() {
+        byte[] content = randomBytes(95);
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> object(content, null));
+
+        try (InputStream is = stream()) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readSingleBytes() {
+        byte[] content = randomBytes(25);
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> rangeOf(content, inv.getArgument(0)));
+
+        try (InputStream is = stream()) {
+            for (byte expected : content) {
+                assertThat(is.read()).isEqualTo(expected & 0xFF);
+            }
+            assertThat(is.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void prefetchIsBounded() {
+        byte[] content = randomBytes(1000);
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> rangeOf(content, inv.getArgument(0)));
+
+        try (InputStream is = stream()) {
+            is.read();
+            Thread.sleep(100);
+        }
+
+        // first range + prefetch window
+        verify(s3, atMost(1 + PREFETCH)).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void failedRangeFailsRead() {
+        byte[] content = randomBytes(30);
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> {
+            GetObjectRequest request = inv.getArgument(0);
+            if (request.getRange()[0] > 0) {
+                throw new IllegalStateException("Broken");
+            }
+            return rangeOf(content, request);
+        });
+
+        assertThatThrownBy(() -> {
+            try (InputStream is = stream()) {
+                ByteStreams.toByteArray(is);
+            }
+        }).isInstanceOf(IOException.class).hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private InputStream stream() {
+        return new ParallelRangeS3InputStream(s3, BUCKET, KEY, executor, RANGE_SIZE, PREFETCH);
+    }
+
+    private static S3Object rangeOf(byte[] content, GetObjectRequest request) {
+        long[] range = request.getRange();
+        if (null == range) {
+            return object(content, null);
+        }
+
+        int start = (int) Math.min(range[0], content.length);
+        int end = (int) Math.min(range[1] + 1, content.length);
+        return object(Arrays.copyOfRange(content, start, end), "bytes " + start + "-" + (end - 1) + "/" + content.length);
+    }
+
+    private static S3Object object(byte[] content, String contentRange) {
+        S3Object object = new S3Object();
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        if (null != contentRange) {
+            metadata.setHeader(Headers.CONTENT_RANGE, contentRange);
+        }
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new ByteArrayInputStream(content));
+        return object;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] result = new byte[size];
+        new Random(size).nextBytes(result);
+        return result;
+    }
+}
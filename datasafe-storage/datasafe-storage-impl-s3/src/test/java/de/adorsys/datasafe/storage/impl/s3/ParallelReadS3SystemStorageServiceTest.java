@@ -0,0 +1,28 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs multipart upload and S3 storage tests while reading data using byte-range GET requests.
+ */
+class ParallelReadS3SystemStorageServiceTest extends MultipartUploadS3SystemStorageServiceTest {
+
+    private static final int ONE_MB_IN_BYTES = 1024 * 1024;
+
+    @Override
+    @BeforeEach
+    void init() {
+        this.storageService = new S3StorageService(
+                s3,
+                bucketName,
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()),
+                S3StorageConfig.builder()
+                        .parallelRead(true)
+                        .readRangeSize(ONE_MB_IN_BYTES)
+                        .readPrefetchRanges(3)
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartBufferPoolTest extends BaseMockitoTest {
+
+    private PartBufferPool pool = new PartBufferPool(100);
+
+    @Test
+    @SneakyThrows
+    void releasedBufferIsReused() {
+        byte[] buffer = pool.acquire(40);
+        pool.release(buffer);
+
+        assertThat(pool.acquire(40)).isSameAs(buffer);
+        assertThat(pool.allocated()).isEqualTo(40);
+    }
+
+    @Test
+    @SneakyThrows
+    void acquireBlocksUntilBudgetIsAvailable() {
+        byte[] first = pool.acquire(60);
+
+        CompletableFuture<byte[]> second = CompletableFuture.supplyAsync(() -> acquire(60));
+        assertThatThrownBy(() -> second.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        pool.release(first);
+        assertThat(second.get(1, TimeUnit.SECONDS)).isSameAs(first);
+    }
+
+    @Test
+    @SneakyThrows
+    void idleBuffersOfOtherSizeAreEvictedWhenBudgetIsExhausted() {
+        pool.release(pool.acquire(60));
+
+        assertThat(pool.acquire(80)).hasSize(80);
+        assertThat(pool.allocated()).isEqualTo(80);
+    }
+
+    @Test
+    void bufferLargerThanBudgetIsRejected() {
+        assertThatThrownBy(() -> pool.acquire(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void bufferThatIsNeverReleasedIsReturnedToBudgetWhenCollected() {
+        abandon(60);
+
+        CompletableFuture<byte[]> next = CompletableFuture.supplyAsync(() -> acquire(60));
+        for (int attempt = 0; attempt < 50 && !next.isDone(); attempt++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        assertThat(next.get(1, TimeUnit.SECONDS)).hasSize(60);
+        assertThat(pool.allocated()).isEqualTo(60);
+    }
+
+    @SneakyThrows
+    private void abandon(int size) {
+        pool.acquire(size);
+    }
+
+    @SneakyThrows
+    private byte[] acquire(int size) {
+        return pool.acquire(size);
+    }
+}
@@ -0,0 +1,56 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class S3KeyLayoutTest {
+
+    private final S3KeyLayout layout = S3KeyLayout.builder().shards(16).bucket("b1").bucket("b2").build();
+
+    @Test
+    void spreadsKeysOfSingleUserOverShardsOfSingleBucket() {
+        assertThat(IntStream.range(0, 100).mapToObj(it -> layout.place("default", "alice/private/file" + it)))
+                .extracting(ObjectPlacement::getBucket)
+                .containsOnly(layout.place("default", "alice/").getBucket());
+        assertThat(IntStream.range(0, 100)
+                .mapToObj(it -> layout.place("default", "alice/private/file" + it).getKey().substring(0, 2))
+                .collect(Collectors.toSet())
+        ).hasSize(16);
+    }
+
+    @Test
+    void physicalKeyMapsBackToLogicalKey() {
+        ObjectPlacement placement = layout.place("default", "alice/private/file");
+
+        assertThat(placement.getKey()).matches("[0-9a-f]/alice/private/file");
+        assertThat(layout.logicalKey(placement.getKey())).isEqualTo("alice/private/file");
+    }
+
+    @Test
+    void listingOfUserPrefixCoversAllShardsOfUserBucket() {
+        String bucket = layout.place("default", "alice/file").getBucket();
+
+        assertThat(layout.listing("default", "alice/private/"))
+                .hasSize(16)
+                .allMatch(it -> it.getBucket().equals(bucket) && it.getKey().endsWith("/alice/private/"));
+    }
+
+    @Test
+    void listingOfPrefixWithoutUserCoversAllBuckets() {
+        assertThat(layout.listing("default", "ali")).extracting(ObjectPlacement::getBucket)
+                .hasSize(32)
+                .containsOnly("b1", "b2");
+    }
+
+    @Test
+    void layoutWithoutShardsAndBucketsKeepsKeys() {
+        S3KeyLayout plain = S3KeyLayout.builder().shards(0).build();
+
+        assertThat(plain.place("default", "alice/file")).isEqualTo(new ObjectPlacement("default", "alice/file"));
+        assertThat(plain.listing("default", "alice/")).containsExactly(new ObjectPlacement("default", "alice/"));
+    }
+}
@@ -0,0 +1,106 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceCopyTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final long MB = 1024L * 1024L;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void moveCopiesServerSideAndRemovesSource() {
+        when(s3.getObjectMetadata(BUCKET, "folder/a")).thenReturn(metadata(10 * MB));
+
+        storage().move(location("a"), location("b"));
+
+        verify(s3).copyObject(BUCKET, "folder/a", BUCKET, "folder/b");
+        verify(s3).deleteObject(BUCKET, "folder/a");
+        verify(s3, never()).getObject(any());
+    }
+
+    @Test
+    void largeObjectIsCopiedByParts() {
+        when(s3.getObjectMetadata(BUCKET, "folder/a")).thenReturn(metadata(300 * MB));
+        InitiateMultipartUploadResult upload = new InitiateMultipartUploadResult();
+        upload.setUploadId("upload");
+        when(s3.initiateMultipartUpload(any())).thenReturn(upload);
+        List<CopyPartRequest> parts = new CopyOnWriteArrayList<>();
+        when(s3.copyPart(any())).thenAnswer(inv -> {
+            CopyPartRequest request = inv.getArgument(0);
+            parts.add(request);
+            CopyPartResult result = new CopyPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag" + request.getPartNumber());
+            return result;
+        });
+
+        S3StorageConfig config = S3StorageConfig.builder().multipartCopyThreshold(100 * MB).copyPartSize(128 * MB)
+                .build();
+        new S3StorageService(s3, BUCKET, executor, config).copy(location("a"), location("b"));
+
+        assertThat(parts)
+                .extracting(CopyPartRequest::getPartNumber, CopyPartRequest::getFirstByte, CopyPartRequest::getLastByte)
+                .containsExactlyInAnyOrder(
+                        tuple(1, 0L, 128 * MB - 1),
+                        tuple(2, 128 * MB, 256 * MB - 1),
+                        tuple(3, 256 * MB, 300 * MB - 1)
+                );
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(complete.capture());
+        assertThat(complete.getValue().getKey()).isEqualTo("folder/b");
+        assertThat(complete.getValue().getPartETags())
+                .extracting(PartETag::getPartNumber)
+                .containsExactly(1, 2, 3);
+        verify(s3, never()).copyObject(any(), any(), any(), any());
+    }
+
+    private S3StorageService storage() {
+        return new S3StorageService(s3, BUCKET, executor);
+    }
+
+    private static ObjectMetadata metadata(long size) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(size);
+        return metadata;
+    }
+
+    private static AbsoluteLocation location(String file) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://" + BUCKET + "/folder/" + file));
+    }
+}
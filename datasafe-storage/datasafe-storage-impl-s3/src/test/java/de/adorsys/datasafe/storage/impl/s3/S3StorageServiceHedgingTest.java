@@ -0,0 +1,127 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3Object;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceHedgingTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final AbsoluteLocation FILE =
+            new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://" + BUCKET + "/file"));
+
+    private static final HedgingConfig FAST_HEDGING = HedgingConfig.builder()
+            .minDelay(Duration.ofMillis(1))
+            .maxDelay(Duration.ofMillis(20))
+            .build();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void stalledGetIsHedged() {
+        AtomicInteger calls = new AtomicInteger();
+        when(s3.getObject(any())).thenAnswer(inv -> {
+            if (0 == calls.getAndIncrement()) {
+                Thread.sleep(2000);
+            }
+            return object(new byte[] {1});
+        });
+        S3StorageService tested = storage(FAST_HEDGING);
+
+        long start = System.nanoTime();
+        assertThat(read(tested)).containsExactly(1);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(tested.readHedgeStats().hedges()).isEqualTo(1);
+        assertThat(tested.readHedgeStats().hedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void stalledHeadIsHedged() {
+        AtomicInteger calls = new AtomicInteger();
+        when(s3.doesObjectExist(anyString(), anyString())).thenAnswer(inv -> {
+            if (0 == calls.getAndIncrement()) {
+                Thread.sleep(2000);
+            }
+            return true;
+        });
+        S3StorageService tested = storage(FAST_HEDGING);
+
+        assertThat(tested.objectExists(FILE)).isTrue();
+
+        assertThat(tested.existsHedgeStats().hedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgesAreLimitedByBudget() {
+        when(s3.doesObjectExist(anyString(), anyString())).thenAnswer(inv -> {
+            Thread.sleep(100);
+            return true;
+        });
+        S3StorageService tested = storage(FAST_HEDGING.toBuilder().maxBurst(1).hedgesPerSecond(0.001).build());
+
+        assertThat(tested.objectExists(FILE)).isTrue();
+        assertThat(tested.objectExists(FILE)).isTrue();
+
+        assertThat(tested.existsHedgeStats().requests()).isEqualTo(2);
+        assertThat(tested.existsHedgeStats().hedges()).isEqualTo(1);
+        assertThat(tested.existsHedgeStats().throttled()).isEqualTo(1);
+    }
+
+    @Test
+    void failureIsReportedWhenNotHedged() {
+        when(s3.doesObjectExist(anyString(), anyString())).thenThrow(new IllegalStateException("failed"));
+        S3StorageService tested = storage(HedgingConfig.DEFAULT);
+
+        assertThatThrownBy(() -> tested.objectExists(FILE))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private S3StorageService storage(HedgingConfig hedging) {
+        return new S3StorageService(s3, BUCKET, executor, S3StorageConfig.builder().hedging(hedging).build());
+    }
+
+    private static S3Object object(byte[] content) {
+        S3Object object = new S3Object();
+        object.setObjectContent(new ByteArrayInputStream(content));
+        return object;
+    }
+
+    @SneakyThrows
+    private static byte[] read(S3StorageService storage) {
+        try (InputStream is = storage.read(FILE)) {
+            byte[] result = new byte[16];
+            int read = is.read(result);
+            byte[] content = new byte[Math.max(0, read)];
+            System.arraycopy(result, 0, content, 0, content.length);
+            return content;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import de.adorsys.datasafe.types.api.actions.ListPage;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceKeyLayoutTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final S3KeyLayout LAYOUT = S3KeyLayout.builder().shards(4).bucket("b1").bucket("b2").build();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    // bucket + "/" + physical key
+    private final NavigableSet<String> objects = new TreeSet<>();
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readUsesPhysicalLocation() {
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        S3Object object = new S3Object();
+        object.setObjectContent(new ByteArrayInputStream(new byte[0]));
+        when(s3.getObject(any(GetObjectRequest.class))).thenReturn(object);
+
+        storage().read(location("alice/private/file"));
+
+        verify(s3).getObject(request.capture());
+        ObjectPlacement placement = LAYOUT.place(BUCKET, "alice/private/file");
+        assertThat(request.getValue().getBucketName()).isEqualTo(placement.getBucket());
+        assertThat(request.getValue().getKey()).isEqualTo(placement.getKey());
+    }
+
+    @Test
+    void listMergesShardsInLogicalKeyOrder() {
+        store("alice/private/a", "alice/private/b", "alice/private/c", "alice/private/d", "alice/public/e",
+                "bob/private/f");
+        mockListing();
+
+        assertThat(storage().list(location("alice/private/")).map(it -> it.location().toASCIIString()))
+                .containsExactly(
+                        "s3://bucket/alice/private/a", "s3://bucket/alice/private/b",
+                        "s3://bucket/alice/private/c", "s3://bucket/alice/private/d"
+                );
+        assertThat(storage().list(location("")).count()).isEqualTo(6);
+    }
+
+    @Test
+    void parallelListingOfSinglePrefixKeepsOrder() {
+        List<String> keys = IntStream.range(0, 25).mapToObj(it -> String.format("alice/private/%02d", it))
+                .collect(Collectors.toList());
+        keys.forEach(it -> objects.add(BUCKET + "/" + it));
+        mockListing();
+
+        S3StorageService storage = new S3StorageService(s3, BUCKET, executor);
+
+        assertThat(storage.list(location("alice/private/")).parallel().map(it -> it.location().toASCIIString()))
+                .containsExactlyElementsOf(keys.stream().map(it -> "s3://bucket/" + it).collect(Collectors.toList()));
+    }
+
+    @Test
+    void listShallowMergesDirectoriesOfAllShards() {
+        store("alice/private/a", "alice/private/b", "alice/private/c", "alice/public/e", "alice/file");
+        mockShallowListing();
+
+        assertThat(storage().listShallow(location("alice/")).map(it -> it.location().toASCIIString()))
+                .containsExactlyInAnyOrder(
+                        "s3://bucket/alice/private/", "s3://bucket/alice/public/", "s3://bucket/alice/file"
+                );
+    }
+
+    @Test
+    void listPageMergesShardsAndResumesAfterLastKey() {
+        store("alice/private/a", "alice/private/b", "alice/private/c", "alice/private/d", "alice/private/e");
+        mockListing();
+
+        List<String> listed = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String token = null;
+        do {
+            ListPage<AbsoluteLocation<ResolvedResource>> page = storage().listPage(location("alice/private/"), token, 2);
+            page.getItems().forEach(it -> listed.add(it.location().toASCIIString()));
+            pageSizes.add(page.getItems().size());
+            token = page.getNextToken();
+        } while (null != token);
+
+        assertThat(listed).containsExactly(
+                "s3://bucket/alice/private/a", "s3://bucket/alice/private/b", "s3://bucket/alice/private/c",
+                "s3://bucket/alice/private/d", "s3://bucket/alice/private/e"
+        );
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void listShallowPageMergesShardsAndSkipsListedDirectory() {
+        store("alice/a", "alice/b/x", "alice/b/y", "alice/b/z", "alice/c", "alice/d/x");
+        mockShallowPagedListing();
+
+        List<String> listed = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String token = null;
+        do {
+            ListPage<AbsoluteLocation<ResolvedResource>> page = storage().listShallowPage(location("alice"), token, 2);
+            page.getItems().forEach(it -> listed.add(it.location().toASCIIString()));
+            pageSizes.add(page.getItems().size());
+            token = page.getNextToken();
+        } while (null != token);
+
+        assertThat(listed).containsExactly(
+                "s3://bucket/alice/a", "s3://bucket/alice/b/", "s3://bucket/alice/c", "s3://bucket/alice/d/"
+        );
+        assertThat(pageSizes).containsExactly(2, 2);
+    }
+
+    private S3StorageService storage() {
+        return new S3StorageService(s3, BUCKET, executor, S3StorageConfig.builder().keyLayout(LAYOUT).build());
+    }
+
+    private void store(String... keys) {
+        for (String key : keys) {
+            ObjectPlacement placement = LAYOUT.place(BUCKET, key);
+            objects.add(placement.getBucket() + "/" + placement.getKey());
+        }
+    }
+
+    private void mockShallowListing() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(inv -> {
+            ListObjectsV2Request request = inv.getArgument(0);
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            matching(request.getBucketName(), request.getPrefix()).forEach(key -> {
+                int dirEnd = key.indexOf('/', request.getPrefix().length());
+                if (dirEnd < 0) {
+                    result.getObjectSummaries().add(summary(key));
+                } else if (!result.getCommonPrefixes().contains(key.substring(0, dirEnd + 1))) {
+                    result.getCommonPrefixes().add(key.substring(0, dirEnd + 1));
+                }
+            });
+            return result;
+        });
+    }
+
+    // Honors StartAfter and MaxKeys, common prefix counts as single key, continuation token is the last listed one
+    private void mockShallowPagedListing() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(inv -> {
+            ListObjectsV2Request request = inv.getArgument(0);
+            String after = null == request.getContinuationToken()
+                    ? request.getStartAfter()
+                    : request.getContinuationToken();
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            int listed = 0;
+            for (String key : matching(request.getBucketName(), request.getPrefix())) {
+                int dirEnd = key.indexOf('/', request.getPrefix().length());
+                String entry = dirEnd < 0 ? key : key.substring(0, dirEnd + 1);
+                if (null != after && key.compareTo(after) <= 0 || result.getCommonPrefixes().contains(entry)) {
+                    continue;
+                }
+
+                if (listed == request.getMaxKeys()) {
+                    result.setTruncated(true);
+                    break;
+                }
+
+                listed++;
+                if (dirEnd < 0) {
+                    result.getObjectSummaries().add(summary(key));
+                } else {
+                    result.getCommonPrefixes().add(entry);
+                }
+                result.setNextContinuationToken(dirEnd < 0 ? key : entry + Character.MAX_VALUE);
+            }
+            return result;
+        });
+    }
+
+    // Honors StartAfter and MaxKeys, continuation token is offset of the next key. Default page is small,
+    // so that listings span several pages
+    private void mockListing() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(inv -> {
+            ListObjectsV2Request request = inv.getArgument(0);
+            List<String> keys = matching(request.getBucketName(), request.getPrefix()).stream()
+                    .filter(it -> null == request.getStartAfter() || it.compareTo(request.getStartAfter()) > 0)
+                    .collect(Collectors.toList());
+            int from = null == request.getContinuationToken() ? 0 : Integer.parseInt(request.getContinuationToken());
+            int to = Math.min(keys.size(), from + (null == request.getMaxKeys() ? 2 : request.getMaxKeys()));
+
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            keys.subList(from, to).forEach(key -> result.getObjectSummaries().add(summary(key)));
+            result.setTruncated(to < keys.size());
+            result.setNextContinuationToken(String.valueOf(to));
+            return result;
+        });
+    }
+
+    private List<String> matching(String bucket, String prefix) {
+        return objects.stream()
+                .filter(it -> it.startsWith(bucket + "/" + prefix))
+                .map(it -> it.substring(bucket.length() + 1))
+                .collect(Collectors.toList());
+    }
+
+    private static S3ObjectSummary summary(String key) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setKey(key);
+        summary.setLastModified(new Date());
+        return summary;
+    }
+
+    private static AbsoluteLocation location(String key) {
+        return BasePrivateResource.forAbsolutePrivate(URI.create("s3://" + BUCKET + "/" + key));
+    }
+}
@@ -0,0 +1,89 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceListShallowTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Mock
+    private AmazonS3 s3;
+
+    @Mock
+    private ExecutorService executor;
+
+    @Test
+    void listsFilesAndCommonPrefixesOfAllPages() {
+        List<String> tokens = new ArrayList<>();
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(inv -> {
+            ListObjectsV2Request request = inv.getArgument(0);
+            tokens.add(request.getContinuationToken());
+            return null == request.getContinuationToken()
+                    ? page("next", "root/", "root/file1")
+                    : page(null, null, "root/file2", "root/dir/");
+        });
+        ArgumentCaptor<ListObjectsV2Request> request = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+
+        List<AbsoluteLocation<ResolvedResource>> listed = new S3StorageService(s3, BUCKET, executor)
+                .listShallow(BasePrivateResource.forAbsolutePrivate(URI.create("s3://" + BUCKET + "/root")))
+                .collect(Collectors.toList());
+
+        assertThat(listed).extracting(it -> it.location().toASCIIString()).containsExactly(
+                "s3://bucket/root/file1", "s3://bucket/root/file2", "s3://bucket/root/dir/"
+        );
+        assertThat(listed.get(2).getResource().getModifiedAt()).isNull();
+        assertThat(tokens).containsExactly(null, "next");
+        verify(s3, times(2)).listObjectsV2(request.capture());
+        assertThat(request.getValue().getPrefix()).isEqualTo("root/");
+        assertThat(request.getValue().getDelimiter()).isEqualTo("/");
+    }
+
+    private static ListObjectsV2Result page(String nextToken, String dirMarker, String... keys) {
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        result.setTruncated(null != nextToken);
+        result.setNextContinuationToken(nextToken);
+        if (null != dirMarker) {
+            result.getObjectSummaries().add(summary(dirMarker));
+        }
+
+        for (String key : keys) {
+            if (key.endsWith("/")) {
+                result.getCommonPrefixes().add(key);
+            } else {
+                result.getObjectSummaries().add(summary(key));
+            }
+        }
+
+        return result;
+    }
+
+    private static S3ObjectSummary summary(String key) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setKey(key);
+        summary.setLastModified(new Date());
+        return summary;
+    }
+}
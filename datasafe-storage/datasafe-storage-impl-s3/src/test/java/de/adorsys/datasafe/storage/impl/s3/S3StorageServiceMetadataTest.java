@@ -0,0 +1,71 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceMetadataTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void metadataIsReadUsingHeadRequest() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(10);
+        metadata.setLastModified(new Date(1000));
+        metadata.setHeader("ETag", "tag");
+        when(s3.getObjectMetadata(BUCKET, "folder/file")).thenReturn(metadata);
+
+        ResolvedResource resource = storage().metadata(location("folder/file")).get().getResource();
+
+        assertThat(resource.getSize()).isEqualTo(10L);
+        assertThat(resource.getETag()).isEqualTo("tag");
+        assertThat(resource.location().asURI().getPath()).isEqualTo("/folder/file");
+        verify(s3, never()).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    @Test
+    void missingObjectHasNoMetadata() {
+        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+        notFound.setStatusCode(404);
+        when(s3.getObjectMetadata(BUCKET, "missing")).thenThrow(notFound);
+
+        assertThat(storage().metadata(location("missing"))).isEmpty();
+    }
+
+    private S3StorageService storage() {
+        return new S3StorageService(s3, BUCKET, executor);
+    }
+
+    private static AbsoluteLocation location(String path) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://" + BUCKET + "/" + path));
+    }
+}
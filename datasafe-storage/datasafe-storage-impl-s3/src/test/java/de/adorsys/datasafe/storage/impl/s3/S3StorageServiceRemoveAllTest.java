@@ -0,0 +1,77 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceRemoveAllTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Mock
+    private AmazonS3 s3;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void removesInBatchesOfThousandKeys() {
+        List<DeleteObjectsRequest> requests = new CopyOnWriteArrayList<>();
+        when(s3.deleteObjects(any())).thenAnswer(inv -> {
+            requests.add(inv.getArgument(0));
+            return null;
+        });
+
+        storage().removeAll(IntStream.range(0, 2500).mapToObj(it -> location("file" + it)));
+
+        assertThat(requests).extracting(it -> it.getKeys().size()).containsExactlyInAnyOrder(1000, 1000, 500);
+        assertThat(requests.stream().flatMap(it -> it.getKeys().stream()).map(DeleteObjectsRequest.KeyVersion::getKey))
+                .containsExactlyInAnyOrderElementsOf(
+                        IntStream.range(0, 2500).mapToObj(it -> "folder/file" + it).collect(Collectors.toList())
+                );
+        verify(s3, never()).deleteObject(any(), any());
+    }
+
+    @Test
+    void propagatesFailedBatch() {
+        when(s3.deleteObjects(any())).thenThrow(
+                new MultiObjectDeleteException(Collections.emptyList(), Collections.emptyList())
+        );
+
+        assertThatThrownBy(() -> storage().removeAll(IntStream.range(0, 10).mapToObj(it -> location("file" + it))))
+                .isInstanceOf(MultiObjectDeleteException.class);
+    }
+
+    private S3StorageService storage() {
+        return new S3StorageService(s3, BUCKET, executor, S3StorageConfig.builder().removeBatchesInFlight(2).build());
+    }
+
+    private static AbsoluteLocation location(String path) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate("s3://" + BUCKET + "/folder/" + path));
+    }
+}
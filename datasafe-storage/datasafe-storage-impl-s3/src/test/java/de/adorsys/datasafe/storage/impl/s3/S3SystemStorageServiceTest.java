@@ -34,7 +34,7 @@ class S3SystemStorageServiceTest extends BaseMockitoTest {
     private static String region = "eu-central-1";
     private static String url = "http://localhost";
     private static BasicAWSCredentials creds = new BasicAWSCredentials(accessKeyID, secretAccessKey);
-    private static AmazonS3 s3;
+    protected static AmazonS3 s3;
     private static AbsoluteLocation<PrivateResource> root;
     private static AbsoluteLocation<PrivateResource> fileWithMsg;
 
@@ -0,0 +1,44 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Single page of listing.
+ * @param <T> Listed entry
+ */
+@Value
+public class ListPage<T> {
+
+    /**
+     * Entries of this page, in listing order.
+     */
+    @NonNull
+    private final List<T> items;
+
+    /**
+     * Opaque token that continues listing after the last entry of this page, {@code null} if this page is the
+     * last one. It is valid only for the same listing location.
+     */
+    private final String nextToken;
+
+    public boolean hasNext() {
+        return null != nextToken;
+    }
+
+    /**
+     * @return Same page with each entry mapped using {@code mapper}, entries mapped to {@code null} are dropped
+     */
+    public <R> ListPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream()
+                .map(mapper)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new ListPage<>(mapped, nextToken);
+    }
+}
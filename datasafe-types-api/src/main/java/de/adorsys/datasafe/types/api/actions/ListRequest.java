@@ -28,6 +28,24 @@ public class ListRequest<T, L extends ResourceLocation> {
     @NonNull
     private final L location;
 
+    /**
+     * If false, only direct children of {@code location} are listed - files and sub-directories, latter have
+     * location ending with '/'.
+     */
+    @Builder.Default
+    private final boolean recursive = true;
+
+    public ListRequest(T owner, L location) {
+        this(owner, location, true);
+    }
+
+    /**
+     * @return Same request that lists only direct children of its location.
+     */
+    public ListRequest<T, L> shallow() {
+        return toBuilder().recursive(false).build();
+    }
+
     public static <T> ListRequest<T, PrivateResource> forDefaultPrivate(T owner, URI path) {
         return forDefaultPrivate(owner, new Uri(path));
     }
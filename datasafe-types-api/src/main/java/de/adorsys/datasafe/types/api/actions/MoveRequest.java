@@ -0,0 +1,53 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResourceLocation;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.net.URI;
+
+/**
+ * Request to move (rename) data from one location to another.
+ * @param <T> Resource owner
+ * @param <L> Resource location
+ */
+@Value
+@Builder(toBuilder = true)
+public class MoveRequest<T, L extends ResourceLocation> {
+
+    @NonNull
+    private final T owner;
+
+    /**
+     * Where resource is now.
+     */
+    @NonNull
+    private final L location;
+
+    /**
+     * Where resource is moved to, existing resource is overwritten.
+     */
+    @NonNull
+    private final L target;
+
+    public static <T> MoveRequest<T, PrivateResource> forPrivate(T owner, PrivateResource path,
+                                                                 PrivateResource target) {
+        return new MoveRequest<>(owner, path, target);
+    }
+
+    public static <T> MoveRequest<T, PrivateResource> forDefaultPrivate(T owner, String path, String target) {
+        return forDefaultPrivate(owner, new Uri(path), new Uri(target));
+    }
+
+    public static <T> MoveRequest<T, PrivateResource> forDefaultPrivate(T owner, URI path, URI target) {
+        return forDefaultPrivate(owner, new Uri(path), new Uri(target));
+    }
+
+    public static <T> MoveRequest<T, PrivateResource> forDefaultPrivate(T owner, Uri path, Uri target) {
+        return new MoveRequest<>(owner, BasePrivateResource.forPrivate(path), BasePrivateResource.forPrivate(target));
+    }
+}
@@ -0,0 +1,94 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Selects {@link ListPage} from unordered listing. Continuation token wraps key of the last entry of the page,
+ * so that next page starts right after it, even if entries were added or removed in between.
+ */
+public final class PageSelection {
+
+    private PageSelection() {
+    }
+
+    /**
+     * @param lastKey Key of the last entry in page
+     * @return Opaque token that continues listing after {@code lastKey}
+     */
+    public static String token(String lastKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token Token of previous page or {@code null}
+     * @return Key after which listing continues, {@code null} for the first page
+     */
+    public static String afterKey(String token) {
+        if (null == token) {
+            return null;
+        }
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Malformed continuation token", ex);
+        }
+    }
+
+    public static void validatePageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive, got " + pageSize);
+        }
+    }
+
+    /**
+     * Selects page from unordered listing, keeping at most {@code pageSize + 1} entries in memory.
+     * @param listing Whole listing
+     * @param key Unique key that orders entries
+     * @param token Token of previous page or {@code null}
+     * @param pageSize Maximum amount of entries in page
+     * @return Entries ordered by their key
+     */
+    public static <T> ListPage<T> select(Stream<T> listing, Function<? super T, String> key,
+                                         String token, int pageSize) {
+        validatePageSize(pageSize);
+        String afterKey = afterKey(token);
+
+        // largest key is on top, so it is evicted once page is full
+        PriorityQueue<Map.Entry<String, T>> selected = new PriorityQueue<>(
+                Comparator.comparing(Map.Entry<String, T>::getKey).reversed()
+        );
+        listing.forEach(it -> {
+            String entryKey = key.apply(it);
+            if (null != afterKey && entryKey.compareTo(afterKey) <= 0) {
+                return;
+            }
+
+            if (selected.size() <= pageSize) {
+                selected.add(new SimpleImmutableEntry<>(entryKey, it));
+            } else if (entryKey.compareTo(selected.peek().getKey()) < 0) {
+                selected.poll();
+                selected.add(new SimpleImmutableEntry<>(entryKey, it));
+            }
+        });
+
+        List<Map.Entry<String, T>> ordered = new ArrayList<>(selected);
+        ordered.sort(Map.Entry.comparingByKey());
+        List<Map.Entry<String, T>> page = ordered.subList(0, Math.min(pageSize, ordered.size()));
+
+        return new ListPage<>(
+                page.stream().map(Map.Entry::getValue).collect(Collectors.toList()),
+                ordered.size() > pageSize ? token(page.get(pageSize - 1).getKey()) : null
+        );
+    }
+}
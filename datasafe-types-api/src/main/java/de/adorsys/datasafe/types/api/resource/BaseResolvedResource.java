@@ -1,19 +1,27 @@
 package de.adorsys.datasafe.types.api.resource;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.time.Instant;
 
 /**
- * Base class for storage operations output.
+ * Base class for storage operations output. Size, ETag and storage class are optional metadata that storage
+ * listing provides without extra requests.
  */
 @Getter
-@RequiredArgsConstructor
+@AllArgsConstructor
 public class BaseResolvedResource implements ResolvedResource {
 
     private final PrivateResource resource;
     private final Instant modifiedAt;
+    private final Long size;
+    private final String eTag;
+    private final String storageClass;
+
+    public BaseResolvedResource(PrivateResource resource, Instant modifiedAt) {
+        this(resource, modifiedAt, null, null, null);
+    }
 
     /**
      * @param resource New root for this resource
@@ -21,7 +29,7 @@ public class BaseResolvedResource implements ResolvedResource {
      */
     @Override
     public ResolvedResource withResource(PrivateResource resource) {
-        return new BaseResolvedResource(resource, modifiedAt);
+        return new BaseResolvedResource(resource, modifiedAt, size, eTag, storageClass);
     }
 
     /**
@@ -38,7 +46,7 @@ public class BaseResolvedResource implements ResolvedResource {
      */
     @Override
     public ResolvedResource resolveFrom(ResourceLocation absolute) {
-        return new BaseResolvedResource(resource.resolveFrom(absolute), modifiedAt);
+        return new BaseResolvedResource(resource.resolveFrom(absolute), modifiedAt, size, eTag, storageClass);
     }
 
     /**
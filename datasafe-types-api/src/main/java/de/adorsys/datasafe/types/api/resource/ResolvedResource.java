@@ -13,6 +13,29 @@ public interface ResolvedResource extends ResourceLocation<ResolvedResource> {
      */
     Instant getModifiedAt();
 
+    /**
+     * @return Resource size in bytes as stored (encrypted), {@code null} if storage listing does not provide it
+     * or resource is a directory.
+     */
+    default Long getSize() {
+        return null;
+    }
+
+    /**
+     * @return Tag that changes whenever resource content changes (i.e. S3 ETag), {@code null} if storage listing
+     * does not provide it.
+     */
+    default String getETag() {
+        return null;
+    }
+
+    /**
+     * @return Storage class of resource (i.e. S3 STANDARD or GLACIER), {@code null} if storage has no classes.
+     */
+    default String getStorageClass() {
+        return null;
+    }
+
     /**
      * @param resource New path for this resource
      * @return Relocated resource (example: relative to absolute) that preserves metadata, but drops path.
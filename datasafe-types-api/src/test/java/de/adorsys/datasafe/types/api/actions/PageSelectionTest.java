@@ -0,0 +1,32 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageSelectionTest {
+
+    @Test
+    void selectContinuesAfterLastKey() {
+        ListPage<String> first = PageSelection.select(Stream.of("c", "a", "d", "b"), Function.identity(), null, 2);
+        ListPage<String> second = PageSelection.select(
+                Stream.of("c", "a", "d", "b"), Function.identity(), first.getNextToken(), 2
+        );
+
+        assertThat(first.getItems()).containsExactly("a", "b");
+        assertThat(second.getItems()).containsExactly("c", "d");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void selectRejectsMalformedTokenAndPageSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PageSelection.select(Stream.of("a"), Function.identity(), "%%", 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageSelection.select(Stream.of("a"), Function.identity(), null, 0));
+    }
+}
@@ -3,6 +3,7 @@ package de.adorsys.datasafe.types.api.utils;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.Arrays;
 
 @Slf4j
 class BaseResolvedResourceTest {
@@ -29,4 +31,20 @@ class BaseResolvedResourceTest {
         Assertions.assertEquals(uriString, baseResolvedResource.asPrivate().location().toASCIIString());
         Assertions.assertEquals(uriString, baseResolvedResource.location().toASCIIString());
     }
+
+    @Test
+    void metadataIsPreservedWhenResourceIsRelocated() {
+        Uri uri = new Uri("uri");
+        PrivateResource privateResource = new BasePrivateResource(uri, uri, uri);
+        BaseResolvedResource resource =
+                new BaseResolvedResource(privateResource, Instant.EPOCH, 10L, "etag", "STANDARD");
+
+        for (ResolvedResource relocated : Arrays.asList(
+                resource.resolveFrom(privateResource), resource.withResource(privateResource))) {
+            Assertions.assertEquals(Instant.EPOCH, relocated.getModifiedAt());
+            Assertions.assertEquals(10L, relocated.getSize().longValue());
+            Assertions.assertEquals("etag", relocated.getETag());
+            Assertions.assertEquals("STANDARD", relocated.getStorageClass());
+        }
+    }
 }